@@ -0,0 +1,39 @@
+#!/bin/bash
+# Lays out the AOT-processed jar (mvn package -Pfast-startup) for class data sharing and records
+# the CDS archive. CDS only archives classes loaded from jar files, so the application classes are
+# repackaged into application.jar next to lib/, in the class path order of classpath.idx.
+# Usage: scripts/fast-startup.sh extract <jar> <dir>
+#        scripts/fast-startup.sh train <dir> [extra service args]
+# The service then runs from <dir> with:
+#   java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true @classpath.args \
+#     com.fooddelivery.restaurant.RestaurantServiceApplication --spring.profiles.active=fast-startup
+set -euo pipefail
+
+case "${1:-}" in
+  extract)
+    boot_jar=$(realpath "$2")
+    dir=$3
+    rm -rf "$dir"
+    mkdir -p "$dir/unpacked"
+    (cd "$dir/unpacked" && jar -xf "$boot_jar")
+    jar -cf "$dir/application.jar" -C "$dir/unpacked/BOOT-INF/classes" .
+    mv "$dir/unpacked/BOOT-INF/lib" "$dir/lib"
+    { printf -- '-cp application.jar'; sed -n 's#^- "BOOT-INF/\(lib/.*\)"$#:\1#p' "$dir/unpacked/BOOT-INF/classpath.idx" | tr -d '\n'; echo; } > "$dir/classpath.args"
+    rm -rf "$dir/unpacked"
+    ;;
+  train)
+    cd "$2"
+    shift 2
+    # Refreshes the context without a database or registry and exits before the web server starts;
+    # the classes loaded up to that point go into the archive
+    java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+      @classpath.args com.fooddelivery.restaurant.RestaurantServiceApplication \
+      --spring.jpa.hibernate.ddl-auto=none \
+      --spring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+      --eureka.client.register-with-eureka=false --eureka.client.fetch-registry=false "$@"
+    ;;
+  *)
+    echo "Usage: $0 extract <jar> <dir> | train <dir> [extra service args]" >&2
+    exit 1
+    ;;
+esac
@@ -0,0 +1,29 @@
+#!/bin/bash
+# Compares the servlet and reactive read paths at a fixed heap.
+# Usage: scripts/read-stack-benchmark.sh [extra service args, e.g. --spring.profiles.active=sharding]
+# Env: HEAP (default 256m), LEVELS (default 64,256,1024,2048), SECONDS (default 15), BENCH_PATH (default /api/restaurants)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+HEAP=${HEAP:-256m}
+LEVELS=${LEVELS:-64,256,1024,2048}
+SECONDS_PER_LEVEL=${SECONDS:-15}
+BENCH_PATH=${BENCH_PATH:-/api/restaurants}
+
+mvn -B -q package -DskipTests
+java -Xms$HEAP -Xmx$HEAP -jar target/restaurant-service-1.0.0.jar \
+  --server.port=8081 --restaurant.reactive.enabled=true --restaurant.reactive.port=8091 --eureka.client.enabled=false "$@" > target/read-stack-benchmark.log 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null' EXIT
+
+until curl -sf localhost:8081/actuator/health > /dev/null; do
+  kill -0 $PID || { echo "Service failed to start, see target/read-stack-benchmark.log"; exit 1; }
+  sleep 1
+done
+
+java -cp target/classes:target/test-classes com.fooddelivery.restaurant.util.ReadStackBenchmark \
+  --servlet=http://localhost:8081 --reactive=http://localhost:8091 \
+  --path=$BENCH_PATH --levels=$LEVELS --seconds=$SECONDS_PER_LEVEL
+
+echo
+echo "Service after run: heap=$HEAP rss=$(ps -o rss= -p $PID | awk '{printf "%d MB", $1/1024}') threads=$(ls /proc/$PID/task | wc -l)"
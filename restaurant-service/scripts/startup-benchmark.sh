@@ -0,0 +1,69 @@
+#!/bin/bash
+# Compares startup of the regular jar with the fast-startup build (AOT + CDS archive + lazy init):
+# time from launch to the first successful read, Spring's own startup time, and RSS at that point.
+# Usage: scripts/startup-benchmark.sh [extra service args, e.g. database settings]
+# Env: PROFILES (extra profiles for both modes, e.g. sharding), RUNS (default 5),
+#      BENCH_PATH (default /api/restaurants)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+BENCH_PATH=${BENCH_PATH:-/api/restaurants}
+URL=http://localhost:8081$BENCH_PATH
+OUT=target/startup-benchmark
+MAIN=com.fooddelivery.restaurant.RestaurantServiceApplication
+
+mvn -B -q package -DskipTests
+mkdir -p $OUT
+cp target/restaurant-service-1.0.0.jar $OUT/default.jar
+mvn -B -q package -DskipTests -Pfast-startup -Daot.profiles=fast-startup${PROFILES:+,$PROFILES}
+scripts/fast-startup.sh extract target/restaurant-service-1.0.0.jar $OUT/fast
+scripts/fast-startup.sh train $OUT/fast --spring.profiles.active=fast-startup${PROFILES:+,$PROFILES} "$@" > $OUT/train.log 2>&1
+
+PID=
+trap '[ -n "$PID" ] && kill $PID 2>/dev/null' EXIT
+
+start_default() {
+  java -jar $OUT/default.jar ${PROFILES:+--spring.profiles.active=$PROFILES} \
+    --server.port=8081 --restaurant.reactive.port=8091 --eureka.client.enabled=false "$@" > $OUT/service.log 2>&1 &
+  PID=$!
+}
+
+start_fast() {
+  (cd $OUT/fast && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true @classpath.args $MAIN \
+    --spring.profiles.active=fast-startup${PROFILES:+,$PROFILES} \
+    --server.port=8081 --restaurant.reactive.port=8091 --eureka.client.enabled=false "$@" > ../service.log 2>&1) &
+  PID=$!
+}
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+run() {
+  local mode=$1
+  shift
+  local total_ready=0 total_rss=0
+  for run in $(seq 1 "$RUNS"); do
+    local launched ready started rss
+    launched=$(now_ms)
+    start_$mode "$@"
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = "200" ]; do
+      kill -0 $PID || { echo "Service failed to start, see $OUT/service.log"; exit 1; }
+      sleep 0.02
+    done
+    ready=$(( $(now_ms) - launched ))
+    rss=$(( $(ps -o rss= -p $PID) / 1024 ))
+    started=$(grep -o 'Started RestaurantServiceApplication in [0-9.]* seconds' $OUT/service.log | grep -o '[0-9.]* seconds' || echo '-')
+    printf '%-8s run %d: first 200 after %6d ms   context started in %-14s rss %4d MB\n' "$mode" "$run" "$ready" "$started" "$rss"
+    total_ready=$(( total_ready + ready ))
+    total_rss=$(( total_rss + rss ))
+    kill $PID
+    wait $PID 2>/dev/null || true
+    PID=
+  done
+  printf '%-8s mean:  first 200 after %6d ms   rss %4d MB\n\n' "$mode" $(( total_ready / RUNS )) $(( total_rss / RUNS ))
+}
+
+run default "$@"
+run fast "$@"
@@ -0,0 +1,71 @@
+#!/bin/bash
+# Measures time to first successful read and the latency of the first requests after a restart,
+# once answered from the catalog snapshot and once cold from the database.
+# Usage: scripts/warm-start-benchmark.sh [extra service args, e.g. --spring.profiles.active=sharding]
+# Env: BENCH_PATH (default /api/restaurants), REQUESTS (default 200),
+#      ADMIN_TOKEN (required for the actuator calls; util.JwtTokenGenerator prints one)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+BENCH_PATH=${BENCH_PATH:-/api/restaurants}
+REQUESTS=${REQUESTS:-200}
+ADMIN_TOKEN=${ADMIN_TOKEN:?set ADMIN_TOKEN to an ADMIN bearer token}
+URL=http://localhost:8081$BENCH_PATH
+
+mvn -B -q package -DskipTests
+
+PID=
+trap '[ -n "$PID" ] && kill $PID 2>/dev/null' EXIT
+
+start_service() {
+  java -jar target/restaurant-service-1.0.0.jar \
+    --server.port=8081 --restaurant.reactive.port=8091 --eureka.client.enabled=false "$@" > target/warm-start-benchmark.log 2>&1 &
+  PID=$!
+}
+
+stop_service() {
+  kill $PID
+  wait $PID 2>/dev/null || true
+  PID=
+}
+
+wait_for_first_read() {
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = "200" ]; do
+    kill -0 $PID || { echo "Service failed to start, see target/warm-start-benchmark.log"; exit 1; }
+    sleep 0.05
+  done
+}
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+run() {
+  local label=$1
+  shift
+  local launched
+  launched=$(now_ms)
+  start_service "$@"
+  wait_for_first_read
+  local first=$(( $(now_ms) - launched ))
+
+  local latencies
+  latencies=$(for _ in $(seq 1 "$REQUESTS"); do curl -s -o /dev/null -w '%{time_total}\n' "$URL"; done | sort -n)
+  local p50 p99
+  p50=$(echo "$latencies" | awk -v n="$REQUESTS" 'NR == int(n * 0.50) + 1 { printf "%.1f", $1 * 1000 }')
+  p99=$(echo "$latencies" | awk -v n="$REQUESTS" 'NR == int(n * 0.99) { printf "%.1f", $1 * 1000 }')
+
+  printf '%-9s first 200 after %6d ms   first %d requests p50 %6s ms  p99 %6s ms\n' "$label" "$first" "$REQUESTS" "$p50" "$p99"
+  curl -s -H "Authorization: Bearer $ADMIN_TOKEN" localhost:8081/actuator/catalogsnapshot | tr ',' '\n' | grep -E 'mapMillis|prewarmMillis|first|servedDuringWarmup' | tr '\n' ' '
+  echo
+  stop_service
+}
+
+# Make sure a current snapshot exists before measuring
+start_service --restaurant.catalog-snapshot.warmup-ms=0 "$@"
+wait_for_first_read
+curl -sf -X POST -H "Authorization: Bearer $ADMIN_TOKEN" localhost:8081/actuator/catalogsnapshot > /dev/null
+stop_service
+
+run snapshot "$@"
+run cold --restaurant.catalog-snapshot.warmup-ms=0 "$@"
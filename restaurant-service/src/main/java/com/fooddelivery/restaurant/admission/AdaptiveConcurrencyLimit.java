@@ -0,0 +1,81 @@
+package com.fooddelivery.restaurant.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit adjusted by additive increase and multiplicative decrease on observed
+ * latency. A response within the target while the limit is in use adds 1/limit, so the limit
+ * grows by about one per round of requests; a slower one or a server error multiplies it by the
+ * backoff ratio, at most once per target interval so a single slow burst does not collapse it.
+ */
+final class AdaptiveConcurrencyLimit {
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max and the backoff ratio lie in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+    
+    boolean tryAcquire(RequestPriority priority) {
+        int allowed = Math.max(1, (int) (limit() * priority.limitShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Returns the permit and feeds the request's outcome into the limit.
+     */
+    void release(long latencyNanos, boolean serverError) {
+        int before = inFlight.getAndDecrement();
+        if (serverError || latencyNanos > latencyTargetNanos) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            if (now - last >= latencyTargetNanos && lastDecrease.compareAndSet(last, now)) {
+                update(limit -> Math.max(minLimit, limit * backoffRatio));
+            }
+        } else if (before * 2 >= limit()) {
+            // Only grow while the limit is actually being used
+            update(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+    
+    double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+    
+    int inFlight() {
+        return inFlight.get();
+    }
+    
+    private void update(DoubleUnaryOperator change) {
+        while (true) {
+            long bits = limitBits.get();
+            long next = Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == next || limitBits.compareAndSet(bits, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.fooddelivery.restaurant.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.restaurant.affinity.PeerForwardVerifier;
+import com.fooddelivery.restaurant.exception.ErrorResponse;
+import com.fooddelivery.restaurant.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sheds API requests before they take a Tomcat thread into the service layer or into forwarding
+ * to another instance. Runs right after JWT authentication so each request can be classified: every client is held to its own rate
+ * (429 when exceeded), and all requests share a concurrency limit that adapts to latency, with
+ * anonymous reads turned away first and authenticated writes last (503).
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PeerForwardVerifier peerForwardVerifier;
+    private final ClientRateLimiter anonymousRate;
+    private final ClientRateLimiter authenticatedRate;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    
+    private final Map<RequestPriority, LongAdder> admitted = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, LongAdder> shed = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, LongAdder> rateLimited = new EnumMap<>(RequestPriority.class);
+    
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper,
+                                  PeerForwardVerifier peerForwardVerifier) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.peerForwardVerifier = peerForwardVerifier;
+        this.anonymousRate = new ClientRateLimiter(properties.getAnonymous().getPerSecond(),
+            properties.getAnonymous().getBurst(), properties.getStripes());
+        this.authenticatedRate = new ClientRateLimiter(properties.getAuthenticated().getPerSecond(),
+            properties.getAuthenticated().getBurst(), properties.getStripes());
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+            properties.getMaxLimit(), TimeUnit.MILLISECONDS.toNanos(properties.getLatencyTargetMs()),
+            properties.getBackoffRatio());
+        for (RequestPriority priority : RequestPriority.values()) {
+            admitted.put(priority, new LongAdder());
+            shed.put(priority, new LongAdder());
+            rateLimited.put(priority, new LongAdder());
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+            ? principal.getUserId() : null;
+        RequestPriority priority = userId == null ? RequestPriority.ANONYMOUS
+            : "GET".equals(request.getMethod()) ? RequestPriority.AUTHENTICATED_READ : RequestPriority.AUTHENTICATED_WRITE;
+        
+        // A signed forward from a peer was rate limited on the instance the client reached, and
+        // here it would only be keyed by the peer's address
+        if (!peerForwardVerifier.isVerified(request)) {
+            long waitNanos = userId == null
+                ? anonymousRate.tryAcquire(clientAddress(request))
+                : authenticatedRate.tryAcquire("user:" + userId);
+            if (waitNanos > 0) {
+                rateLimited.get(priority).increment();
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                    "Request rate limit exceeded");
+                return;
+            }
+        }
+        
+        if (!concurrencyLimit.tryAcquire(priority)) {
+            shed.get(priority).increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Service is at capacity, retry shortly");
+            return;
+        }
+        admitted.get(priority).increment();
+        long start = System.nanoTime();
+        boolean serverError = true;
+        try {
+            filterChain.doFilter(request, response);
+            // Client errors and statuses passed on from a peer or the database say nothing about load here
+            serverError = response.getStatus() == HttpStatus.INTERNAL_SERVER_ERROR.value()
+                || response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value();
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start, serverError);
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("limit", Math.round(concurrencyLimit.limit() * 10) / 10.0);
+        stats.put("inFlight", concurrencyLimit.inFlight());
+        Map<String, Object> byPriority = new LinkedHashMap<>();
+        for (RequestPriority priority : RequestPriority.values()) {
+            byPriority.put(priority.name(), Map.of(
+                "limitShare", priority.limitShare(),
+                "admitted", admitted.get(priority).sum(),
+                "shed", shed.get(priority).sum(),
+                "rateLimited", rateLimited.get(priority).sum()));
+        }
+        stats.put("priorities", byPriority);
+        return stats;
+    }
+    
+    private String clientAddress(HttpServletRequest request) {
+        if (StringUtils.hasText(properties.getClientIpHeader())) {
+            String forwarded = request.getHeader(properties.getClientIpHeader());
+            if (StringUtils.hasText(forwarded)) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+            LocalDateTime.now(),
+            status.value(),
+            status.getReasonPhrase(),
+            message,
+            request.getRequestURI()
+        ));
+    }
+}
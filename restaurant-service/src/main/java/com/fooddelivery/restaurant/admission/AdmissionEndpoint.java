@@ -0,0 +1,27 @@
+package com.fooddelivery.restaurant.admission;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Current concurrency limit, requests in flight and admitted, shed and rate-limited counts per
+ * priority at /actuator/admission.
+ */
+@Component
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+    
+    private final AdmissionControlFilter admissionControlFilter;
+    
+    public AdmissionEndpoint(AdmissionControlFilter admissionControlFilter) {
+        this.admissionControlFilter = admissionControlFilter;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> admission() {
+        return admissionControlFilter.stats();
+    }
+}
@@ -0,0 +1,43 @@
+package com.fooddelivery.restaurant.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "restaurant.admission")
+public class AdmissionProperties {
+    
+    private boolean enabled = true;
+    
+    // Header holding the caller's address when a gateway sits in front, e.g. X-Forwarded-For;
+    // blank uses the connection's remote address
+    private String clientIpHeader;
+    
+    private Rate anonymous = new Rate(20, 40);
+    private Rate authenticated = new Rate(50, 100);
+    
+    // Buckets are shared by clients whose keys hash to the same stripe
+    private int stripes = 65536;
+    
+    private int initialLimit = 50;
+    private int minLimit = 8;
+    private int maxLimit = 200;
+    
+    // Responses slower than this shrink the concurrency limit, faster ones let it grow
+    private long latencyTargetMs = 500;
+    private double backoffRatio = 0.9;
+    
+    @Data
+    public static class Rate {
+        private double perSecond;
+        private int burst;
+        
+        public Rate() {
+        }
+        
+        public Rate(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+}
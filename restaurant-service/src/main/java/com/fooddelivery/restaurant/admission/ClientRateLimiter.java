@@ -0,0 +1,50 @@
+package com.fooddelivery.restaurant.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-client token buckets kept as one theoretical arrival time per stripe (the generic cell rate
+ * algorithm), updated with compare-and-set so the hot path takes no lock and allocates nothing.
+ * A client may send {@code burst} requests at once and then one per emission interval.
+ */
+final class ClientRateLimiter {
+    
+    private final AtomicLongArray arrivals;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long origin = System.nanoTime();
+    
+    ClientRateLimiter(double perSecond, int burst, int stripes) {
+        if (perSecond <= 0 || burst < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Rate must be positive, burst at least 1 and stripes a power of two");
+        }
+        this.arrivals = new AtomicLongArray(stripes);
+        this.intervalNanos = (long) (1_000_000_000L / perSecond);
+        this.toleranceNanos = intervalNanos * burst;
+    }
+    
+    /**
+     * Takes a token for the client. Returns 0 when one was available, otherwise how many
+     * nanoseconds until the next one is.
+     */
+    long tryAcquire(String clientKey) {
+        int stripe = stripe(clientKey);
+        // Relative to construction so an untouched stripe (0) always counts as idle
+        long now = System.nanoTime() - origin;
+        while (true) {
+            long arrival = arrivals.get(stripe);
+            long next = Math.max(arrival, now) + intervalNanos;
+            if (next - now > toleranceNanos) {
+                return next - now - toleranceNanos;
+            }
+            if (arrivals.compareAndSet(stripe, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    private int stripe(String clientKey) {
+        int hash = clientKey.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (arrivals.length() - 1);
+    }
+}
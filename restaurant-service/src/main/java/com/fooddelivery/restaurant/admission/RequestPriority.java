@@ -0,0 +1,22 @@
+package com.fooddelivery.restaurant.admission;
+
+/**
+ * Admission classes, shed from the first to the last as load rises. Each class may only use its
+ * share of the current concurrency limit, so the remainder stays free for the classes after it.
+ */
+public enum RequestPriority {
+    
+    ANONYMOUS(0.7),
+    AUTHENTICATED_READ(0.85),
+    AUTHENTICATED_WRITE(1.0);
+    
+    private final double limitShare;
+    
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+    
+    public double limitShare() {
+        return limitShare;
+    }
+}
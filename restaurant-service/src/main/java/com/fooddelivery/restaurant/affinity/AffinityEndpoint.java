@@ -0,0 +1,46 @@
+package com.fooddelivery.restaurant.affinity;
+
+import com.fooddelivery.restaurant.cache.CacheRegionsEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ring membership, this node's share of restaurants, forwarding counters and cache hit ratios,
+ * exposed at /actuator/affinity to compare hit rates with and without affinity.
+ */
+@Component
+@Endpoint(id = "affinity")
+public class AffinityEndpoint {
+    
+    private final RestaurantAffinityRouter affinityRouter;
+    private final RestaurantAffinityFilter affinityFilter;
+    private final CacheRegionsEndpoint cacheRegionsEndpoint;
+    
+    public AffinityEndpoint(RestaurantAffinityRouter affinityRouter,
+                            RestaurantAffinityFilter affinityFilter,
+                            CacheRegionsEndpoint cacheRegionsEndpoint) {
+        this.affinityRouter = affinityRouter;
+        this.affinityFilter = affinityFilter;
+        this.cacheRegionsEndpoint = cacheRegionsEndpoint;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> affinity() {
+        ConsistentHashRing ring = affinityRouter.ring();
+        String self = affinityRouter.selfInstanceId();
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("instanceId", self);
+        response.put("members", ring.members());
+        response.put("localShare", self != null ? ring.shareOf(self) : 0.0);
+        response.put("servedOwned", affinityFilter.getServedOwned());
+        response.put("forwarded", affinityFilter.getForwarded());
+        response.put("forwardFailures", affinityFilter.getForwardFailures());
+        response.put("cache", cacheRegionsEndpoint.regions());
+        return response;
+    }
+}
@@ -0,0 +1,120 @@
+package com.fooddelivery.restaurant.affinity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring with virtual nodes. Adding or removing one member only moves
+ * the keys that member owned (about 1/N of the key space).
+ */
+public final class ConsistentHashRing {
+    
+    private static final ConsistentHashRing EMPTY = new ConsistentHashRing(new long[0], new String[0], List.of());
+    
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> members;
+    
+    private ConsistentHashRing(long[] points, String[] owners, List<String> members) {
+        this.points = points;
+        this.owners = owners;
+        this.members = members;
+    }
+    
+    public static ConsistentHashRing empty() {
+        return EMPTY;
+    }
+    
+    public static ConsistentHashRing of(Collection<String> memberIds, int virtualNodes) {
+        List<String> members = memberIds.stream().distinct().sorted().toList();
+        int size = members.size() * virtualNodes;
+        long[] unsortedPoints = new long[size];
+        String[] unsortedOwners = new String[size];
+        
+        int index = 0;
+        for (String member : members) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                unsortedPoints[index] = pointFor(member + "#" + replica);
+                unsortedOwners[index] = member;
+                index++;
+            }
+        }
+        
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsortedPoints[a], unsortedPoints[b]));
+        
+        long[] points = new long[size];
+        String[] owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = unsortedPoints[order[i]];
+            owners[i] = unsortedOwners[order[i]];
+        }
+        return new ConsistentHashRing(points, owners, members);
+    }
+    
+    public String ownerOf(long key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+    
+    public List<String> members() {
+        return members;
+    }
+    
+    /**
+     * Fraction of the 64-bit key space owned by the given member.
+     */
+    public double shareOf(String member) {
+        if (!members.contains(member)) {
+            return 0.0;
+        }
+        if (members.size() == 1) {
+            return 1.0;
+        }
+        double owned = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (owners[i].equals(member)) {
+                // Arc from the previous point, as an unsigned distance so wrap-around works too
+                long arc = points[i] - (i == 0 ? points[points.length - 1] : points[i - 1]);
+                owned += (arc >>> 1) * 2.0 + (arc & 1);
+            }
+        }
+        return owned / 0x1p64;
+    }
+    
+    private static long pointFor(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long point = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                point = (point << 8) | (digest[i] & 0xFF);
+            }
+            return point;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // MurmurHash3 finalizer: spreads sequential ids evenly over the ring
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
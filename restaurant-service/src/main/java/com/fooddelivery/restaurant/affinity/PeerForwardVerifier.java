@@ -0,0 +1,91 @@
+package com.fooddelivery.restaurant.affinity;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Signs requests one instance forwards to another and checks those signatures on arrival, so
+ * only peers holding the shared secret can mark a request as forwarded. The signature is an
+ * HMAC over the forwarding instance, a timestamp and the request line, and is accepted for a
+ * short window around the receiver's clock.
+ */
+@Component
+public class PeerForwardVerifier {
+    
+    public static final String SIGNATURE_HEADER = "X-Affinity-Signature";
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final long MAX_SKEW_SECONDS = 30;
+    private static final String VERIFIED_ATTRIBUTE = PeerForwardVerifier.class.getName() + ".verified";
+    
+    private final SecretKeySpec key;
+    
+    public PeerForwardVerifier(@Value("${restaurant.affinity.forward-secret:${jwt.secret}}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+    
+    public String sign(String forwardedBy, String method, String pathAndQuery) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        return timestamp + ":" + mac(forwardedBy, timestamp, method, pathAndQuery);
+    }
+    
+    /**
+     * Whether the request carries a valid signature from a peer. Remembered on the request, since
+     * several filters ask.
+     */
+    public boolean isVerified(HttpServletRequest request) {
+        Object cached = request.getAttribute(VERIFIED_ATTRIBUTE);
+        if (cached instanceof Boolean verified) {
+            return verified;
+        }
+        boolean verified = verify(request);
+        request.setAttribute(VERIFIED_ATTRIBUTE, verified);
+        return verified;
+    }
+    
+    private boolean verify(HttpServletRequest request) {
+        String forwardedBy = request.getHeader(RestaurantAffinityFilter.FORWARDED_HEADER);
+        String signature = request.getHeader(SIGNATURE_HEADER);
+        if (forwardedBy == null || signature == null) {
+            return false;
+        }
+        int colon = signature.indexOf(':');
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(signature.substring(0, Math.max(colon, 0)));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (Math.abs(System.currentTimeMillis() / 1000 - timestamp) > MAX_SKEW_SECONDS) {
+            return false;
+        }
+        String expected = mac(forwardedBy, timestamp, request.getMethod(), pathAndQuery(request));
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+            signature.substring(colon + 1).getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    static String pathAndQuery(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return request.getRequestURI() + (query != null ? "?" + query : "");
+    }
+    
+    private String mac(String forwardedBy, long timestamp, String method, String pathAndQuery) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((forwardedBy + "\n" + timestamp + "\n" + method + " " + pathAndQuery)
+                .getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
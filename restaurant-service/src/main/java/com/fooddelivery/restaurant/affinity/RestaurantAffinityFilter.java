@@ -0,0 +1,140 @@
+package com.fooddelivery.restaurant.affinity;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Forwards public restaurant and menu reads to the instance that owns the restaurant on the
+ * affinity ring. Falls back to serving locally if the owner cannot be reached. Runs inside the
+ * security chain after admission control, so forwarded reads are rate limited and hold a
+ * concurrency permit on the instance the client reached; the owner trusts only signed forwards.
+ */
+@Component
+public class RestaurantAffinityFilter extends OncePerRequestFilter {
+    
+    public static final String FORWARDED_HEADER = "X-Affinity-Forwarded-By";
+    public static final String SERVED_BY_HEADER = "X-Served-By";
+    
+    private static final Pattern RESTAURANT_READ = Pattern.compile("^/api/restaurants/(\\d+)(/menu)?$");
+    
+    // Headers that can change what the owner answers; the response keeps everything but hop-by-hop headers
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+        "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+    
+    private final RestaurantAffinityRouter affinityRouter;
+    private final PeerForwardVerifier peerForwardVerifier;
+    private final RestClient restClient;
+    private final boolean enabled;
+    
+    private final LongAdder servedOwned = new LongAdder();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder forwardFailures = new LongAdder();
+    
+    public RestaurantAffinityFilter(RestaurantAffinityRouter affinityRouter,
+                                    PeerForwardVerifier peerForwardVerifier,
+                                    @Value("${restaurant.affinity.enabled:true}") boolean enabled,
+                                    @Value("${restaurant.affinity.forward-timeout-ms:2000}") int forwardTimeoutMs) {
+        this.affinityRouter = affinityRouter;
+        this.peerForwardVerifier = peerForwardVerifier;
+        this.enabled = enabled;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Math.min(forwardTimeoutMs, 500));
+        requestFactory.setReadTimeout(forwardTimeoutMs);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+            || !"GET".equals(request.getMethod())
+            || peerForwardVerifier.isVerified(request);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Matcher matcher = RESTAURANT_READ.matcher(request.getRequestURI());
+        if (!matcher.matches()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        ServiceInstance owner = affinityRouter.remoteOwnerOf(Long.parseLong(matcher.group(1)));
+        if (owner != null && forward(owner, request, response)) {
+            forwarded.increment();
+            return;
+        }
+        
+        if (owner == null) {
+            servedOwned.increment();
+        }
+        String self = affinityRouter.selfInstanceId();
+        if (self != null) {
+            response.setHeader(SERVED_BY_HEADER, self);
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private boolean forward(ServiceInstance owner, HttpServletRequest request, HttpServletResponse response) {
+        String pathAndQuery = PeerForwardVerifier.pathAndQuery(request);
+        String self = String.valueOf(affinityRouter.selfInstanceId());
+        URI target = URI.create(owner.getUri() + pathAndQuery);
+        try {
+            return restClient.get()
+                .uri(target)
+                .header(FORWARDED_HEADER, self)
+                .header(PeerForwardVerifier.SIGNATURE_HEADER, peerForwardVerifier.sign(self, "GET", pathAndQuery))
+                .headers(headers -> FORWARDED_REQUEST_HEADERS.forEach(name ->
+                    Collections.list(request.getHeaders(name)).forEach(value -> headers.add(name, value))))
+                .exchange((clientRequest, clientResponse) -> {
+                    response.setStatus(clientResponse.getStatusCode().value());
+                    clientResponse.getHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                            response.setHeader(name, values.get(0));
+                            values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+                        }
+                    });
+                    response.setHeader(SERVED_BY_HEADER, owner.getInstanceId());
+                    StreamUtils.copy(clientResponse.getBody(), response.getOutputStream());
+                    return true;
+                });
+        } catch (RuntimeException e) {
+            forwardFailures.increment();
+            return false;
+        }
+    }
+    
+    public long getServedOwned() {
+        return servedOwned.sum();
+    }
+    
+    public long getForwarded() {
+        return forwarded.sum();
+    }
+    
+    public long getForwardFailures() {
+        return forwardFailures.sum();
+    }
+}
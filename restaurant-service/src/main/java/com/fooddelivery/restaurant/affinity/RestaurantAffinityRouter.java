@@ -0,0 +1,104 @@
+package com.fooddelivery.restaurant.affinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns each restaurant to one registered instance via a consistent-hash ring over the
+ * instances Eureka reports, so each node only needs to cache its own share of restaurants.
+ */
+@Component
+public class RestaurantAffinityRouter {
+    
+    private static final Logger log = LoggerFactory.getLogger(RestaurantAffinityRouter.class);
+    
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final String serviceId;
+    private final int virtualNodes;
+    
+    private volatile ConsistentHashRing ring = ConsistentHashRing.empty();
+    private volatile Map<String, ServiceInstance> instances = Map.of();
+    
+    public RestaurantAffinityRouter(DiscoveryClient discoveryClient,
+                                    ObjectProvider<Registration> registration,
+                                    @Value("${spring.application.name}") String serviceId,
+                                    @Value("${restaurant.affinity.virtual-nodes:128}") int virtualNodes) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.serviceId = serviceId;
+        this.virtualNodes = virtualNodes;
+    }
+    
+    public String selfInstanceId() {
+        Registration self = registration.getIfAvailable();
+        return self != null ? self.getInstanceId() : null;
+    }
+    
+    /**
+     * The instance owning the restaurant, or null when this instance owns it or no ring is known.
+     */
+    public ServiceInstance remoteOwnerOf(long restaurantId) {
+        String owner = ring.ownerOf(restaurantId);
+        if (owner == null || owner.equals(selfInstanceId())) {
+            return null;
+        }
+        return instances.get(owner);
+    }
+    
+    /**
+     * The other instances in the ring; empty while this instance is not part of it.
+     */
+    public List<ServiceInstance> peers() {
+        String self = selfInstanceId();
+        return instances.values().stream()
+            .filter(instance -> !instance.getInstanceId().equals(self))
+            .toList();
+    }
+    
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+    
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryRefreshed() {
+        refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.affinity.refresh-interval-ms:10000}")
+    public synchronized void refresh() {
+        List<ServiceInstance> current = discoveryClient.getInstances(serviceId);
+        Map<String, ServiceInstance> byId = current.stream()
+            .filter(instance -> instance.getInstanceId() != null)
+            .collect(Collectors.toMap(ServiceInstance::getInstanceId, Function.identity(), (a, b) -> a));
+        
+        String self = selfInstanceId();
+        if (self == null || !byId.containsKey(self)) {
+            // Not registered yet (or discovery is off): serve everything locally
+            byId = Map.of();
+        }
+        if (byId.keySet().equals(instances.keySet())) {
+            return;
+        }
+        
+        ConsistentHashRing rebuilt = ConsistentHashRing.of(byId.keySet(), virtualNodes);
+        instances = byId;
+        ring = rebuilt;
+        log.info("Restaurant affinity ring rebalanced across {} instances, local share {}",
+            rebuilt.members().size(), String.format("%.3f", rebuilt.shareOf(self)));
+    }
+}
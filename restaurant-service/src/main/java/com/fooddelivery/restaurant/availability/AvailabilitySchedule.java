@@ -0,0 +1,152 @@
+package com.fooddelivery.restaurant.availability;
+
+import com.fooddelivery.restaurant.entity.MenuItemAvailabilityWindow;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A menu item's weekly availability windows, evaluated in its restaurant's time zone. Window edges
+ * are wall-clock times, so across daylight saving changes a window keeps its local hours: an edge
+ * that falls into a skipped hour moves later by the length of the gap (01:30 becomes 02:30), and
+ * one in a repeated hour takes effect at its first occurrence.
+ */
+public final class AvailabilitySchedule {
+    
+    // Far enough on either side of a weekly pattern to see the previous and the next edge
+    private static final int HORIZON_DAYS = 8;
+    
+    private final ZoneId zone;
+    private final List<Window> windows;
+    
+    private AvailabilitySchedule(ZoneId zone, List<Window> windows) {
+        this.zone = zone;
+        this.windows = windows;
+    }
+    
+    public static AvailabilitySchedule of(ZoneId zone, List<MenuItemAvailabilityWindow> windows) {
+        return new AvailabilitySchedule(zone, windows.stream()
+            .map(window -> new Window(window.getDays(), window.getStartTime(), window.getEndTime()))
+            .toList());
+    }
+    
+    public static ZoneId zoneOf(String timeZone) {
+        return timeZone != null ? ZoneId.of(timeZone) : ZoneId.of("UTC");
+    }
+    
+    public static int daysMask(Iterable<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= dayBit(day);
+        }
+        return mask;
+    }
+    
+    public static Set<DayOfWeek> daysOf(int mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & dayBit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+    
+    public AvailabilitySchedule withZone(ZoneId zone) {
+        return new AvailabilitySchedule(zone, windows);
+    }
+    
+    public ZoneId zone() {
+        return zone;
+    }
+    
+    public boolean isAvailableAt(Instant instant) {
+        return isAvailableAt(intervalsAround(instant), instant);
+    }
+    
+    /**
+     * The first instant after the given one at which availability flips, or null if it never does.
+     */
+    public Instant nextChangeAfter(Instant instant) {
+        List<Interval> intervals = intervalsAround(instant);
+        boolean current = isAvailableAt(intervals, instant);
+        for (Instant edge : edges(intervals)) {
+            if (edge.isAfter(instant) && isAvailableAt(intervals, edge) != current) {
+                return edge;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * The last instant at or before the given one at which availability flipped, or null if it never does.
+     */
+    public Instant lastChangeAtOrBefore(Instant instant) {
+        List<Interval> intervals = intervalsAround(instant);
+        for (Instant edge : edges(intervals).descendingSet()) {
+            if (!edge.isAfter(instant)
+                && isAvailableAt(intervals, edge) != isAvailableAt(intervals, edge.minusNanos(1))) {
+                return edge;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isAvailableAt(List<Interval> intervals, Instant instant) {
+        for (Interval interval : intervals) {
+            if (!instant.isBefore(interval.start) && instant.isBefore(interval.end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static TreeSet<Instant> edges(List<Interval> intervals) {
+        TreeSet<Instant> edges = new TreeSet<>();
+        for (Interval interval : intervals) {
+            edges.add(interval.start);
+            edges.add(interval.end);
+        }
+        return edges;
+    }
+    
+    // Every occurrence of every window that starts within the horizon, as concrete instants
+    private List<Interval> intervalsAround(Instant instant) {
+        LocalDate today = instant.atZone(zone).toLocalDate();
+        List<Interval> intervals = new ArrayList<>();
+        for (LocalDate date = today.minusDays(HORIZON_DAYS); !date.isAfter(today.plusDays(HORIZON_DAYS)); date = date.plusDays(1)) {
+            for (Window window : windows) {
+                if ((window.days & dayBit(date.getDayOfWeek())) == 0) {
+                    continue;
+                }
+                if (window.start.equals(window.end)) {
+                    intervals.add(new Interval(date.atStartOfDay(zone).toInstant(), date.plusDays(1).atStartOfDay(zone).toInstant()));
+                } else {
+                    LocalDate endDate = window.end.isAfter(window.start) ? date : date.plusDays(1);
+                    intervals.add(new Interval(ZonedDateTime.of(date, window.start, zone).toInstant(),
+                        ZonedDateTime.of(endDate, window.end, zone).toInstant()));
+                }
+            }
+        }
+        return intervals;
+    }
+    
+    private static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+    
+    private record Window(int days, LocalTime start, LocalTime end) {
+    }
+    
+    private record Interval(Instant start, Instant end) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.fooddelivery.restaurant.availability;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Scheduled items, pending timing wheel entries, flips applied and how late the latest edge fired,
+ * at /actuator/availabilityschedule.
+ */
+@Component
+@Endpoint(id = "availabilityschedule")
+public class AvailabilityScheduleEndpoint {
+    
+    private final AvailabilityScheduler scheduler;
+    
+    public AvailabilityScheduleEndpoint(AvailabilityScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> availabilitySchedule() {
+        return scheduler.stats();
+    }
+}
@@ -0,0 +1,274 @@
+package com.fooddelivery.restaurant.availability;
+
+import com.fooddelivery.restaurant.affinity.RestaurantAffinityRouter;
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.entity.MenuItemAvailabilityWindow;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.event.AvailabilityScheduleChangedEvent;
+import com.fooddelivery.restaurant.event.CacheInvalidatedEvent;
+import com.fooddelivery.restaurant.event.RestaurantChangedEvent;
+import com.fooddelivery.restaurant.repository.MenuItemAvailabilityWindowRepository;
+import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Flips scheduled menu items' availability at their window edges. Every scheduled item has one
+ * entry in a timing wheel for its next edge; when it expires the new value goes into the
+ * availability store, which answers reads at once and writes the flips behind in set-based
+ * batches. Only the restaurant's affinity owner queues those writes, other instances just answer
+ * reads with the flipped value until the write reaches them through the invalidation log.
+ * A manual toggle holds until the next edge.
+ */
+@Component
+public class AvailabilityScheduler {
+    
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityScheduler.class);
+    
+    private final Map<Long, ItemSchedule> schedules = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicLong flipsWritten = new AtomicLong();
+    private final AtomicLong flipsOverlaid = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final HierarchicalTimingWheel<WheelEntry> wheel;
+    
+    private final MenuItemAvailabilityWindowRepository windowRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final ShardRouter shardRouter;
+    private final MenuItemAvailabilityStore availabilityStore;
+    private final RestaurantAffinityRouter affinityRouter;
+    
+    public AvailabilityScheduler(MenuItemAvailabilityWindowRepository windowRepository,
+                                 MenuItemRepository menuItemRepository,
+                                 RestaurantRepository restaurantRepository,
+                                 ShardRouter shardRouter,
+                                 MenuItemAvailabilityStore availabilityStore,
+                                 RestaurantAffinityRouter affinityRouter,
+                                 @Value("${restaurant.availability-schedule.tick-ms:1000}") long tickMillis) {
+        this.windowRepository = windowRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.shardRouter = shardRouter;
+        this.availabilityStore = availabilityStore;
+        this.affinityRouter = affinityRouter;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        Map<Long, List<MenuItemAvailabilityWindow>> windowsByItem = shardRouter.fanOut(windowRepository::findAll).stream()
+            .collect(Collectors.groupingBy(MenuItemAvailabilityWindow::getMenuItemId));
+        if (windowsByItem.isEmpty()) {
+            return;
+        }
+        List<Long> restaurantIds = windowsByItem.values().stream()
+            .map(windows -> windows.get(0).getRestaurantId())
+            .distinct()
+            .toList();
+        Map<Long, ZoneId> zones = shardRouter.fanOut(shardRouter.groupByShard(restaurantIds), restaurantRepository::findAllById).stream()
+            .collect(Collectors.toMap(Restaurant::getId, restaurant -> AvailabilitySchedule.zoneOf(restaurant.getTimeZone())));
+        Map<Long, MenuItem> items = shardRouter.fanOut(shardRouter.groupByShard(windowsByItem.keySet()), menuItemRepository::findAllById).stream()
+            .collect(Collectors.toMap(MenuItem::getId, item -> item));
+        
+        Instant now = Instant.now();
+        int reconciled = 0;
+        synchronized (this) {
+            for (Map.Entry<Long, List<MenuItemAvailabilityWindow>> entry : windowsByItem.entrySet()) {
+                MenuItem item = items.get(entry.getKey());
+                ZoneId zone = item != null ? zones.get(item.getRestaurantId()) : null;
+                if (zone == null) {
+                    continue;
+                }
+                AvailabilitySchedule schedule = AvailabilitySchedule.of(zone, entry.getValue());
+                arm(item.getId(), item.getRestaurantId(), schedule, now);
+                
+                // Catch up on edges passed while no instance was running, unless the flag was set by hand since
+                boolean scheduled = schedule.isAvailableAt(now);
+                Instant lastChange = schedule.lastChangeAtOrBefore(now);
+                if (scheduled != item.getAvailable() && lastChange != null
+                    && changedBefore(item.getAvailabilityChangedAt(), lastChange)) {
+                    flip(item.getId(), item.getRestaurantId(), scheduled);
+                    reconciled++;
+                }
+            }
+        }
+        log.info("Scheduled availability for {} menu items ({} caught up) in {} ms",
+            schedules.size(), reconciled, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.availability-schedule.tick-ms:1000}")
+    public synchronized void tick() {
+        long nowMillis = System.currentTimeMillis();
+        List<WheelEntry> due = wheel.advance(nowMillis);
+        Instant now = Instant.ofEpochMilli(nowMillis);
+        for (WheelEntry entry : due) {
+            ItemSchedule item = schedules.get(entry.menuItemId());
+            if (item == null || item.generation() != entry.generation()) {
+                // Rescheduled or unscheduled since this entry was armed
+                continue;
+            }
+            maxLagMillis.accumulateAndGet(nowMillis - item.nextChange().toEpochMilli(), Math::max);
+            flip(entry.menuItemId(), item.restaurantId(), item.schedule().isAvailableAt(now));
+            arm(entry.menuItemId(), item.restaurantId(), item.schedule(), now);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(AvailabilityScheduleChangedEvent event) {
+        // The owner just set this schedule, so it takes effect now rather than at the next edge
+        reload(event.menuItemId(), true);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.deleted()) {
+            unscheduleRestaurant(event.restaurantId());
+        } else {
+            reloadZone(event.restaurantId(), true);
+        }
+    }
+    
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        for (CacheInvalidation invalidation : event.invalidations()) {
+            if (invalidation.getType() == CacheInvalidation.Type.AVAILABILITY_SCHEDULE) {
+                reload(invalidation.getEntityId(), false);
+            } else if (invalidation.getType() == CacheInvalidation.Type.RESTAURANT) {
+                reloadZone(invalidation.getEntityId(), false);
+            }
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scheduledItems", schedules.size());
+        synchronized (this) {
+            stats.put("wheelEntries", wheel.size());
+            stats.put("tickMillis", wheel.tickMillis());
+        }
+        stats.put("flipsWritten", flipsWritten.get());
+        stats.put("flipsOverlaid", flipsOverlaid.get());
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+    
+    private void reload(long menuItemId, boolean applyNow) {
+        List<MenuItemAvailabilityWindow> windows = ShardContext.callOn(shardRouter.shardOf(menuItemId),
+            () -> windowRepository.findByMenuItemIdOrderByIdAsc(menuItemId));
+        Long restaurantId = windows.isEmpty() ? null : windows.get(0).getRestaurantId();
+        Optional<ZoneId> zone = restaurantId != null ? zoneOf(restaurantId) : Optional.empty();
+        
+        synchronized (this) {
+            if (zone.isEmpty()) {
+                // Back to manual: the item keeps whatever value it has now
+                schedules.remove(menuItemId);
+                return;
+            }
+            Instant now = Instant.now();
+            AvailabilitySchedule schedule = AvailabilitySchedule.of(zone.get(), windows);
+            arm(menuItemId, restaurantId, schedule, now);
+            if (applyNow) {
+                availabilityStore.put(restaurantId, menuItemId, schedule.isAvailableAt(now));
+                flipsWritten.incrementAndGet();
+            }
+        }
+    }
+    
+    private void reloadZone(long restaurantId, boolean applyNow) {
+        List<Long> menuItemIds = itemsOf(restaurantId);
+        if (menuItemIds.isEmpty()) {
+            return;
+        }
+        Optional<ZoneId> zone = zoneOf(restaurantId);
+        if (zone.isEmpty()) {
+            unscheduleRestaurant(restaurantId);
+            return;
+        }
+        
+        synchronized (this) {
+            Instant now = Instant.now();
+            for (Long menuItemId : menuItemIds) {
+                ItemSchedule item = schedules.get(menuItemId);
+                if (item == null || item.schedule().zone().equals(zone.get())) {
+                    continue;
+                }
+                AvailabilitySchedule schedule = item.schedule().withZone(zone.get());
+                arm(menuItemId, restaurantId, schedule, now);
+                if (applyNow) {
+                    availabilityStore.put(restaurantId, menuItemId, schedule.isAvailableAt(now));
+                    flipsWritten.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    private Optional<ZoneId> zoneOf(long restaurantId) {
+        return ShardContext.callOn(shardRouter.shardOf(restaurantId), () -> restaurantRepository.findById(restaurantId))
+            .map(restaurant -> AvailabilitySchedule.zoneOf(restaurant.getTimeZone()));
+    }
+    
+    private void unscheduleRestaurant(long restaurantId) {
+        itemsOf(restaurantId).forEach(schedules::remove);
+    }
+    
+    private List<Long> itemsOf(long restaurantId) {
+        return schedules.entrySet().stream()
+            .filter(entry -> entry.getValue().restaurantId() == restaurantId)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+    
+    private void arm(long menuItemId, long restaurantId, AvailabilitySchedule schedule, Instant now) {
+        long generation = generations.incrementAndGet();
+        Instant nextChange = schedule.nextChangeAfter(now);
+        schedules.put(menuItemId, new ItemSchedule(restaurantId, schedule, generation, nextChange));
+        if (nextChange != null) {
+            wheel.schedule(nextChange.toEpochMilli(), new WheelEntry(menuItemId, generation));
+        }
+    }
+    
+    private void flip(long menuItemId, long restaurantId, boolean available) {
+        // The restaurant's owner writes the flip; the others answer reads with it until that write shows up
+        if (affinityRouter.remoteOwnerOf(restaurantId) == null) {
+            availabilityStore.put(restaurantId, menuItemId, available);
+            flipsWritten.incrementAndGet();
+        } else {
+            availabilityStore.overlay(restaurantId, menuItemId, available);
+            flipsOverlaid.incrementAndGet();
+        }
+    }
+    
+    private static boolean changedBefore(LocalDateTime changedAt, Instant instant) {
+        return changedAt == null || changedAt.atZone(ZoneId.systemDefault()).toInstant().isBefore(instant);
+    }
+    
+    private record ItemSchedule(long restaurantId, AvailabilitySchedule schedule, long generation, Instant nextChange) {
+    }
+    
+    private record WheelEntry(long menuItemId, long generation) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.fooddelivery.restaurant.availability;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed hierarchical timing wheel: four levels of 64 slots, each level's slot spanning a whole
+ * turn of the level below. Scheduling and expiring are constant time however many entries are
+ * waiting; an entry sits in the coarsest level that tells its deadline apart from the current tick
+ * and moves down a level each time the wheel below completes a turn. Deadlines beyond the top
+ * level wait in an overflow list. Not thread-safe.
+ */
+class HierarchicalTimingWheel<T> {
+    
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private List<Entry<T>> overflow = new ArrayList<>();
+    private List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+    
+    HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+    
+    /**
+     * Adds an entry that expires on the first advance at or past the deadline, never before it.
+     */
+    void schedule(long deadlineMillis, T value) {
+        size++;
+        place(new Entry<>(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), value));
+    }
+    
+    /**
+     * Moves the wheel up to the given time and returns every entry that expired on the way.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+                List<Entry<T>> waiting = overflow;
+                overflow = new ArrayList<>();
+                waiting.forEach(this::place);
+            }
+            // Cascade from the coarsest level that completed a turn, so entries can fall through several levels
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(slotIndex(currentTick, level));
+                }
+            }
+            List<Entry<T>> expired = slots.get(slotIndex(currentTick, 0));
+            expired.forEach(entry -> due.add(entry.value));
+            expired.clear();
+        }
+        
+        List<T> result = due;
+        due = new ArrayList<>();
+        size -= result.size();
+        return result;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    long tickMillis() {
+        return tickMillis;
+    }
+    
+    private void place(Entry<T> entry) {
+        if (entry.deadlineTick <= currentTick) {
+            due.add(entry.value);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if ((entry.deadlineTick >>> (SLOT_BITS * (level + 1))) == (currentTick >>> (SLOT_BITS * (level + 1)))) {
+                slots.get(slotIndex(entry.deadlineTick, level)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+    
+    private void cascade(int index) {
+        List<Entry<T>> slot = slots.get(index);
+        List<Entry<T>> moving = new ArrayList<>(slot);
+        slot.clear();
+        moving.forEach(this::place);
+    }
+    
+    private static int slotIndex(long tick, int level) {
+        return level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+    
+    private record Entry<T>(long deadlineTick, T value) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.fooddelivery.restaurant.cache;
+
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.entity.MenuItemAvailabilityWindow;
+import com.fooddelivery.restaurant.entity.MenuSnapshot;
+import com.fooddelivery.restaurant.entity.MenuStats;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.event.CacheInvalidatedEvent;
+import com.fooddelivery.restaurant.repository.CacheInvalidationRepository;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps local caches on every replica coherent through an invalidation log stored next to the data.
+ * Writers append one row per changed entity in their own transaction (deduplicated per
+ * transaction); every instance polls the log on each shard and evicts what other instances
+ * changed. Staleness is bounded by the poll interval as long as writing transactions commit
+ * within the configured grace window.
+ */
+@Component
+public class CacheInvalidationBus {
+    
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    
+    private static final Map<CacheInvalidation.Type, Class<?>> ENTITIES = new EnumMap<>(Map.of(
+        CacheInvalidation.Type.RESTAURANT, Restaurant.class,
+        CacheInvalidation.Type.MENU_ITEM, MenuItem.class,
+        CacheInvalidation.Type.MENU_SNAPSHOT, MenuSnapshot.class,
+        CacheInvalidation.Type.MENU_STATS, MenuStats.class,
+        CacheInvalidation.Type.AVAILABILITY_SCHEDULE, MenuItemAvailabilityWindow.class));
+    
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<Long, LocalDateTime> applied = new ConcurrentHashMap<>();
+    private final Map<Integer, LocalDateTime> lastPolled = new ConcurrentHashMap<>();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    
+    private final CacheInvalidationRepository invalidationRepository;
+    private final ShardRouter shardRouter;
+    private final SessionFactoryImplementor sessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration grace;
+    private final Duration retention;
+    
+    public CacheInvalidationBus(CacheInvalidationRepository invalidationRepository,
+                                ShardRouter shardRouter,
+                                EntityManagerFactory entityManagerFactory,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${restaurant.invalidation.grace-ms:5000}") long graceMs,
+                                @Value("${restaurant.invalidation.retention-ms:600000}") long retentionMs) {
+        this.invalidationRepository = invalidationRepository;
+        this.shardRouter = shardRouter;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.eventPublisher = eventPublisher;
+        this.grace = Duration.ofMillis(graceMs);
+        this.retention = Duration.ofMillis(retentionMs);
+        
+        LocalDateTime startedAt = LocalDateTime.now();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            lastPolled.put(shard, startedAt);
+        }
+    }
+    
+    /**
+     * Records that an entity changed. Inside a transaction the rows are batched and written just
+     * before commit on the transaction's shard; otherwise they are written immediately.
+     */
+    public void publish(CacheInvalidation.Type type, Long entityId) {
+        publish(type, List.of(entityId));
+    }
+    
+    @SuppressWarnings("unchecked")
+    public void publish(CacheInvalidation.Type type, Collection<Long> entityIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(toRows(type, entityIds));
+            return;
+        }
+        
+        Set<CacheInvalidation> pending = (Set<CacheInvalidation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<CacheInvalidation> batch = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(List.copyOf(batch));
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            pending = batch;
+        }
+        pending.addAll(toRows(type, entityIds));
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int target = shard;
+            try {
+                ShardContext.runOn(target, () -> pollShard(target));
+            } catch (RuntimeException e) {
+                log.warn("Failed to poll cache invalidations on shard {}", target, e);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.invalidation.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            ShardContext.runOn(shard, () -> invalidationRepository.deleteOlderThan(cutoff));
+        }
+        applied.values().removeIf(createdAt -> createdAt.isBefore(cutoff));
+    }
+    
+    /**
+     * Marks the tables behind these types as changed in the update timestamps region, so cached
+     * query results reading them go stale while results over other tables stay cached.
+     * Writes that Hibernate performs itself already do this; it is for changes made elsewhere.
+     */
+    public void evictQueries(Collection<CacheInvalidation.Type> types) {
+        String[] spaces = types.stream()
+            .flatMap(type -> Arrays.stream(sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(ENTITIES.get(type)).getQuerySpaces()))
+            .map(String.class::cast)
+            .distinct()
+            .toArray(String[]::new);
+        if (spaces.length == 0) {
+            return;
+        }
+        try (Session session = sessionFactory.openSession()) {
+            sessionFactory.getCache().getTimestampsCache().invalidate(spaces, (SharedSessionContractImplementor) session);
+        }
+    }
+    
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+    
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+    
+    public Map<Integer, LocalDateTime> getLastPolled() {
+        return Map.copyOf(lastPolled);
+    }
+    
+    private void pollShard(int shard) {
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        // Re-read a grace window so rows from transactions that committed late are not missed
+        LocalDateTime since = lastPolled.get(shard).minus(grace);
+        
+        List<CacheInvalidation> fresh = new ArrayList<>();
+        for (CacheInvalidation invalidation : invalidationRepository.findByCreatedAtGreaterThanEqualOrderByIdAsc(since)) {
+            // Ids are per shard, so key the seen-set by shard as well
+            long key = ((long) shard << 56) | invalidation.getId();
+            if (applied.putIfAbsent(key, invalidation.getCreatedAt()) == null && !origin.equals(invalidation.getOrigin())) {
+                fresh.add(invalidation);
+            }
+        }
+        lastPolled.put(shard, pollStartedAt);
+        
+        if (!fresh.isEmpty()) {
+            apply(fresh, pollStartedAt);
+        }
+    }
+    
+    private void apply(List<CacheInvalidation> invalidations, LocalDateTime now) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        Set<CacheInvalidation.Type> types = EnumSet.noneOf(CacheInvalidation.Type.class);
+        for (CacheInvalidation invalidation : invalidations) {
+            types.add(invalidation.getType());
+            switch (invalidation.getType()) {
+                case RESTAURANT -> cache.evictEntityData(Restaurant.class, invalidation.getEntityId());
+                case MENU_ITEM -> cache.evictEntityData(MenuItem.class, invalidation.getEntityId());
+                case MENU_SNAPSHOT -> cache.evictEntityData(MenuSnapshot.class, invalidation.getEntityId());
+                case MENU_STATS -> cache.evictEntityData(MenuStats.class, invalidation.getEntityId());
+            }
+            maxLagMillis.accumulateAndGet(Duration.between(invalidation.getCreatedAt(), now).toMillis(), Math::max);
+        }
+        evictQueries(types);
+        
+        appliedCount.addAndGet(invalidations.size());
+        eventPublisher.publishEvent(new CacheInvalidatedEvent(invalidations));
+    }
+    
+    private List<CacheInvalidation> toRows(CacheInvalidation.Type type, Collection<Long> entityIds) {
+        return entityIds.stream()
+            .map(entityId -> new CacheInvalidation(null, type, entityId, origin, null))
+            .toList();
+    }
+    
+    private void write(List<CacheInvalidation> rows) {
+        if (!rows.isEmpty()) {
+            invalidationRepository.saveAll(rows);
+        }
+    }
+}
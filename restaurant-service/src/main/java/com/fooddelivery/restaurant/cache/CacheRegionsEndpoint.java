@@ -0,0 +1,74 @@
+package com.fooddelivery.restaurant.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes Hibernate second-level and query cache hit ratios per region at /actuator/cacheregions.
+ */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+    
+    private final SessionFactory sessionFactory;
+    
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+    
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Statistics statistics = sessionFactory.getStatistics();
+        
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(regionName, describe(statistics.getCacheRegionStatistics(regionName)));
+        }
+        
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hitCount", statistics.getQueryCacheHitCount());
+        queryCache.put("missCount", statistics.getQueryCacheMissCount());
+        queryCache.put("putCount", statistics.getQueryCachePutCount());
+        queryCache.put("hitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        response.put("regions", regions);
+        response.put("queryCache", queryCache);
+        return response;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> region(@Selector String name) {
+        return describe(sessionFactory.getStatistics().getCacheRegionStatistics(name));
+    }
+    
+    private Map<String, Object> describe(CacheRegionStatistics regionStatistics) {
+        Map<String, Object> region = new LinkedHashMap<>();
+        if (regionStatistics == null) {
+            return region;
+        }
+        region.put("hitCount", regionStatistics.getHitCount());
+        region.put("missCount", regionStatistics.getMissCount());
+        region.put("putCount", regionStatistics.getPutCount());
+        region.put("hitRatio", ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+        if (regionStatistics.getElementCountInMemory() >= 0) {
+            region.put("elementCountInMemory", regionStatistics.getElementCountInMemory());
+        }
+        return region;
+    }
+    
+    private double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
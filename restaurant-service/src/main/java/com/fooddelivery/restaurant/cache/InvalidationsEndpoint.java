@@ -0,0 +1,32 @@
+package com.fooddelivery.restaurant.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes how many remote invalidations this instance applied and the worst observed lag at
+ * /actuator/invalidations.
+ */
+@Component
+@Endpoint(id = "invalidations")
+public class InvalidationsEndpoint {
+    
+    private final CacheInvalidationBus invalidationBus;
+    
+    public InvalidationsEndpoint(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> invalidations() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("appliedCount", invalidationBus.getAppliedCount());
+        result.put("maxLagMillis", invalidationBus.getMaxLagMillis());
+        result.put("lastPolled", invalidationBus.getLastPolled());
+        return result;
+    }
+}
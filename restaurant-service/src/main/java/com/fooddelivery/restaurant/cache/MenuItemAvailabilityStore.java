@@ -0,0 +1,237 @@
+package com.fooddelivery.restaurant.cache;
+
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.event.CacheInvalidatedEvent;
+import com.fooddelivery.restaurant.event.MenuAvailabilityFlushedEvent;
+import com.fooddelivery.restaurant.history.MenuItemHistory;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory availability flags for menu items, answered without touching the database.
+ * Only items with a toggle the database has not caught up with are held, and each is
+ * dropped once its write-behind batch commits. The store stops after the web server has drained
+ * requests and flushes what is still pending; toggles arriving while it is stopped are written
+ * through.
+ */
+@Component
+public class MenuItemAvailabilityStore implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(MenuItemAvailabilityStore.class);
+    
+    private static final int FLUSH_CHUNK_SIZE = 500;
+    
+    private final Map<Long, Toggle> overrides = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus invalidationBus;
+    private final MenuItemHistory menuItemHistory;
+    private final TransactionTemplate transactionTemplate;
+    
+    public MenuItemAvailabilityStore(NamedParameterJdbcTemplate jdbcTemplate,
+                                     EntityManagerFactory entityManagerFactory,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ShardRouter shardRouter,
+                                     CacheInvalidationBus invalidationBus,
+                                     MenuItemHistory menuItemHistory,
+                                     TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+        this.menuItemHistory = menuItemHistory;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    public Boolean get(long menuItemId) {
+        Toggle toggle = overrides.get(menuItemId);
+        return toggle != null ? toggle.available() : null;
+    }
+    
+    public Boolean resolve(Long menuItemId, Boolean persisted) {
+        Boolean known = get(menuItemId);
+        return known != null ? known : persisted;
+    }
+    
+    /**
+     * Items of the restaurant whose availability differs, or may differ, from the persisted flag.
+     * Database filters on availability use it to match what reads show.
+     */
+    public Map<Long, Boolean> overridesOf(long restaurantId) {
+        return overridesOf(List.of(restaurantId));
+    }
+    
+    public Map<Long, Boolean> overridesOf(Collection<Long> restaurantIds) {
+        Set<Long> restaurants = new HashSet<>(restaurantIds);
+        Map<Long, Boolean> restaurantOverrides = new HashMap<>();
+        overrides.forEach((menuItemId, toggle) -> {
+            if (restaurants.contains(toggle.restaurantId())) {
+                restaurantOverrides.put(menuItemId, toggle.available());
+            }
+        });
+        return restaurantOverrides;
+    }
+    
+    public void put(long restaurantId, long menuItemId, boolean available) {
+        overlay(restaurantId, menuItemId, available);
+        pending.put(menuItemId, available);
+        if (!running) {
+            // No flush would follow, so the caller must not be told the change was accepted unless it is stored
+            flush();
+            if (pending.containsKey(menuItemId)) {
+                throw new IllegalStateException("Availability of menu item " + menuItemId + " could not be persisted");
+            }
+        }
+    }
+    
+    /**
+     * Answers reads with this value without queuing a write, for changes another instance persists.
+     * Dropped again when that instance's write shows up in the invalidation log.
+     */
+    public void overlay(long restaurantId, long menuItemId, boolean available) {
+        overrides.put(menuItemId, new Toggle(restaurantId, available));
+    }
+    
+    public void forget(long menuItemId) {
+        pending.remove(menuItemId);
+        overrides.remove(menuItemId);
+    }
+    
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        for (CacheInvalidation invalidation : event.invalidations()) {
+            long menuItemId = invalidation.getEntityId();
+            // Another instance wrote this item; fall back to the database unless we have our own toggle queued
+            if (invalidation.getType() == CacheInvalidation.Type.MENU_ITEM && !pending.containsKey(menuItemId)) {
+                overrides.remove(menuItemId);
+            }
+        }
+    }
+    
+    public int pendingCount() {
+        return pending.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.availability.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<Long> nowAvailable = new ArrayList<>();
+        List<Long> nowUnavailable = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> entry : pending.entrySet()) {
+            // Only drain the value we saw; a newer toggle stays pending for the next round
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                (entry.getValue() ? nowAvailable : nowUnavailable).add(entry.getKey());
+            }
+        }
+        
+        List<Long> writtenAvailable = write(nowAvailable, true);
+        List<Long> writtenUnavailable = write(nowUnavailable, false);
+        List<Long> flushed = new ArrayList<>(writtenAvailable);
+        flushed.addAll(writtenUnavailable);
+        if (flushed.isEmpty()) {
+            return;
+        }
+        // The update bypasses Hibernate, so cached menu queries filtering on availability are not stale yet
+        invalidationBus.evictQueries(List.of(CacheInvalidation.Type.MENU_ITEM));
+        eventPublisher.publishEvent(new MenuAvailabilityFlushedEvent(flushed));
+        
+        // The rows and the snapshots rebuilt above now carry these values; a toggle made since
+        // holds a different value and stays until its own flush
+        writtenAvailable.forEach(id -> release(id, true));
+        writtenUnavailable.forEach(id -> release(id, false));
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        // Cleared first so a toggle racing with the last flush writes itself through
+        running = false;
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("{} menu item availability changes could not be persisted on shutdown", pending.size());
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        // Below the web server's phase (Integer.MAX_VALUE - 2048), so with graceful shutdown the
+        // requests in flight have finished and no new ones arrive before the last flush
+        return Integer.MAX_VALUE - 4096;
+    }
+    
+    private void release(long menuItemId, boolean written) {
+        overrides.computeIfPresent(menuItemId, (id, toggle) -> toggle.available() == written ? null : toggle);
+    }
+    
+    private List<Long> write(List<Long> menuItemIds, boolean available) {
+        List<Long> written = new ArrayList<>();
+        shardRouter.groupByShard(menuItemIds).forEach((shard, shardIds) ->
+            ShardContext.runOn(shard, () -> written.addAll(writeShard(shardIds, available))));
+        return written;
+    }
+    
+    private List<Long> writeShard(List<Long> menuItemIds, boolean available) {
+        List<Long> written = new ArrayList<>();
+        for (int from = 0; from < menuItemIds.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Long> chunk = menuItemIds.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, menuItemIds.size()));
+            try {
+                LocalDateTime changedAt = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> {
+                    menuItemHistory.recordAvailability(chunk, available, changedAt);
+                    jdbcTemplate.update("UPDATE menu_items SET available = :available, availability_changed_at = :changedAt "
+                            + "WHERE id IN (:ids)",
+                        Map.of("available", available, "changedAt", changedAt, "ids", chunk));
+                });
+                chunk.forEach(id -> entityManagerFactory.getCache().evict(MenuItem.class, id));
+                invalidationBus.publish(CacheInvalidation.Type.MENU_ITEM, chunk);
+                written.addAll(chunk);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush availability for {} menu items, retrying later", chunk.size(), e);
+                chunk.forEach(id -> pending.putIfAbsent(id, available));
+            }
+        }
+        return written;
+    }
+    
+    private record Toggle(long restaurantId, boolean available) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fooddelivery.restaurant.exception.ErrorResponse;
+import com.fooddelivery.restaurant.repository.MenuSnapshotRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers public catalog reads from the mapped snapshot, either during the warm-up window right
+ * after startup or while the database is down. Snapshot responses carry {@code Age} with the
+ * snapshot's age in seconds and {@code X-Catalog-Snapshot} with its creation time.
+ */
+@Component
+public class CatalogFallback {
+    
+    public static final String SNAPSHOT_HEADER = "X-Catalog-Snapshot";
+    
+    private static final Logger log = LoggerFactory.getLogger(CatalogFallback.class);
+    
+    private static final Pattern RESTAURANTS = Pattern.compile("^/api/restaurants$");
+    private static final Pattern RESTAURANT = Pattern.compile("^/api/restaurants/(\\d+)$");
+    private static final Pattern OWNER_RESTAURANTS = Pattern.compile("^/api/restaurants/owner/(\\d+)$");
+    private static final Pattern MENU = Pattern.compile("^/api/restaurants/(\\d+)/menu$");
+    private static final Pattern MENU_ITEM = Pattern.compile("^/api/menu/(\\d+)$");
+    
+    private final CatalogSnapshotStore snapshotStore;
+    private final RestaurantRepository restaurantRepository;
+    private final MenuSnapshotRepository menuSnapshotRepository;
+    private final ShardRouter shardRouter;
+    private final Duration warmup;
+    private final Duration maxWarmupAge;
+    
+    private final Instant jvmStartedAt = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+    private volatile Instant warmupEndsAt;
+    private volatile long prewarmMillis = -1;
+    private final AtomicLong firstSnapshotResponseMillis = new AtomicLong(-1);
+    private final AtomicLong firstDatabaseResponseMillis = new AtomicLong(-1);
+    private final LongAdder servedDuringWarmup = new LongAdder();
+    private final LongAdder servedDuringOutage = new LongAdder();
+    private final LongAdder unavailableDuringOutage = new LongAdder();
+    
+    public CatalogFallback(CatalogSnapshotStore snapshotStore,
+                           RestaurantRepository restaurantRepository,
+                           MenuSnapshotRepository menuSnapshotRepository,
+                           ShardRouter shardRouter,
+                           @Value("${restaurant.catalog-snapshot.warmup-ms:30000}") long warmupMs,
+                           @Value("${restaurant.catalog-snapshot.warmup-max-age-ms:900000}") long maxWarmupAgeMs) {
+        this.snapshotStore = snapshotStore;
+        this.restaurantRepository = restaurantRepository;
+        this.menuSnapshotRepository = menuSnapshotRepository;
+        this.shardRouter = shardRouter;
+        this.warmup = Duration.ofMillis(warmupMs);
+        this.maxWarmupAge = Duration.ofMillis(maxWarmupAgeMs);
+        // Until the context is ready the window is open-ended; requests can only arrive once Tomcat is up anyway
+        this.warmupEndsAt = warmupMs > 0 ? Instant.MAX : Instant.MIN;
+    }
+    
+    /**
+     * Whether reads should still come from the snapshot because the caches are cold. Only a
+     * reasonably fresh snapshot is used this way; an old one is kept for outages only.
+     */
+    public boolean isWarming() {
+        CatalogSnapshotFile snapshot = snapshotStore.current();
+        return snapshot != null
+            && Instant.now().isBefore(warmupEndsAt)
+            && snapshot.createdAt().isAfter(Instant.now().minus(maxWarmupAge));
+    }
+    
+    public void endWarmup(String reason) {
+        if (Instant.now().isBefore(warmupEndsAt)) {
+            warmupEndsAt = Instant.MIN;
+            log.info("Catalog warm-up ended: {}", reason);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmup() {
+        if (warmup.isZero() || snapshotStore.current() == null) {
+            warmupEndsAt = Instant.MIN;
+            return;
+        }
+        warmupEndsAt = Instant.now().plus(warmup);
+        Thread prewarm = new Thread(this::prewarm, "catalog-prewarm");
+        prewarm.setDaemon(true);
+        prewarm.start();
+    }
+    
+    /**
+     * Resolves a catalog read from the snapshot. Empty when the route is not a plain catalog read
+     * or, outside an outage, when the snapshot does not have the entity.
+     */
+    public Optional<ResponseEntity<Object>> serve(HttpServletRequest request, boolean outage) {
+        CatalogSnapshotFile snapshot = snapshotStore.current();
+        String uri = request.getRequestURI();
+        // Filtered, paged or enriched reads need the database
+        if (!"GET".equals(request.getMethod()) || request.getQueryString() != null || !isCatalogRead(uri)) {
+            return Optional.empty();
+        }
+        
+        Optional<Object> body = snapshot == null ? Optional.empty() : read(snapshot, uri);
+        if (body.isEmpty()) {
+            if (!outage) {
+                return Optional.empty();
+            }
+            unavailableDuringOutage.increment();
+            return Optional.of(new ResponseEntity<>(new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Database unavailable and the catalog snapshot has no data for this request",
+                uri
+            ), HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        
+        (outage ? servedDuringOutage : servedDuringWarmup).increment();
+        firstSnapshotResponseMillis.compareAndSet(-1, sinceJvmStart());
+        long ageSeconds = Math.max(0, Duration.between(snapshot.createdAt(), Instant.now()).toSeconds());
+        return Optional.of(ResponseEntity.ok()
+            .header(HttpHeaders.AGE, String.valueOf(ageSeconds))
+            .header(SNAPSHOT_HEADER, snapshot.createdAt().toString())
+            .body(body.get()));
+    }
+    
+    public boolean isCatalogRead(String uri) {
+        return RESTAURANTS.matcher(uri).matches()
+            || RESTAURANT.matcher(uri).matches()
+            || OWNER_RESTAURANTS.matcher(uri).matches()
+            || MENU.matcher(uri).matches()
+            || MENU_ITEM.matcher(uri).matches();
+    }
+    
+    public void recordDatabaseResponse() {
+        if (firstDatabaseResponseMillis.get() < 0) {
+            firstDatabaseResponseMillis.compareAndSet(-1, sinceJvmStart());
+        }
+    }
+    
+    public long getPrewarmMillis() {
+        return prewarmMillis;
+    }
+    
+    public long getFirstSnapshotResponseMillis() {
+        return firstSnapshotResponseMillis.get();
+    }
+    
+    public long getFirstDatabaseResponseMillis() {
+        return firstDatabaseResponseMillis.get();
+    }
+    
+    public long getServedDuringWarmup() {
+        return servedDuringWarmup.sum();
+    }
+    
+    public long getServedDuringOutage() {
+        return servedDuringOutage.sum();
+    }
+    
+    public long getUnavailableDuringOutage() {
+        return unavailableDuringOutage.sum();
+    }
+    
+    private Optional<Object> read(CatalogSnapshotFile snapshot, String uri) {
+        if (RESTAURANTS.matcher(uri).matches()) {
+            return Optional.of(snapshot.restaurants());
+        }
+        Matcher matcher = RESTAURANT.matcher(uri);
+        if (matcher.matches()) {
+            return snapshot.restaurant(Long.parseLong(matcher.group(1))).map(Object.class::cast);
+        }
+        matcher = OWNER_RESTAURANTS.matcher(uri);
+        if (matcher.matches()) {
+            Long ownerId = Long.parseLong(matcher.group(1));
+            return Optional.of(snapshot.restaurants().stream()
+                .filter(restaurant -> ownerId.equals(restaurant.getOwnerId()))
+                .toList());
+        }
+        matcher = MENU.matcher(uri);
+        if (matcher.matches()) {
+            return snapshot.menu(Long.parseLong(matcher.group(1))).map(Object.class::cast);
+        }
+        matcher = MENU_ITEM.matcher(uri);
+        if (matcher.matches()) {
+            return snapshot.menuItem(Long.parseLong(matcher.group(1))).map(Object.class::cast);
+        }
+        return Optional.empty();
+    }
+    
+    // Loads restaurants and menu snapshots through JPA so the second-level cache is filled before
+    // reads switch over to the database
+    private void prewarm() {
+        long start = System.nanoTime();
+        try {
+            shardRouter.fanOut(restaurantRepository::findAll);
+            shardRouter.fanOut(menuSnapshotRepository::findAll);
+            prewarmMillis = (System.nanoTime() - start) / 1_000_000;
+            endWarmup("caches filled in " + prewarmMillis + " ms");
+        } catch (RuntimeException e) {
+            log.warn("Catalog prewarm failed, snapshot reads continue until the warm-up window ends", e);
+        }
+    }
+    
+    private long sinceJvmStart() {
+        return Duration.between(jvmStartedAt, Instant.now()).toMillis();
+    }
+}
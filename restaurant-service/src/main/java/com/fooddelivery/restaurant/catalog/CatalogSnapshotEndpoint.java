@@ -0,0 +1,70 @@
+package com.fooddelivery.restaurant.catalog;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Catalog snapshot state and warm-start timings at /actuator/catalogsnapshot; a POST writes a
+ * fresh snapshot immediately unless one is being written already. Admins only, like every
+ * diagnostic endpoint.
+ */
+@Component
+@Endpoint(id = "catalogsnapshot")
+public class CatalogSnapshotEndpoint {
+    
+    private final CatalogSnapshotStore snapshotStore;
+    private final CatalogFallback catalogFallback;
+    private final DatabaseAvailability databaseAvailability;
+    
+    public CatalogSnapshotEndpoint(CatalogSnapshotStore snapshotStore,
+                                   CatalogFallback catalogFallback,
+                                   DatabaseAvailability databaseAvailability) {
+        this.snapshotStore = snapshotStore;
+        this.catalogFallback = catalogFallback;
+        this.databaseAvailability = databaseAvailability;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> catalogSnapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        CatalogSnapshotFile snapshot = snapshotStore.current();
+        result.put("path", snapshotStore.getPath().toAbsolutePath().toString());
+        if (snapshot != null) {
+            result.put("createdAt", snapshot.createdAt());
+            result.put("restaurants", snapshot.restaurantCount());
+            result.put("menuItems", snapshot.menuItemCount());
+            result.put("sizeBytes", snapshot.sizeBytes());
+        }
+        result.put("mapMillis", snapshotStore.getMapMillis());
+        result.put("lastWriteMillis", snapshotStore.getLastWriteMillis());
+        result.put("warming", catalogFallback.isWarming());
+        result.put("prewarmMillis", catalogFallback.getPrewarmMillis());
+        result.put("firstSnapshotResponseMillis", catalogFallback.getFirstSnapshotResponseMillis());
+        result.put("firstDatabaseResponseMillis", catalogFallback.getFirstDatabaseResponseMillis());
+        result.put("servedDuringWarmup", catalogFallback.getServedDuringWarmup());
+        result.put("servedDuringOutage", catalogFallback.getServedDuringOutage());
+        result.put("unavailableDuringOutage", catalogFallback.getUnavailableDuringOutage());
+        result.put("databaseDownSince", databaseAvailability.getDownSince());
+        return result;
+    }
+    
+    @WriteOperation
+    public Map<String, Object> write() {
+        boolean written;
+        try {
+            written = snapshotStore.writeIfIdle();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, Object> result = catalogSnapshot();
+        result.put("written", written);
+        return result;
+    }
+}
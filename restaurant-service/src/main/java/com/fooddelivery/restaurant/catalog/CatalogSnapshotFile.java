@@ -0,0 +1,325 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.dto.RestaurantResponseDto;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only, memory-mapped catalog of restaurants and their menus.
+ *
+ * <p>Layout (big-endian): a header with magic, creation time, record counts and a CRC of the
+ * record section; a restaurant index and a menu item index, each sorted (id, offset) pairs; then
+ * the records. A restaurant record is followed by its menu item records. Lookups binary-search
+ * an index and decode one record straight from the mapping, so nothing is loaded on the heap up
+ * front and pages are faulted in on first use.
+ */
+final class CatalogSnapshotFile {
+    
+    private static final int MAGIC = 0x43415432;
+    private static final int HEADER_BYTES = 4 + 8 + 4 + 4 + 4;
+    private static final int INDEX_ENTRY_BYTES = 8 + 4;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    
+    private final ByteBuffer buffer;
+    private final Instant createdAt;
+    private final int restaurantCount;
+    private final int menuItemCount;
+    
+    private CatalogSnapshotFile(ByteBuffer buffer, Instant createdAt, int restaurantCount, int menuItemCount) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.restaurantCount = restaurantCount;
+        this.menuItemCount = menuItemCount;
+    }
+    
+    /**
+     * Writes the catalog to a temporary file next to {@code path} and moves it into place, so
+     * readers mapping the old file are unaffected and never see a partial one.
+     */
+    static long write(Path path, Instant createdAt, List<RestaurantMenuDto> menus) throws IOException {
+        List<RestaurantMenuDto> sorted = new ArrayList<>(menus);
+        sorted.sort(Comparator.comparing(menu -> menu.getRestaurant().getId()));
+        
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+        int[] restaurantOffsets = new int[sorted.size()];
+        TreeMap<Long, Integer> menuItemOffsets = new TreeMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            restaurantOffsets[i] = out.size();
+            writeRestaurant(out, sorted.get(i).getRestaurant());
+            List<MenuItemResponseDto> menuItems = sorted.get(i).getMenuItems();
+            out.writeInt(menuItems.size());
+            for (MenuItemResponseDto menuItem : menuItems) {
+                menuItemOffsets.put(menuItem.getId(), out.size());
+                writeMenuItem(out, menuItem);
+            }
+        }
+        
+        long base = HEADER_BYTES + (long) INDEX_ENTRY_BYTES * (sorted.size() + menuItemOffsets.size());
+        if (base + records.size() > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot would exceed 2 GB");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(records.toByteArray());
+        
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temporary, StandardOpenOption.WRITE);
+                 DataOutputStream file = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                file.writeInt(MAGIC);
+                file.writeLong(createdAt.toEpochMilli());
+                file.writeInt(sorted.size());
+                file.writeInt(menuItemOffsets.size());
+                file.writeInt((int) crc.getValue());
+                for (int i = 0; i < sorted.size(); i++) {
+                    file.writeLong(sorted.get(i).getRestaurant().getId());
+                    file.writeInt((int) (base + restaurantOffsets[i]));
+                }
+                for (var entry : menuItemOffsets.entrySet()) {
+                    file.writeLong(entry.getKey());
+                    file.writeInt((int) (base + entry.getValue()));
+                }
+                records.writeTo(file);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return base + records.size();
+    }
+    
+    static CatalogSnapshotFile map(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_BYTES) {
+                throw new IOException("Unexpected catalog snapshot size " + channel.size());
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot: " + path);
+        }
+        Instant createdAt = Instant.ofEpochMilli(buffer.getLong(4));
+        int restaurantCount = buffer.getInt(12);
+        int menuItemCount = buffer.getInt(16);
+        
+        int base = HEADER_BYTES + INDEX_ENTRY_BYTES * (restaurantCount + menuItemCount);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(base));
+        if ((int) crc.getValue() != buffer.getInt(20)) {
+            throw new IOException("Catalog snapshot checksum mismatch: " + path);
+        }
+        return new CatalogSnapshotFile(buffer, createdAt, restaurantCount, menuItemCount);
+    }
+    
+    Instant createdAt() {
+        return createdAt;
+    }
+    
+    int restaurantCount() {
+        return restaurantCount;
+    }
+    
+    int menuItemCount() {
+        return menuItemCount;
+    }
+    
+    int sizeBytes() {
+        return buffer.capacity();
+    }
+    
+    Optional<RestaurantResponseDto> restaurant(long restaurantId) {
+        int offset = find(HEADER_BYTES, restaurantCount, restaurantId);
+        return offset < 0 ? Optional.empty() : Optional.of(new Cursor(offset).readRestaurant());
+    }
+    
+    Optional<List<MenuItemResponseDto>> menu(long restaurantId) {
+        int offset = find(HEADER_BYTES, restaurantCount, restaurantId);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        Cursor cursor = new Cursor(offset);
+        cursor.readRestaurant();
+        int count = cursor.readInt();
+        List<MenuItemResponseDto> menuItems = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            menuItems.add(cursor.readMenuItem());
+        }
+        return Optional.of(menuItems);
+    }
+    
+    Optional<MenuItemResponseDto> menuItem(long menuItemId) {
+        int offset = find(HEADER_BYTES + INDEX_ENTRY_BYTES * restaurantCount, menuItemCount, menuItemId);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Cursor(offset).readMenuItem());
+    }
+    
+    List<RestaurantResponseDto> restaurants() {
+        List<RestaurantResponseDto> restaurants = new ArrayList<>(restaurantCount);
+        for (int i = 0; i < restaurantCount; i++) {
+            restaurants.add(new Cursor(buffer.getInt(HEADER_BYTES + i * INDEX_ENTRY_BYTES + 8)).readRestaurant());
+        }
+        return restaurants;
+    }
+    
+    private int find(int indexStart, int count, long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = buffer.getLong(indexStart + middle * INDEX_ENTRY_BYTES);
+            if (candidate < id) {
+                low = middle + 1;
+            } else if (candidate > id) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(indexStart + middle * INDEX_ENTRY_BYTES + 8);
+            }
+        }
+        return -1;
+    }
+    
+    private static void writeRestaurant(DataOutputStream out, RestaurantResponseDto restaurant) throws IOException {
+        out.writeLong(restaurant.getId());
+        out.writeLong(restaurant.getOwnerId());
+        writeBoolean(out, restaurant.getActive());
+        writeTimestamp(out, restaurant.getCreatedAt());
+        writeTimestamp(out, restaurant.getUpdatedAt());
+        writeString(out, restaurant.getName());
+        writeString(out, restaurant.getDescription());
+        writeString(out, restaurant.getAddress());
+        writeString(out, restaurant.getPhone());
+        writeString(out, restaurant.getTimeZone());
+    }
+    
+    private static void writeMenuItem(DataOutputStream out, MenuItemResponseDto menuItem) throws IOException {
+        // The restaurant id leads so a lookup by menu item id can decode the record on its own
+        out.writeLong(menuItem.getRestaurantId());
+        out.writeLong(menuItem.getId());
+        out.writeLong(menuItem.getPrice().unscaledValue().longValueExact());
+        out.writeByte(menuItem.getPrice().scale());
+        writeBoolean(out, menuItem.getAvailable());
+        writeTimestamp(out, menuItem.getCreatedAt());
+        writeTimestamp(out, menuItem.getUpdatedAt());
+        writeString(out, menuItem.getName());
+        writeString(out, menuItem.getDescription());
+        writeString(out, menuItem.getCategory());
+    }
+    
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 2 : value ? 1 : 0);
+    }
+    
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value == null ? NO_TIMESTAMP : value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value == null ? 0 : value.getNano());
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    /**
+     * Sequential decoder over absolute reads, so concurrent lookups never share buffer position.
+     */
+    private final class Cursor {
+        
+        private int position;
+        
+        Cursor(int position) {
+            this.position = position;
+        }
+        
+        RestaurantResponseDto readRestaurant() {
+            long id = readLong();
+            long ownerId = readLong();
+            Boolean active = readBoolean();
+            LocalDateTime createdAt = readTimestamp();
+            LocalDateTime updatedAt = readTimestamp();
+            return new RestaurantResponseDto(id, readString(), readString(), readString(), readString(),
+                readString(), ownerId, active, createdAt, updatedAt, null);
+        }
+        
+        MenuItemResponseDto readMenuItem() {
+            long restaurantId = readLong();
+            long id = readLong();
+            BigDecimal price = BigDecimal.valueOf(readLong(), buffer.get(position++));
+            Boolean available = readBoolean();
+            LocalDateTime createdAt = readTimestamp();
+            LocalDateTime updatedAt = readTimestamp();
+            String name = readString();
+            String description = readString();
+            String category = readString();
+            return new MenuItemResponseDto(id, restaurantId, name, description, price, available, category,
+                createdAt, updatedAt);
+        }
+        
+        int readInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+        
+        long readLong() {
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+        
+        Boolean readBoolean() {
+            byte value = buffer.get(position++);
+            return value == 2 ? null : value == 1;
+        }
+        
+        LocalDateTime readTimestamp() {
+            long seconds = readLong();
+            int nanos = readInt();
+            return seconds == NO_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+        
+        String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Short-circuits public catalog reads to the mapped snapshot while the instance is warming up or
+ * the database is known to be down. Runs in the security chain after admission control and
+ * affinity forwarding, so snapshot reads are admitted like any other and the owning instance is
+ * the one answering.
+ */
+@Component
+public class CatalogSnapshotFilter extends OncePerRequestFilter {
+    
+    private final CatalogFallback catalogFallback;
+    private final DatabaseAvailability databaseAvailability;
+    private final ObjectMapper objectMapper;
+    
+    public CatalogSnapshotFilter(CatalogFallback catalogFallback,
+                                 DatabaseAvailability databaseAvailability,
+                                 ObjectMapper objectMapper) {
+        this.catalogFallback = catalogFallback;
+        this.databaseAvailability = databaseAvailability;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!"GET".equals(request.getMethod())) {
+            // A local write would not show up in snapshot reads, so stop serving them
+            catalogFallback.endWarmup("local " + request.getMethod() + " " + request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        boolean outage = databaseAvailability.isDown();
+        if (outage || catalogFallback.isWarming()) {
+            Optional<ResponseEntity<Object>> served = catalogFallback.serve(request, outage);
+            if (served.isPresent()) {
+                write(served.get(), response);
+                return;
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+        if (response.getStatus() == HttpServletResponse.SC_OK && catalogFallback.isCatalogRead(request.getRequestURI())) {
+            catalogFallback.recordDatabaseResponse();
+        }
+    }
+    
+    private void write(ResponseEntity<Object> entity, HttpServletResponse response) throws IOException {
+        response.setStatus(entity.getStatusCode().value());
+        entity.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), entity.getBody());
+    }
+}
@@ -0,0 +1,172 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.mapper.MenuItemMapper;
+import com.fooddelivery.restaurant.mapper.RestaurantMapper;
+import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically writes every restaurant, active or not, and its menu to a local binary file and keeps the
+ * latest one memory-mapped. The file left by the previous run is mapped while the context starts,
+ * so it can answer reads before the caches are warm and while the database is unreachable.
+ */
+@Component
+public class CatalogSnapshotStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+    
+    private static final int MENU_QUERY_CHUNK = 1_000;
+    
+    private final RestaurantRepository restaurantRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantMapper restaurantMapper;
+    private final MenuItemMapper menuItemMapper;
+    private final MenuItemAvailabilityStore availabilityStore;
+    private final ShardRouter shardRouter;
+    private final DatabaseAvailability databaseAvailability;
+    private final Path path;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    private volatile CatalogSnapshotFile current;
+    private volatile long mapMillis = -1;
+    private volatile long lastWriteMillis = -1;
+    
+    public CatalogSnapshotStore(RestaurantRepository restaurantRepository,
+                                MenuItemRepository menuItemRepository,
+                                RestaurantMapper restaurantMapper,
+                                MenuItemMapper menuItemMapper,
+                                MenuItemAvailabilityStore availabilityStore,
+                                ShardRouter shardRouter,
+                                DatabaseAvailability databaseAvailability,
+                                @Value("${restaurant.catalog-snapshot.path:data/catalog-snapshot.bin}") String path) {
+        this.restaurantRepository = restaurantRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantMapper = restaurantMapper;
+        this.menuItemMapper = menuItemMapper;
+        this.availabilityStore = availabilityStore;
+        this.shardRouter = shardRouter;
+        this.databaseAvailability = databaseAvailability;
+        this.path = Path.of(path);
+        mapExisting();
+    }
+    
+    CatalogSnapshotFile current() {
+        return current;
+    }
+    
+    @Scheduled(initialDelayString = "${restaurant.catalog-snapshot.initial-delay-ms:60000}",
+               fixedDelayString = "${restaurant.catalog-snapshot.interval-ms:300000}")
+    public void scheduledWrite() {
+        if (databaseAvailability.isDown()) {
+            return;
+        }
+        try {
+            writeIfIdle();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write catalog snapshot to {}", path, e);
+        }
+    }
+    
+    /**
+     * Writes a snapshot unless one is being written already, in which case it returns false
+     * rather than queueing another full catalog read behind it.
+     */
+    public boolean writeIfIdle() throws IOException {
+        if (!writeLock.tryLock()) {
+            return false;
+        }
+        try {
+            writeSnapshot();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public long getMapMillis() {
+        return mapMillis;
+    }
+    
+    public long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+    
+    private void writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        Instant createdAt = Instant.now();
+        List<RestaurantMenuDto> menus = shardRouter.fanOut(this::loadShard);
+        long bytes = CatalogSnapshotFile.write(path, createdAt, menus);
+        current = CatalogSnapshotFile.map(path);
+        lastWriteMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Wrote catalog snapshot with {} restaurants and {} menu items ({} bytes) in {} ms",
+            current.restaurantCount(), current.menuItemCount(), bytes, lastWriteMillis);
+    }
+    
+    private void mapExisting() {
+        if (!Files.exists(path)) {
+            log.info("No catalog snapshot at {}, the first one is written after startup", path.toAbsolutePath());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            current = CatalogSnapshotFile.map(path);
+            mapMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Mapped catalog snapshot from {} with {} restaurants and {} menu items in {} ms",
+                current.createdAt(), current.restaurantCount(), current.menuItemCount(), mapMillis);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable catalog snapshot at {}", path, e);
+        }
+    }
+    
+    // Runs once per shard: one restaurant query plus one menu query per chunk of restaurants.
+    // Inactive restaurants are kept because the list and owner routes return them too
+    private List<RestaurantMenuDto> loadShard() {
+        List<Restaurant> restaurants = restaurantRepository.findAll();
+        List<Long> restaurantIds = restaurants.stream().map(Restaurant::getId).toList();
+        
+        List<MenuItem> menuItems = new ArrayList<>();
+        for (int from = 0; from < restaurantIds.size(); from += MENU_QUERY_CHUNK) {
+            List<Long> chunk = restaurantIds.subList(from, Math.min(from + MENU_QUERY_CHUNK, restaurantIds.size()));
+            menuItems.addAll(menuItemRepository.findByRestaurantIdInOrderByIdAsc(chunk));
+        }
+        Map<Long, List<MenuItemResponseDto>> itemsByRestaurant = menuItems.stream()
+            .map(this::toDto)
+            .collect(Collectors.groupingBy(MenuItemResponseDto::getRestaurantId));
+        
+        return restaurants.stream()
+            .map(restaurant -> new RestaurantMenuDto(restaurantMapper.toDto(restaurant),
+                itemsByRestaurant.getOrDefault(restaurant.getId(), List.of())))
+            .toList();
+    }
+    
+    private MenuItemResponseDto toDto(MenuItem menuItem) {
+        MenuItemResponseDto dto = menuItemMapper.toDto(menuItem);
+        dto.setAvailable(availabilityStore.resolve(menuItem.getId(), menuItem.getAvailable()));
+        return dto;
+    }
+}
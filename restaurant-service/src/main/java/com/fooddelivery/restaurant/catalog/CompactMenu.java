@@ -0,0 +1,233 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.github.benmanes.caffeine.cache.Interner;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One restaurant's menu held column by column in primitive arrays: ids, prices in minor units,
+ * timestamps as epoch nanos, availability as a bitset, categories as codes into a small dictionary
+ * and names and descriptions as UTF-8 in a single byte array. Instances are immutable, so readers
+ * need no locking; items are turned back into DTOs one at a time with {@link #get}.
+ */
+public final class CompactMenu {
+    
+    // Prices are stored with the scale of the menu_items.price column
+    private static final int PRICE_SCALE = 2;
+    private static final long NULL = Long.MIN_VALUE;
+    private static final int ARRAY_HEADER = 16;
+    
+    // Category names repeat across restaurants, so menus share one instance of each; a name is
+    // dropped from the interner once no cached menu refers to it
+    private static final Interner<String> CATEGORY_NAMES = Interner.newWeakInterner();
+    
+    private final long[] ids;
+    private final long[] prices;
+    private final long[] createdAt;
+    private final long[] updatedAt;
+    private final long[] available;
+    private final long[] hasDescription;
+    private final short[] categoryCodes;
+    private final String[] categories;
+    private final int[] textOffsets;
+    private final byte[] text;
+    private final long boxedBytes;
+    
+    private CompactMenu(long[] ids, long[] prices, long[] createdAt, long[] updatedAt, long[] available,
+                        long[] hasDescription, short[] categoryCodes, String[] categories, int[] textOffsets,
+                        byte[] text, long boxedBytes) {
+        this.ids = ids;
+        this.prices = prices;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.available = available;
+        this.hasDescription = hasDescription;
+        this.categoryCodes = categoryCodes;
+        this.categories = categories;
+        this.textOffsets = textOffsets;
+        this.text = text;
+        this.boxedBytes = boxedBytes;
+    }
+    
+    /**
+     * Packs a menu. Empty when an item cannot be represented exactly: no id, name or availability
+     * flag, a price with more decimals than the column allows, or more categories than a short can code.
+     */
+    public static Optional<CompactMenu> of(List<MenuItemResponseDto> menuItems) {
+        Map<String, Integer> codes = new HashMap<>();
+        for (MenuItemResponseDto item : menuItems) {
+            if (item.getId() == null || item.getName() == null || item.getAvailable() == null
+                || !fitsPriceColumn(item.getPrice())) {
+                return Optional.empty();
+            }
+            codes.putIfAbsent(item.getCategory(), codes.size());
+        }
+        if (codes.size() > Short.MAX_VALUE) {
+            return Optional.empty();
+        }
+        
+        int size = menuItems.size();
+        long[] ids = new long[size];
+        long[] prices = new long[size];
+        long[] createdAt = new long[size];
+        long[] updatedAt = new long[size];
+        long[] available = new long[(size + 63) >>> 6];
+        long[] hasDescription = new long[(size + 63) >>> 6];
+        short[] categoryCodes = new short[size];
+        String[] categories = new String[codes.size()];
+        int[] textOffsets = new int[2 * size + 1];
+        codes.forEach((category, code) -> categories[code] = category == null ? null
+            : CATEGORY_NAMES.intern(category));
+        
+        TextBuffer text = new TextBuffer();
+        long boxedBytes = 0;
+        for (int i = 0; i < size; i++) {
+            MenuItemResponseDto item = menuItems.get(i);
+            ids[i] = item.getId();
+            prices[i] = item.getPrice() == null ? NULL
+                : item.getPrice().setScale(PRICE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            createdAt[i] = epochNanos(item.getCreatedAt());
+            updatedAt[i] = epochNanos(item.getUpdatedAt());
+            if (item.getAvailable()) {
+                available[i >>> 6] |= 1L << i;
+            }
+            categoryCodes[i] = codes.get(item.getCategory()).shortValue();
+            
+            textOffsets[2 * i] = text.size();
+            text.append(item.getName());
+            textOffsets[2 * i + 1] = text.size();
+            if (item.getDescription() != null) {
+                hasDescription[i >>> 6] |= 1L << i;
+                text.append(item.getDescription());
+            }
+            boxedBytes += boxedBytes(item);
+        }
+        textOffsets[2 * size] = text.size();
+        return Optional.of(new CompactMenu(ids, prices, createdAt, updatedAt, available, hasDescription,
+            categoryCodes, categories, textOffsets, text.toByteArray(), boxedBytes));
+    }
+    
+    public int size() {
+        return ids.length;
+    }
+    
+    /**
+     * Materializes one item. The availability flag is the one the menu was packed with.
+     */
+    public MenuItemResponseDto get(int index, Long restaurantId) {
+        return new MenuItemResponseDto(
+            ids[index],
+            restaurantId,
+            text(2 * index),
+            (hasDescription[index >>> 6] & (1L << index)) != 0 ? text(2 * index + 1) : null,
+            prices[index] == NULL ? null : BigDecimal.valueOf(prices[index], PRICE_SCALE),
+            (available[index >>> 6] & (1L << index)) != 0,
+            categories[categoryCodes[index]],
+            dateTime(createdAt[index]),
+            dateTime(updatedAt[index])
+        );
+    }
+    
+    /**
+     * Heap taken by this menu, including array headers but not the shared category names.
+     */
+    public long estimatedBytes() {
+        return 64 + 4 * (long) ARRAY_HEADER + 4L * 8 * ids.length
+            + 2L * (ARRAY_HEADER + 8L * available.length)
+            + ARRAY_HEADER + 2L * categoryCodes.length
+            + ARRAY_HEADER + 4L * categories.length
+            + ARRAY_HEADER + 4L * textOffsets.length
+            + ARRAY_HEADER + text.length;
+    }
+    
+    /**
+     * Heap the same items take as a list of {@link MenuItemResponseDto}, as Jackson or the mappers
+     * build them, with compressed references.
+     */
+    public long boxedBytes() {
+        return boxedBytes;
+    }
+    
+    static long boxedBytes(MenuItemResponseDto item) {
+        // Object with nine references, two Longs, a BigDecimal with a compact value, two
+        // LocalDateTimes (each with a LocalDate and a LocalTime), the list slot and the strings;
+        // Boolean values are the shared constants
+        return 48 + 2 * 16 + 40 + 2 * (24 + 24 + 24) + 4
+            + stringBytes(item.getName()) + stringBytes(item.getDescription()) + stringBytes(item.getCategory());
+    }
+    
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return 24 + align(ARRAY_HEADER + (latin1 ? value.length() : 2L * value.length()));
+    }
+    
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+    
+    private static boolean fitsPriceColumn(BigDecimal price) {
+        if (price == null) {
+            return true;
+        }
+        if (price.stripTrailingZeros().scale() > PRICE_SCALE) {
+            return false;
+        }
+        return price.setScale(PRICE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().bitLength() < 64;
+    }
+    
+    private String text(int slot) {
+        return new String(text, textOffsets[slot], textOffsets[slot + 1] - textOffsets[slot], StandardCharsets.UTF_8);
+    }
+    
+    // Epoch nanos cover 1678 to 2262, which is plenty for menu timestamps
+    private static long epochNanos(LocalDateTime value) {
+        if (value == null) {
+            return NULL;
+        }
+        return Math.addExact(Math.multiplyExact(value.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L), value.getNano());
+    }
+    
+    private static LocalDateTime dateTime(long epochNanos) {
+        if (epochNanos == NULL) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+            (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+    
+    private static final class TextBuffer {
+        
+        private byte[] bytes = new byte[256];
+        private int size;
+        
+        void append(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (size + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + encoded.length));
+            }
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
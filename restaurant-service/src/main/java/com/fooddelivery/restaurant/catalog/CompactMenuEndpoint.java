@@ -0,0 +1,27 @@
+package com.fooddelivery.restaurant.catalog;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Size, hit rate and memory per million items of the compact menu store, next to the same items
+ * as boxed DTOs, at /actuator/compactmenu.
+ */
+@Component
+@Endpoint(id = "compactmenu")
+public class CompactMenuEndpoint {
+    
+    private final CompactMenuStore compactMenuStore;
+    
+    public CompactMenuEndpoint(CompactMenuStore compactMenuStore) {
+        this.compactMenuStore = compactMenuStore;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> compactMenu() {
+        return compactMenuStore.stats();
+    }
+}
@@ -0,0 +1,152 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.event.CacheInvalidatedEvent;
+import com.fooddelivery.restaurant.event.MenuChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps recently read menus in {@link CompactMenu} form, bounded by their estimated heap size.
+ * A miss loads the menu through the caller's loader; a menu is dropped after a local change
+ * commits or when another instance's change shows up in the invalidation log. Reads return a list
+ * view whose items are only turned into DTOs as they are serialized.
+ */
+@Component
+public class CompactMenuStore {
+    
+    private static final int STRIPES = 1024;
+    
+    private final MenuItemAvailabilityStore availabilityStore;
+    private final long maxBytes;
+    private final Cache<Long, CompactMenu> menus;
+    
+    // Bumped before every eviction, so a load that overlapped one is not kept
+    private final AtomicLongArray evictions = new AtomicLongArray(STRIPES);
+    private final LongAdder uncacheable = new LongAdder();
+    
+    public CompactMenuStore(MenuItemAvailabilityStore availabilityStore,
+                            @Value("${restaurant.compact-menu.max-bytes:67108864}") long maxBytes) {
+        this.availabilityStore = availabilityStore;
+        this.maxBytes = maxBytes;
+        this.menus = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Long restaurantId, CompactMenu menu) -> (int) Math.min(Integer.MAX_VALUE, menu.estimatedBytes()))
+            .recordStats()
+            .build();
+    }
+    
+    public List<MenuItemResponseDto> getMenuItems(Long restaurantId, Supplier<List<MenuItemResponseDto>> loader) {
+        if (maxBytes <= 0) {
+            return loader.get();
+        }
+        CompactMenu menu = menus.getIfPresent(restaurantId);
+        if (menu == null) {
+            int stripe = stripe(restaurantId);
+            long seen = evictions.get(stripe);
+            List<MenuItemResponseDto> menuItems = loader.get();
+            Optional<CompactMenu> packed = CompactMenu.of(menuItems);
+            if (packed.isEmpty()) {
+                uncacheable.increment();
+                return menuItems;
+            }
+            menu = packed.get();
+            menus.put(restaurantId, menu);
+            if (evictions.get(stripe) != seen) {
+                menus.invalidate(restaurantId);
+            }
+        }
+        return new MenuView(menu, restaurantId);
+    }
+    
+    public void evict(Long restaurantId) {
+        evictions.incrementAndGet(stripe(restaurantId));
+        menus.invalidate(restaurantId);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        evict(event.restaurantId());
+    }
+    
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        event.invalidations().stream()
+            .filter(invalidation -> invalidation.getType() == CacheInvalidation.Type.MENU_SNAPSHOT)
+            .forEach(invalidation -> evict(invalidation.getEntityId()));
+    }
+    
+    public Map<String, Object> stats() {
+        long restaurants = 0;
+        long items = 0;
+        long bytes = 0;
+        long boxedBytes = 0;
+        for (CompactMenu menu : menus.asMap().values()) {
+            restaurants++;
+            items += menu.size();
+            bytes += menu.estimatedBytes();
+            boxedBytes += menu.boxedBytes();
+        }
+        CacheStats cacheStats = menus.stats();
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("restaurants", restaurants);
+        stats.put("menuItems", items);
+        stats.put("maxBytes", maxBytes);
+        stats.put("estimatedBytes", bytes);
+        stats.put("boxedEstimatedBytes", boxedBytes);
+        stats.put("bytesPerMillionItems", items == 0 ? 0 : bytes * 1_000_000 / items);
+        stats.put("boxedBytesPerMillionItems", items == 0 ? 0 : boxedBytes * 1_000_000 / items);
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("evictedBySize", cacheStats.evictionCount());
+        stats.put("uncacheable", uncacheable.sum());
+        return stats;
+    }
+    
+    private static int stripe(Long restaurantId) {
+        return (int) ((restaurantId ^ (restaurantId >>> 32)) & (STRIPES - 1));
+    }
+    
+    // Availability is resolved per item as it is read, so toggles still waiting for the
+    // write-behind flush show up without dropping the menu
+    private final class MenuView extends AbstractList<MenuItemResponseDto> implements RandomAccess {
+        
+        private final CompactMenu menu;
+        private final Long restaurantId;
+        
+        MenuView(CompactMenu menu, Long restaurantId) {
+            this.menu = menu;
+            this.restaurantId = restaurantId;
+        }
+        
+        @Override
+        public MenuItemResponseDto get(int index) {
+            MenuItemResponseDto item = menu.get(index, restaurantId);
+            item.setAvailable(availabilityStore.resolve(item.getId(), item.getAvailable()));
+            return item;
+        }
+        
+        @Override
+        public int size() {
+            return menu.size();
+        }
+    }
+}
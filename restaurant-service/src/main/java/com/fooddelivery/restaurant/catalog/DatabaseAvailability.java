@@ -0,0 +1,73 @@
+package com.fooddelivery.restaurant.catalog;
+
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tracks whether the database is reachable. A request that fails to get a connection marks it
+ * down; from then on catalog reads are answered from the snapshot without waiting on the pool,
+ * and a probe checks every shard until all of them answer again.
+ */
+@Component
+public class DatabaseAvailability {
+    
+    private static final Logger log = LoggerFactory.getLogger(DatabaseAvailability.class);
+    
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    
+    private volatile Instant downSince;
+    
+    public DatabaseAvailability(DataSource dataSource, ShardRouter shardRouter) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+    }
+    
+    public boolean isDown() {
+        return downSince != null;
+    }
+    
+    public Instant getDownSince() {
+        return downSince;
+    }
+    
+    public synchronized void markDown(Throwable failure) {
+        if (downSince == null) {
+            downSince = Instant.now();
+            log.warn("Database unavailable, serving catalog reads from the snapshot: {}", failure.toString());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.catalog-snapshot.probe-interval-ms:5000}")
+    public void probe() {
+        if (downSince == null) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            boolean valid = ShardContext.callOn(shard, () -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    return connection.isValid(1);
+                } catch (SQLException e) {
+                    return false;
+                }
+            });
+            if (!valid) {
+                return;
+            }
+        }
+        synchronized (this) {
+            log.info("Database available again after {} s", Duration.between(downSince, Instant.now()).toSeconds());
+            downSince = null;
+        }
+    }
+}
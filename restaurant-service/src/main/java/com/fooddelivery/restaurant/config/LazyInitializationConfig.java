@@ -0,0 +1,38 @@
+package com.fooddelivery.restaurant.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * With {@code spring.main.lazy-initialization} (the fast-startup profile) beans are created on
+ * first use. Beans that work on their own schedule or take part in the lifecycle would then never
+ * start, so those stay eager.
+ */
+@Configuration
+public class LazyInitializationConfig {
+    
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+            && (SmartLifecycle.class.isAssignableFrom(beanType) || hasScheduledMethods(beanType));
+    }
+    
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+            (MethodIntrospector.MetadataLookup<Boolean>) LazyInitializationConfig::scheduledOrNull).isEmpty();
+    }
+    
+    private static Boolean scheduledOrNull(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+            || AnnotatedElementUtils.hasAnnotation(method, Schedules.class) ? Boolean.TRUE : null;
+    }
+}
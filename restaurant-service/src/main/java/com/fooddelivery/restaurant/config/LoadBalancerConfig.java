@@ -0,0 +1,14 @@
+package com.fooddelivery.restaurant.config;
+
+import com.fooddelivery.restaurant.loadbalancer.LoadAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes the load-aware chooser the default for any @LoadBalanced client. None exists yet: peer
+ * calls go to one chosen instance, so today the chooser only serves as the reference for callers.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LoadAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,162 @@
+package com.fooddelivery.restaurant.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.exception.ErrorResponse;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.reactive.ReactiveMenuItemRepository;
+import com.fooddelivery.restaurant.reactive.ReactiveReadHandler;
+import com.fooddelivery.restaurant.reactive.ReactiveReadServer;
+import com.fooddelivery.restaurant.reactive.ReactiveRestaurantRepository;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import com.fooddelivery.restaurant.trending.TrendingTracker;
+import com.fooddelivery.restaurant.sharding.ShardRoutingConnectionFactory;
+import com.fooddelivery.restaurant.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Experimental non-blocking read stack for the public GET endpoints, served by R2DBC repositories
+ * on a separate port and off by default. It covers only the basic reads: affinity forwarding,
+ * admission control, the catalog snapshot and compact menu caches, menu filtering, paging and
+ * stats are servlet-only. Writes and everything behind authentication stay on the servlet/JPA path.
+ */
+@Configuration
+@ConditionalOnProperty(name = "restaurant.reactive.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveReadConfig {
+    
+    /**
+     * Boot stops auto-configuring the JDBC DataSource once a ConnectionFactory bean exists, but JPA
+     * still needs it. The sharded DataSource in ShardingConfig covers the sharding case.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "restaurant.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ConnectionFactory connectionFactory(ShardingProperties shardingProperties,
+                                               @Value("${restaurant.reactive.url:}") String url,
+                                               @Value("${spring.datasource.username:}") String username,
+                                               @Value("${spring.datasource.password:}") String password,
+                                               @Value("${restaurant.reactive.pool-size:20}") int poolSize) {
+        Map<Object, Object> shards = new HashMap<>();
+        if (shardingProperties.isEnabled()) {
+            List<ShardingProperties.Shard> configured = shardingProperties.getShards();
+            for (int i = 0; i < configured.size(); i++) {
+                ShardingProperties.Shard shard = configured.get(i);
+                if (!StringUtils.hasText(shard.getR2dbcUrl())) {
+                    throw new IllegalStateException("restaurant.sharding.shards[" + i + "].r2dbc-url is required for the reactive read path");
+                }
+                shards.put(i, pool(shard.getR2dbcUrl(), shard.getUsername(), shard.getPassword(), poolSize));
+            }
+        } else {
+            if (!StringUtils.hasText(url)) {
+                throw new IllegalStateException("restaurant.reactive.url is required for the reactive read path");
+            }
+            shards.put(0, pool(url, username, password, poolSize));
+        }
+        
+        ShardRoutingConnectionFactory routingConnectionFactory = new ShardRoutingConnectionFactory();
+        routingConnectionFactory.setTargetConnectionFactories(shards);
+        routingConnectionFactory.setDefaultTargetConnectionFactory((ConnectionFactory) shards.get(0));
+        routingConnectionFactory.afterPropertiesSet();
+        return routingConnectionFactory;
+    }
+    
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+    
+    @Bean
+    public ReactiveReadHandler reactiveReadHandler(ReactiveRestaurantRepository restaurantRepository,
+                                                   ReactiveMenuItemRepository menuItemRepository,
+                                                   MenuItemAvailabilityStore availabilityStore,
+                                                   ShardRouter shardRouter,
+                                                   TrendingTracker trendingTracker) {
+        return new ReactiveReadHandler(restaurantRepository, menuItemRepository, availabilityStore, shardRouter,
+            trendingTracker);
+    }
+    
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveReadHandler handler,
+                                                 ObjectMapper objectMapper,
+                                                 @Value("${restaurant.reactive.port:8091}") int port) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+            .GET("/api/restaurants", handler::getAllRestaurants)
+            // Numeric ids only, so servlet-only routes such as /api/restaurants/menus get a 404 here
+            .GET("/api/restaurants/owner/{ownerId:\\d+}", handler::getRestaurantsByOwner)
+            .GET("/api/restaurants/{restaurantId:\\d+}/menu", handler::getMenuItemsByRestaurant)
+            .GET("/api/restaurants/{id:\\d+}", handler::getRestaurantById)
+            .GET("/api/menu/{menuId:\\d+}", handler::getMenuItemById)
+            .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                .onErrorResume(ResourceNotFoundException.class, e -> error(request, HttpStatus.NOT_FOUND, e))
+                .onErrorResume(IllegalArgumentException.class, e -> error(request, HttpStatus.BAD_REQUEST, e)))
+            .build();
+        
+        // Same ObjectMapper as the servlet stack so both serialize identically
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+        
+        return new ReactiveReadServer(RouterFunctions.toHttpHandler(routes, strategies), port);
+    }
+    
+    private static ConnectionPool pool(String url, String username, String password, int poolSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (StringUtils.hasText(username)) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (StringUtils.hasText(password)) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+            .maxSize(poolSize)
+            .build());
+    }
+    
+    private static Mono<ServerResponse> error(ServerRequest request, HttpStatus status, Throwable e) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            status.value(),
+            status.getReasonPhrase(),
+            e.getMessage(),
+            request.path()
+        );
+        return ServerResponse.status(status).bodyValue(errorResponse);
+    }
+}
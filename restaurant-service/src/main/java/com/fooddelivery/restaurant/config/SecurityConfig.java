@@ -1,6 +1,13 @@
 package com.fooddelivery.restaurant.config;
 
+import com.fooddelivery.restaurant.admission.AdmissionControlFilter;
+import com.fooddelivery.restaurant.admission.AdmissionProperties;
+import com.fooddelivery.restaurant.affinity.RestaurantAffinityFilter;
+import com.fooddelivery.restaurant.catalog.CatalogSnapshotFilter;
+import com.fooddelivery.restaurant.idempotency.IdempotencyFilter;
+import com.fooddelivery.restaurant.idempotency.IdempotencyProperties;
 import com.fooddelivery.restaurant.security.JwtAuthenticationFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -15,12 +22,25 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties({AdmissionProperties.class, IdempotencyProperties.class})
 public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AdmissionControlFilter admissionControlFilter;
+    private final RestaurantAffinityFilter restaurantAffinityFilter;
+    private final CatalogSnapshotFilter catalogSnapshotFilter;
+    private final IdempotencyFilter idempotencyFilter;
     
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          AdmissionControlFilter admissionControlFilter,
+                          RestaurantAffinityFilter restaurantAffinityFilter,
+                          CatalogSnapshotFilter catalogSnapshotFilter,
+                          IdempotencyFilter idempotencyFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.admissionControlFilter = admissionControlFilter;
+        this.restaurantAffinityFilter = restaurantAffinityFilter;
+        this.catalogSnapshotFilter = catalogSnapshotFilter;
+        this.idempotencyFilter = idempotencyFilter;
     }
     
     @Bean
@@ -28,15 +48,29 @@ public class SecurityConfig {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                // The diagnostic endpoints show captured SQL and internal state, and some of them write
+                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/restaurants/*/menu/history", "/api/menu/*/history",
+                    "/api/menu/*/versions").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/restaurants/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/menu/**").permitAll()
+                // Answered only for requests signed by a peer instance
+                .requestMatchers(HttpMethod.GET, "/internal/trending").permitAll()
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // Keys are scoped per user. Duplicates are answered or wait here, before admission, so they
+            // hold no concurrency permit and their wait does not count as latency
+            .addFilterAfter(idempotencyFilter, JwtAuthenticationFilter.class)
+            // Needs the authenticated principal to tell owners' writes from anonymous reads
+            .addFilterAfter(admissionControlFilter, IdempotencyFilter.class)
+            // Forwarding and snapshot reads come after admission so they are limited like local reads
+            .addFilterAfter(restaurantAffinityFilter, AdmissionControlFilter.class)
+            .addFilterAfter(catalogSnapshotFilter, RestaurantAffinityFilter.class);
         
         return http.build();
     }
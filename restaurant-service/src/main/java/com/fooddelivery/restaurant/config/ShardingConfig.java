@@ -0,0 +1,80 @@
+package com.fooddelivery.restaurant.config;
+
+import com.fooddelivery.restaurant.sharding.NodeIdLease;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import com.fooddelivery.restaurant.sharding.ShardRoutingDataSource;
+import com.fooddelivery.restaurant.sharding.ShardSchemaInitializer;
+import com.fooddelivery.restaurant.sharding.ShardedIdGenerator;
+import com.fooddelivery.restaurant.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "restaurant.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardingProperties properties) {
+        Map<Object, Object> shards = new HashMap<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .driverClassName(shard.getDriverClassName())
+                .build();
+            dataSource.setPoolName("shard-" + i);
+            shards.put(i, dataSource);
+        }
+        
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(shards);
+        routingDataSource.setDefaultTargetDataSource(shards.get(0));
+        routingDataSource.afterPropertiesSet();
+        
+        // Defer the physical connection until the first statement, by which time the shard is bound
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "restaurant.sharding.enabled", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(ShardRouter shardRouter) {
+        return new ShardSchemaInitializer(shardRouter);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "restaurant.sharding.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaInitializer shardSchemaInitializer) {
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+            (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "restaurant.sharding.enabled", havingValue = "true")
+    public NodeIdLease nodeIdLease(NamedParameterJdbcTemplate jdbcTemplate, ShardingProperties properties) {
+        return new NodeIdLease(jdbcTemplate, properties);
+    }
+    
+    // Lets ShardedIdGenerator choose between sharded ids and auto-increment when Hibernate builds it
+    @Bean
+    public HibernatePropertiesCustomizer shardedIdSettings(ShardingProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(ShardedIdGenerator.SHARDING_ENABLED, properties.isEnabled());
+    }
+}
@@ -0,0 +1,33 @@
+package com.fooddelivery.restaurant.config;
+
+import com.fooddelivery.restaurant.slowquery.SlowQueryDataSource;
+import com.fooddelivery.restaurant.slowquery.SlowQueryProperties;
+import com.fooddelivery.restaurant.slowquery.SlowQueryRecorder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfig {
+    
+    // Static so it is registered before the DataSource is created; the recorder is looked up lazily for the same reason
+    @Bean
+    @ConditionalOnProperty(name = "restaurant.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor slowQueryDataSourceWrapper(ObjectProvider<SlowQueryRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource(dataSource, recorder.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,13 +1,26 @@
 package com.fooddelivery.restaurant.controller;
 
+import com.fooddelivery.restaurant.dto.AvailabilityScheduleRequestDto;
+import com.fooddelivery.restaurant.dto.AvailabilityScheduleResponseDto;
+import com.fooddelivery.restaurant.dto.MenuItemQueryDto;
 import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
 import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.MenuItemVersionDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.dto.TrendingMenuItemDto;
+import com.fooddelivery.restaurant.service.AvailabilityScheduleService;
+import com.fooddelivery.restaurant.service.MenuHistoryService;
 import com.fooddelivery.restaurant.service.MenuItemService;
+import com.fooddelivery.restaurant.service.TrendingService;
+import com.fooddelivery.restaurant.trending.TrendingTracker;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -16,9 +29,21 @@ import java.util.Map;
 public class MenuItemController {
     
     private final MenuItemService menuItemService;
+    private final AvailabilityScheduleService availabilityScheduleService;
+    private final TrendingService trendingService;
+    private final TrendingTracker trendingTracker;
+    private final MenuHistoryService menuHistoryService;
     
-    public MenuItemController(MenuItemService menuItemService) {
+    public MenuItemController(MenuItemService menuItemService,
+                              AvailabilityScheduleService availabilityScheduleService,
+                              TrendingService trendingService,
+                              TrendingTracker trendingTracker,
+                              MenuHistoryService menuHistoryService) {
         this.menuItemService = menuItemService;
+        this.availabilityScheduleService = availabilityScheduleService;
+        this.trendingService = trendingService;
+        this.trendingTracker = trendingTracker;
+        this.menuHistoryService = menuHistoryService;
     }
     
     @PostMapping("/restaurants/{restaurantId}/menu")
@@ -52,16 +77,89 @@ public class MenuItemController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/menu/{menuId}/availability-schedule")
+    public ResponseEntity<AvailabilityScheduleResponseDto> getAvailabilitySchedule(@PathVariable Long menuId) {
+        AvailabilityScheduleResponseDto response = availabilityScheduleService.getSchedule(menuId);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PutMapping("/menu/{menuId}/availability-schedule")
+    public ResponseEntity<AvailabilityScheduleResponseDto> replaceAvailabilitySchedule(
+            @PathVariable Long menuId,
+            @Valid @RequestBody AvailabilityScheduleRequestDto requestDto) {
+        AvailabilityScheduleResponseDto response = availabilityScheduleService.replaceSchedule(menuId, requestDto);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/restaurants/menus")
+    public ResponseEntity<List<RestaurantMenuDto>> getMenusByRestaurants(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "false") boolean availableOnly,
+            @RequestParam(required = false) Integer limitPerRestaurant) {
+        List<RestaurantMenuDto> response = menuItemService.getMenusByRestaurants(ids, availableOnly, limitPerRestaurant);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/restaurants/{restaurantId}/menu")
     public ResponseEntity<List<MenuItemResponseDto>> getMenuItemsByRestaurant(
-            @PathVariable Long restaurantId) {
-        List<MenuItemResponseDto> response = menuItemService.getMenuItemsByRestaurant(restaurantId);
+            @PathVariable Long restaurantId,
+            @Valid MenuItemQueryDto query) {
+        if (query.isEmpty()) {
+            List<MenuItemResponseDto> response = menuItemService.getMenuItemsByRestaurant(restaurantId);
+            return ResponseEntity.ok(response);
+        }
+        
+        Page<MenuItemResponseDto> page = menuItemService.searchMenuItems(restaurantId, query);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(page.getTotalElements()))
+            .body(page.getContent());
+    }
+    
+    @GetMapping("/restaurants/{restaurantId}/menu/history")
+    public ResponseEntity<List<MenuItemResponseDto>> getMenuAsOf(
+            @PathVariable Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime at) {
+        List<MenuItemResponseDto> response = menuHistoryService.getMenuAsOf(restaurantId, at);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/menu/{menuId}/history")
+    public ResponseEntity<MenuItemResponseDto> getMenuItemAsOf(
+            @PathVariable Long menuId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime at) {
+        MenuItemResponseDto response = menuHistoryService.getMenuItemAsOf(menuId, at);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/menu/{menuId}/versions")
+    public ResponseEntity<List<MenuItemVersionDto>> getMenuItemVersions(
+            @PathVariable Long menuId,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<MenuItemVersionDto> response = menuHistoryService.getVersions(menuId, limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/restaurants/{restaurantId}/menu/trending")
+    public ResponseEntity<List<TrendingMenuItemDto>> getTrendingMenuItemsByRestaurant(
+            @PathVariable Long restaurantId,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean availableOnly) {
+        List<TrendingMenuItemDto> response = trendingService.getTrendingForRestaurant(restaurantId, limit, availableOnly);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/menu/trending")
+    public ResponseEntity<List<TrendingMenuItemDto>> getTrendingMenuItems(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean availableOnly) {
+        List<TrendingMenuItemDto> response = trendingService.getTrending(limit, availableOnly);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/menu/{menuId}")
     public ResponseEntity<MenuItemResponseDto> getMenuItemById(@PathVariable Long menuId) {
         MenuItemResponseDto response = menuItemService.getMenuItemById(menuId);
+        trendingTracker.recordView(response.getRestaurantId(), response.getId());
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,40 @@
+package com.fooddelivery.restaurant.controller;
+
+import com.fooddelivery.restaurant.affinity.PeerForwardVerifier;
+import com.fooddelivery.restaurant.exception.ForbiddenException;
+import com.fooddelivery.restaurant.trending.ClusterTrending;
+import com.fooddelivery.restaurant.trending.TrendingEntry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * This instance's own trending counts, read by peers merging rankings across instances. Only
+ * requests signed by a peer are answered.
+ */
+@RestController
+public class PeerTrendingController {
+    
+    private final ClusterTrending clusterTrending;
+    private final PeerForwardVerifier peerForwardVerifier;
+    
+    public PeerTrendingController(ClusterTrending clusterTrending, PeerForwardVerifier peerForwardVerifier) {
+        this.clusterTrending = clusterTrending;
+        this.peerForwardVerifier = peerForwardVerifier;
+    }
+    
+    @GetMapping(ClusterTrending.PEER_PATH)
+    public ResponseEntity<List<TrendingEntry>> getLocalTrending(
+            @RequestParam(required = false) Long restaurantId,
+            @RequestParam int limit,
+            HttpServletRequest request) {
+        if (!peerForwardVerifier.isVerified(request)) {
+            throw new ForbiddenException("Only available to peer instances");
+        }
+        return ResponseEntity.ok(clusterTrending.local(restaurantId, limit));
+    }
+}
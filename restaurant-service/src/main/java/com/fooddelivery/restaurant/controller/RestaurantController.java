@@ -2,6 +2,7 @@ package com.fooddelivery.restaurant.controller;
 
 import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
 import com.fooddelivery.restaurant.dto.RestaurantResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantSuggestionDto;
 import com.fooddelivery.restaurant.service.RestaurantService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -51,21 +52,35 @@ public class RestaurantController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/suggest")
+    public ResponseEntity<List<RestaurantSuggestionDto>> suggestRestaurants(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "true") boolean activeOnly) {
+        List<RestaurantSuggestionDto> response = restaurantService.suggestRestaurants(q, limit, activeOnly);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<RestaurantResponseDto> getRestaurantById(@PathVariable Long id) {
-        RestaurantResponseDto response = restaurantService.getRestaurantById(id);
+    public ResponseEntity<RestaurantResponseDto> getRestaurantById(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeMenuStats) {
+        RestaurantResponseDto response = restaurantService.getRestaurantById(id, includeMenuStats);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping
-    public ResponseEntity<List<RestaurantResponseDto>> getAllRestaurants() {
-        List<RestaurantResponseDto> response = restaurantService.getAllRestaurants();
+    public ResponseEntity<List<RestaurantResponseDto>> getAllRestaurants(
+            @RequestParam(defaultValue = "false") boolean includeMenuStats) {
+        List<RestaurantResponseDto> response = restaurantService.getAllRestaurants(includeMenuStats);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/owner/{ownerId}")
-    public ResponseEntity<List<RestaurantResponseDto>> getRestaurantsByOwner(@PathVariable Long ownerId) {
-        List<RestaurantResponseDto> response = restaurantService.getRestaurantsByOwner(ownerId);
+    public ResponseEntity<List<RestaurantResponseDto>> getRestaurantsByOwner(
+            @PathVariable Long ownerId,
+            @RequestParam(defaultValue = "false") boolean includeMenuStats) {
+        List<RestaurantResponseDto> response = restaurantService.getRestaurantsByOwner(ownerId, includeMenuStats);
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,22 @@
+package com.fooddelivery.restaurant.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityScheduleRequestDto {
+    
+    // An empty list removes the schedule and leaves availability to manual toggles
+    @NotNull(message = "Windows are required")
+    @Size(max = 20, message = "At most 20 windows are allowed")
+    @Valid
+    private List<AvailabilityWindowDto> windows;
+}
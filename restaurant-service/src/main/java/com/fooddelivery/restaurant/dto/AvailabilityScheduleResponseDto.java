@@ -0,0 +1,22 @@
+package com.fooddelivery.restaurant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityScheduleResponseDto {
+    
+    private Long menuItemId;
+    private String timeZone;
+    private List<AvailabilityWindowDto> windows;
+    
+    // Null when the item has no windows
+    private Boolean scheduledAvailable;
+    private OffsetDateTime nextChangeAt;
+}
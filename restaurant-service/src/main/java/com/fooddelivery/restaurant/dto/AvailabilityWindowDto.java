@@ -0,0 +1,27 @@
+package com.fooddelivery.restaurant.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityWindowDto {
+    
+    @NotEmpty(message = "At least one day is required")
+    private Set<DayOfWeek> days;
+    
+    // An end at or before the start runs past midnight; equal times cover the whole day
+    @NotNull(message = "Start time is required")
+    private LocalTime start;
+    
+    @NotNull(message = "End time is required")
+    private LocalTime end;
+}
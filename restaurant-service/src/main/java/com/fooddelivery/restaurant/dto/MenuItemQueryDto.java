@@ -0,0 +1,49 @@
+package com.fooddelivery.restaurant.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemQueryDto {
+    
+    private String category;
+    
+    private Boolean available;
+    
+    @DecimalMin(value = "0.0", message = "minPrice must not be negative")
+    private BigDecimal minPrice;
+    
+    @DecimalMin(value = "0.0", message = "maxPrice must not be negative")
+    private BigDecimal maxPrice;
+    
+    @Pattern(regexp = "(id|name|price|category|createdAt)(,(asc|desc))?",
+             message = "sort must be one of id, name, price, category, createdAt, optionally followed by ,asc or ,desc")
+    private String sort;
+    
+    @Min(value = 0, message = "page must not be negative")
+    private Integer page;
+    
+    @Min(value = 1, message = "size must be at least 1")
+    @Max(value = 200, message = "size must be at most 200")
+    private Integer size;
+    
+    @AssertTrue(message = "minPrice must not exceed maxPrice")
+    public boolean isPriceRangeValid() {
+        return minPrice == null || maxPrice == null || minPrice.compareTo(maxPrice) <= 0;
+    }
+    
+    public boolean isEmpty() {
+        return category == null && available == null && minPrice == null && maxPrice == null
+            && sort == null && page == null && size == null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fooddelivery.restaurant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemVersionDto {
+    
+    private Long menuItemId;
+    private Long restaurantId;
+    private Integer version;
+    private LocalDateTime changedAt;
+    private boolean checkpoint;
+    private boolean deleted;
+    private List<String> changedFields;
+    
+    // Only the fields listed in changedFields are set
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Boolean available;
+    private String category;
+}
@@ -0,0 +1,16 @@
+package com.fooddelivery.restaurant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantMenuDto {
+    
+    private RestaurantResponseDto restaurant;
+    private List<MenuItemResponseDto> menuItems;
+}
@@ -1,11 +1,16 @@
 package com.fooddelivery.restaurant.dto;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,4 +27,21 @@ public class RestaurantRequestDto {
     @NotBlank(message = "Phone number is required")
     @Pattern(regexp = "^[0-9]{10}$", message = "Phone number must be 10 digits")
     private String phone;
+    
+    // Defaults to UTC on create and is left unchanged on update when omitted
+    @Size(max = 64, message = "Time zone must be at most 64 characters")
+    private String timeZone;
+    
+    @AssertTrue(message = "Time zone must be a valid zone id such as Europe/Paris")
+    public boolean isTimeZoneValid() {
+        if (timeZone == null) {
+            return true;
+        }
+        try {
+            ZoneId.of(timeZone);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
 }
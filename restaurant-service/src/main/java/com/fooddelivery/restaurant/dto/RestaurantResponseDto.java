@@ -1,5 +1,6 @@
 package com.fooddelivery.restaurant.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,8 +17,13 @@ public class RestaurantResponseDto {
     private String description;
     private String address;
     private String phone;
+    private String timeZone;
     private Long ownerId;
     private Boolean active;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Only filled in when requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private MenuStatsDto menuStats;
 }
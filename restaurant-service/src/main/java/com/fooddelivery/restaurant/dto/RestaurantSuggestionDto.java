@@ -0,0 +1,15 @@
+package com.fooddelivery.restaurant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantSuggestionDto {
+    
+    private Long id;
+    private String name;
+    private Integer itemCount;
+}
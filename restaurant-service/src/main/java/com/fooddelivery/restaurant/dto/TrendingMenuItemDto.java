@@ -0,0 +1,14 @@
+package com.fooddelivery.restaurant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingMenuItemDto {
+    
+    private MenuItemResponseDto menuItem;
+    private double score;
+}
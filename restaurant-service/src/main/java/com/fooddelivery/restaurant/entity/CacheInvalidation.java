@@ -0,0 +1,43 @@
+package com.fooddelivery.restaurant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cache_invalidations", indexes = @Index(columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    
+    public enum Type {
+        RESTAURANT,
+        MENU_ITEM,
+        MENU_SNAPSHOT,
+        MENU_STATS,
+        AVAILABILITY_SCHEDULE
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+    
+    @Column(nullable = false)
+    private Long entityId;
+    
+    @Column(nullable = false, length = 64)
+    private String origin;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
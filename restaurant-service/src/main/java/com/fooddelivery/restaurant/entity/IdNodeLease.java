@@ -0,0 +1,29 @@
+package com.fooddelivery.restaurant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A node id (0-31) held by a running instance for generating sharded ids. Kept on shard 0 and
+ * renewed while the instance runs; an expired lease can be taken over by another instance.
+ */
+@Entity
+@Table(name = "id_node_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdNodeLease {
+    
+    @Id
+    private Integer nodeId;
+    
+    @Column(nullable = false, length = 128)
+    private String instanceId;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
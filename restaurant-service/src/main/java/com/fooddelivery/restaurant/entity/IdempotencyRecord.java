@@ -0,0 +1,56 @@
+package com.fooddelivery.restaurant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's Idempotency-Key: claimed by the instance executing the first request, then holding
+ * its response until the key expires. Kept on shard 0 and shared by every instance.
+ */
+@Entity
+@Table(name = "idempotency_records",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_records_user_key", columnNames = {"userId", "idempotencyKey"}),
+    indexes = @Index(name = "idx_idempotency_records_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private String idempotencyKey;
+    
+    // SHA-256 of method, path, query and body
+    @Column(nullable = false, length = 32)
+    private byte[] fingerprint;
+    
+    // Identifies the attempt holding the claim, so a taken-over claim can't be completed twice
+    @Column(nullable = false, length = 36)
+    private String claimToken;
+    
+    @Column(nullable = false)
+    private LocalDateTime claimedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Null while the first request is still running
+    private Integer status;
+    
+    @Column(columnDefinition = "TEXT")
+    private String headers;
+    
+    @Lob
+    @Column(length = 16777215)
+    private byte[] body;
+}
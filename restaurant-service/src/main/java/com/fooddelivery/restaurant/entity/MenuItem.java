@@ -1,24 +1,35 @@
 package com.fooddelivery.restaurant.entity;
 
+import com.fooddelivery.restaurant.sharding.ShardedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "menu_items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-items")
+@Table(name = "menu_items", indexes = {
+    @Index(name = "idx_menu_items_restaurant_category", columnList = "restaurantId, category, price"),
+    @Index(name = "idx_menu_items_restaurant_price", columnList = "restaurantId, price"),
+    @Index(name = "idx_menu_items_restaurant_available", columnList = "restaurantId, available, price")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MenuItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedId
     private Long id;
     
     @Column(nullable = false)
@@ -39,6 +50,12 @@ public class MenuItem {
     @Column(nullable = false)
     private String category;
     
+    // Set by the availability write-behind; tells manual toggles from scheduled ones on restart
+    private LocalDateTime availabilityChangedAt;
+    
+    // Latest version in menu_item_versions; only written while the row is locked
+    private Integer historyVersion;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,44 @@
+package com.fooddelivery.restaurant.entity;
+
+import com.fooddelivery.restaurant.sharding.ShardedId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * A weekly window in which a menu item is on sale, in its restaurant's time zone. Days are a
+ * bitmask with Monday as bit 0; a window whose end is not after its start runs past midnight into
+ * the next day, and one whose start equals its end covers the whole day.
+ */
+@Entity
+@Table(name = "menu_item_availability_windows", indexes = {
+    @Index(name = "idx_availability_windows_menu_item", columnList = "menuItemId"),
+    @Index(name = "idx_availability_windows_restaurant", columnList = "restaurantId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemAvailabilityWindow {
+    
+    @Id
+    @ShardedId
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long menuItemId;
+    
+    @Column(nullable = false)
+    private Long restaurantId;
+    
+    @Column(nullable = false)
+    private Integer days;
+    
+    @Column(nullable = false)
+    private LocalTime startTime;
+    
+    @Column(nullable = false)
+    private LocalTime endTime;
+}
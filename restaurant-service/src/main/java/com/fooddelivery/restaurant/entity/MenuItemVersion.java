@@ -0,0 +1,72 @@
+package com.fooddelivery.restaurant.entity;
+
+import com.fooddelivery.restaurant.sharding.ShardedId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a menu item. {@code changedFields} is a bitmask of the columns this version sets;
+ * the others are null and carry over from earlier versions. Checkpoint versions set every field so
+ * replaying an item starts from its latest checkpoint instead of its first version.
+ */
+@Entity
+@Table(name = "menu_item_versions", indexes = {
+    @Index(name = "uk_menu_item_versions_item_version", columnList = "menuItemId, version", unique = true),
+    @Index(name = "idx_menu_item_versions_checkpoints", columnList = "restaurantId, checkpoint, changedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemVersion {
+    
+    public static final int NAME = 1;
+    public static final int DESCRIPTION = 1 << 1;
+    public static final int PRICE = 1 << 2;
+    public static final int AVAILABLE = 1 << 3;
+    public static final int CATEGORY = 1 << 4;
+    public static final int DELETED = 1 << 5;
+    public static final int ALL_FIELDS = NAME | DESCRIPTION | PRICE | AVAILABLE | CATEGORY;
+    
+    @Id
+    @ShardedId
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long menuItemId;
+    
+    @Column(nullable = false)
+    private Long restaurantId;
+    
+    @Column(nullable = false)
+    private Integer version;
+    
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+    
+    @Column(nullable = false)
+    private Integer changedFields;
+    
+    @Column(nullable = false)
+    private Boolean checkpoint;
+    
+    private String name;
+    
+    @Column(length = 1000)
+    private String description;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+    
+    private Boolean available;
+    
+    private String category;
+    
+    public boolean changes(int field) {
+        return (changedFields & field) != 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fooddelivery.restaurant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-snapshots")
+@Table(name = "menu_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuSnapshot {
+    
+    @Id
+    private Long restaurantId;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    // Gzipped JSON of the restaurant and its full menu
+    @Lob
+    @Column(nullable = false, length = 16777215)
+    private byte[] payload;
+    
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,54 @@
+package com.fooddelivery.restaurant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-stats")
+@Table(name = "menu_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuStats {
+    
+    @Id
+    private Long restaurantId;
+    
+    @Column(nullable = false)
+    private Integer itemCount = 0;
+    
+    // Follows the persisted available flag, so it trails in-memory toggles by one availability flush
+    @Column(nullable = false)
+    private Integer availableCount = 0;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal priceTotal = BigDecimal.ZERO;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal minPrice;
+    
+    @Column(precision = 10, scale = 2)
+    private BigDecimal maxPrice;
+    
+    // Item count per category
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, Integer> categoryCounts = new TreeMap<>();
+    
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,15 +1,20 @@
 package com.fooddelivery.restaurant.entity;
 
+import com.fooddelivery.restaurant.sharding.ShardedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "restaurants")
 @Table(name = "restaurants")
 @Data
 @NoArgsConstructor
@@ -17,7 +22,7 @@ import java.time.LocalDateTime;
 public class Restaurant {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedId
     private Long id;
     
     @Column(nullable = false)
@@ -32,6 +37,10 @@ public class Restaurant {
     @Column(nullable = false)
     private String phone;
     
+    // IANA zone id used for menu availability schedules; null on rows created before it existed means UTC
+    @Column(length = 64)
+    private String timeZone;
+    
     @Column(nullable = false)
     private Long ownerId;
     
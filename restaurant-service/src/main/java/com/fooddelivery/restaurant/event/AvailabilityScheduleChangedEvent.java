@@ -0,0 +1,7 @@
+package com.fooddelivery.restaurant.event;
+
+/**
+ * Published by AvailabilityScheduleService after a menu item's availability windows are replaced.
+ */
+public record AvailabilityScheduleChangedEvent(Long menuItemId) {
+}
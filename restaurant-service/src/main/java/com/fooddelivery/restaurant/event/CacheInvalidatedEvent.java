@@ -0,0 +1,16 @@
+package com.fooddelivery.restaurant.event;
+
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+
+import java.util.List;
+
+/**
+ * Published on every instance except the writer once another instance's writes show up in the
+ * invalidation log. Listeners drop whatever local state they hold for the listed entities.
+ */
+public record CacheInvalidatedEvent(List<CacheInvalidation> invalidations) {
+    
+    public boolean contains(CacheInvalidation.Type type) {
+        return invalidations.stream().anyMatch(invalidation -> invalidation.getType() == type);
+    }
+}
@@ -0,0 +1,9 @@
+package com.fooddelivery.restaurant.event;
+
+import java.util.Collection;
+
+/**
+ * Published after pending availability toggles have been written to menu_items.
+ */
+public record MenuAvailabilityFlushedEvent(Collection<Long> menuItemIds) {
+}
@@ -0,0 +1,7 @@
+package com.fooddelivery.restaurant.event;
+
+/**
+ * Published whenever a restaurant's menu snapshot is rebuilt or removed.
+ */
+public record MenuChangedEvent(Long restaurantId) {
+}
@@ -0,0 +1,7 @@
+package com.fooddelivery.restaurant.event;
+
+/**
+ * Published whenever a restaurant's menu statistics row is written.
+ */
+public record MenuStatsChangedEvent(Long restaurantId, int itemCount) {
+}
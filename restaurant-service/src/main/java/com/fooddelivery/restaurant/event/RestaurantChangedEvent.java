@@ -0,0 +1,7 @@
+package com.fooddelivery.restaurant.event;
+
+/**
+ * Published by RestaurantService after a restaurant is created, renamed, enabled, disabled or deleted.
+ */
+public record RestaurantChangedEvent(Long restaurantId, String name, Boolean active, boolean deleted) {
+}
@@ -0,0 +1,310 @@
+package com.fooddelivery.restaurant.history;
+
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.entity.MenuItemVersion;
+import com.fooddelivery.restaurant.repository.MenuItemVersionRepository;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Appends a version to menu_item_versions for every change to a menu item, holding only the
+ * fields that changed, plus a full checkpoint every {@link #CHECKPOINT_INTERVAL} versions.
+ * Versions are numbered per item while its menu_items row is locked, and the latest number is
+ * kept on the row, so concurrent writers on any instance never collide. Every method must run in
+ * the transaction that changes the item, on its shard.
+ */
+@Component
+public class MenuItemHistory {
+    
+    private static final Logger log = LoggerFactory.getLogger(MenuItemHistory.class);
+    
+    // Fixed rather than configurable: reads rely on it to bound the versions they fetch
+    public static final int CHECKPOINT_INTERVAL = 16;
+    
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+    private static final String ITEM_COLUMNS =
+        "id, restaurant_id, name, description, price, available, category, history_version";
+    
+    private final MenuItemVersionRepository versionRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    
+    public MenuItemHistory(MenuItemVersionRepository versionRepository,
+                           NamedParameterJdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ShardRouter shardRouter) {
+        this.versionRepository = versionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+    
+    /**
+     * Records a new item, whose history version must already be set to 1 when it was saved.
+     */
+    public void recordCreated(MenuItem menuItem) {
+        versionRepository.save(checkpoint(State.of(menuItem), menuItem.getId(), menuItem.getRestaurantId(),
+            menuItem.getHistoryVersion(), LocalDateTime.now()));
+    }
+    
+    /**
+     * Records the fields that differ from {@code previous} and moves the item to the new version.
+     * The item must have been loaded with {@code findForUpdate}.
+     */
+    public void recordUpdated(State previous, MenuItem menuItem) {
+        State current = State.of(menuItem);
+        int changedFields = current.diff(previous);
+        if (changedFields == 0) {
+            return;
+        }
+        int version = next(menuItem.getHistoryVersion());
+        versionRepository.save(isCheckpoint(version)
+            ? checkpoint(current, menuItem.getId(), menuItem.getRestaurantId(), version, LocalDateTime.now())
+            : delta(current, changedFields, menuItem.getId(), menuItem.getRestaurantId(), version, LocalDateTime.now()));
+        menuItem.setHistoryVersion(version);
+    }
+    
+    /**
+     * Records the deletion of an item loaded with {@code findForUpdate}.
+     */
+    public void recordDeleted(MenuItem menuItem) {
+        int version = next(menuItem.getHistoryVersion());
+        versionRepository.save(new MenuItemVersion(null, menuItem.getId(), menuItem.getRestaurantId(), version,
+            LocalDateTime.now(), MenuItemVersion.DELETED, isCheckpoint(version), null, null, null, null, null));
+    }
+    
+    /**
+     * Records an availability flush for items on the current shard: locks their rows, adds a
+     * version for each one whose flag actually changes and bumps its history version. The caller
+     * writes the flag itself in the same transaction.
+     */
+    public void recordAvailability(List<Long> menuItemIds, boolean available, LocalDateTime changedAt) {
+        List<MenuItemVersion> versions = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (LockedItem item : lock("id IN (:ids)", Map.of("ids", menuItemIds))) {
+            if (Objects.equals(item.state().available(), available)) {
+                continue;
+            }
+            int version = next(item.historyVersion());
+            State current = item.state().withAvailable(available);
+            versions.add(isCheckpoint(version)
+                ? checkpoint(current, item.id(), item.restaurantId(), version, changedAt)
+                : delta(current, MenuItemVersion.AVAILABLE, item.id(), item.restaurantId(), version, changedAt));
+            changed.add(item.id());
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        versionRepository.saveAll(versions);
+        jdbcTemplate.update("UPDATE menu_items SET history_version = COALESCE(history_version, 0) + 1 WHERE id IN (:ids)",
+            Map.of("ids", changed));
+    }
+    
+    /**
+     * Gives items that predate the history table a first checkpoint with their current state, so
+     * as-of reads cover them from their last change on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int total = shardRouter.fanOut(() -> {
+                int written = 0;
+                Integer chunk;
+                while ((chunk = transactionTemplate.execute(status -> backfillChunk())) != null && chunk > 0) {
+                    written += chunk;
+                }
+                return List.of(written);
+            }).stream().mapToInt(Integer::intValue).sum();
+            if (total > 0) {
+                log.info("Wrote first history checkpoints for {} menu items", total);
+            }
+        } catch (RuntimeException e) {
+            // Items without history get their first checkpoint on their next change or the next start
+            log.warn("Could not backfill menu item history", e);
+        }
+    }
+    
+    /**
+     * Replays versions ordered by item and version, each item starting at a checkpoint, up to
+     * {@code at}. Items deleted by then are left out; createdAt is not tracked and stays null.
+     */
+    public static List<MenuItemResponseDto> replay(List<MenuItemVersion> versions, LocalDateTime at) {
+        List<MenuItemResponseDto> menuItems = new ArrayList<>();
+        MenuItemResponseDto current = null;
+        Long currentId = null;
+        boolean stopped = false;
+        for (MenuItemVersion version : versions) {
+            if (!version.getMenuItemId().equals(currentId)) {
+                add(menuItems, current);
+                currentId = version.getMenuItemId();
+                current = null;
+                stopped = false;
+            }
+            if (stopped || version.getChangedAt().isAfter(at)) {
+                stopped = true;
+                continue;
+            }
+            current = apply(current, version);
+        }
+        add(menuItems, current);
+        return menuItems;
+    }
+    
+    private static MenuItemResponseDto apply(MenuItemResponseDto item, MenuItemVersion version) {
+        if (version.changes(MenuItemVersion.DELETED)) {
+            return null;
+        }
+        if (item == null) {
+            if (!version.getCheckpoint()) {
+                // Only reachable if versions are missing; nothing reliable to start from
+                return null;
+            }
+            item = new MenuItemResponseDto();
+            item.setId(version.getMenuItemId());
+            item.setRestaurantId(version.getRestaurantId());
+        }
+        if (version.changes(MenuItemVersion.NAME)) {
+            item.setName(version.getName());
+        }
+        if (version.changes(MenuItemVersion.DESCRIPTION)) {
+            item.setDescription(version.getDescription());
+        }
+        if (version.changes(MenuItemVersion.PRICE)) {
+            item.setPrice(version.getPrice());
+        }
+        if (version.changes(MenuItemVersion.AVAILABLE)) {
+            item.setAvailable(version.getAvailable());
+        }
+        if (version.changes(MenuItemVersion.CATEGORY)) {
+            item.setCategory(version.getCategory());
+        }
+        item.setUpdatedAt(version.getChangedAt());
+        return item;
+    }
+    
+    private static void add(List<MenuItemResponseDto> menuItems, MenuItemResponseDto item) {
+        if (item != null) {
+            menuItems.add(item);
+        }
+    }
+    
+    private Integer backfillChunk() {
+        List<LockedItem> items = lock("history_version IS NULL ORDER BY id LIMIT " + BACKFILL_CHUNK_SIZE, Map.of());
+        if (items.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(items.size());
+        List<MenuItemVersion> versions = new ArrayList<>(items.size());
+        for (LockedItem item : items) {
+            versions.add(checkpoint(item.state(), item.id(), item.restaurantId(), 1, item.lastChangedAt()));
+            ids.add(item.id());
+        }
+        versionRepository.saveAll(versions);
+        jdbcTemplate.update("UPDATE menu_items SET history_version = 1 WHERE id IN (:ids)", Map.of("ids", ids));
+        return items.size();
+    }
+    
+    private List<LockedItem> lock(String condition, Map<String, ?> parameters) {
+        return jdbcTemplate.query(
+            "SELECT " + ITEM_COLUMNS + ", updated_at, availability_changed_at FROM menu_items WHERE " + condition + " FOR UPDATE",
+            parameters,
+            (resultSet, row) -> {
+                Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+                Timestamp availabilityChangedAt = resultSet.getTimestamp("availability_changed_at");
+                LocalDateTime lastChangedAt = updatedAt.toLocalDateTime();
+                if (availabilityChangedAt != null && availabilityChangedAt.toLocalDateTime().isAfter(lastChangedAt)) {
+                    lastChangedAt = availabilityChangedAt.toLocalDateTime();
+                }
+                int historyVersion = resultSet.getInt("history_version");
+                boolean noHistory = resultSet.wasNull();
+                return new LockedItem(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("restaurant_id"),
+                    noHistory ? null : historyVersion,
+                    new State(resultSet.getString("name"), resultSet.getString("description"),
+                        resultSet.getBigDecimal("price"), resultSet.getBoolean("available"),
+                        resultSet.getString("category")),
+                    lastChangedAt);
+            });
+    }
+    
+    private static int next(Integer historyVersion) {
+        return historyVersion != null ? historyVersion + 1 : 1;
+    }
+    
+    private static boolean isCheckpoint(int version) {
+        return version % CHECKPOINT_INTERVAL == 1;
+    }
+    
+    private static MenuItemVersion checkpoint(State state, Long menuItemId, Long restaurantId, int version,
+                                              LocalDateTime changedAt) {
+        return delta(state, MenuItemVersion.ALL_FIELDS, menuItemId, restaurantId, version, changedAt);
+    }
+    
+    private static MenuItemVersion delta(State state, int changedFields, Long menuItemId, Long restaurantId,
+                                         int version, LocalDateTime changedAt) {
+        return new MenuItemVersion(null, menuItemId, restaurantId, version, changedAt, changedFields,
+            changedFields == MenuItemVersion.ALL_FIELDS,
+            (changedFields & MenuItemVersion.NAME) != 0 ? state.name() : null,
+            (changedFields & MenuItemVersion.DESCRIPTION) != 0 ? state.description() : null,
+            (changedFields & MenuItemVersion.PRICE) != 0 ? state.price() : null,
+            (changedFields & MenuItemVersion.AVAILABLE) != 0 ? state.available() : null,
+            (changedFields & MenuItemVersion.CATEGORY) != 0 ? state.category() : null);
+    }
+    
+    private record LockedItem(Long id, Long restaurantId, Integer historyVersion, State state,
+                              LocalDateTime lastChangedAt) {
+    }
+    
+    /**
+     * The tracked fields of a menu item at one point in time.
+     */
+    public record State(String name, String description, BigDecimal price, Boolean available, String category) {
+        
+        public static State of(MenuItem menuItem) {
+            return new State(menuItem.getName(), menuItem.getDescription(), menuItem.getPrice(),
+                menuItem.getAvailable(), menuItem.getCategory());
+        }
+        
+        State withAvailable(Boolean available) {
+            return new State(name, description, price, available, category);
+        }
+        
+        int diff(State other) {
+            int changed = 0;
+            if (!Objects.equals(name, other.name)) {
+                changed |= MenuItemVersion.NAME;
+            }
+            if (!Objects.equals(description, other.description)) {
+                changed |= MenuItemVersion.DESCRIPTION;
+            }
+            // compareTo so a price read back with a different scale does not count as a change
+            if (price == null || other.price == null ? price != other.price : price.compareTo(other.price) != 0) {
+                changed |= MenuItemVersion.PRICE;
+            }
+            if (!Objects.equals(available, other.available)) {
+                changed |= MenuItemVersion.AVAILABLE;
+            }
+            if (!Objects.equals(category, other.category)) {
+                changed |= MenuItemVersion.CATEGORY;
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.fooddelivery.restaurant.idempotency;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * This instance's executed, replayed, waited and rejected counts at /actuator/idempotency.
+ */
+@Component
+@Endpoint(id = "idempotency")
+public class IdempotencyEndpoint {
+    
+    private final IdempotencyFilter idempotencyFilter;
+    
+    public IdempotencyEndpoint(IdempotencyFilter idempotencyFilter) {
+        this.idempotencyFilter = idempotencyFilter;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> idempotency() {
+        return idempotencyFilter.stats();
+    }
+}
@@ -0,0 +1,280 @@
+package com.fooddelivery.restaurant.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.restaurant.exception.ErrorResponse;
+import com.fooddelivery.restaurant.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes retried writes safe for clients that send an Idempotency-Key header. The first response
+ * to a key is stored per user for the configured TTL in the shared {@link IdempotencyStore} and
+ * replayed to every retry with the same method, path and body, on any instance; reusing a key for
+ * a different request gets 422. A duplicate that arrives while the first attempt still runs polls
+ * the store until its response is there. Server errors are not stored, so a retry after a 5xx
+ * runs again.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MIN_POLL_MILLIS = 20;
+    private static final long MAX_POLL_MILLIS = 250;
+    
+    private final IdempotencyProperties properties;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    
+    public IdempotencyFilter(IdempotencyProperties properties, IdempotencyStore idempotencyStore,
+                             ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+            || !MUTATING_METHODS.contains(request.getMethod())
+            || request.getHeader(KEY_HEADER) == null
+            || !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            // Every write needs a user, so security rejects this one anyway
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String idempotencyKey = request.getHeader(KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(request, response, HttpStatus.BAD_REQUEST,
+                KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        
+        // The declared length can be absent (chunked) or wrong, so the read itself is capped
+        byte[] body = request.getContentLengthLong() > properties.getMaxRequestBytes()
+            ? null : readBody(request, properties.getMaxRequestBytes());
+        if (body == null) {
+            reject(request, response, HttpStatus.PAYLOAD_TOO_LARGE,
+                "Requests with an " + KEY_HEADER + " may have at most " + properties.getMaxRequestBytes() + " bytes of body");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        long userId = principal.getUserId();
+        byte[] fingerprint = fingerprint(cachedRequest);
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWaitTimeoutMs());
+        long pollMillis = MIN_POLL_MILLIS;
+        IdempotencyStore.Claim claim = idempotencyStore.claim(userId, idempotencyKey, fingerprint);
+        if (claim.outcome() == IdempotencyStore.Outcome.IN_PROGRESS) {
+            waited.increment();
+        }
+        while (claim.outcome() != IdempotencyStore.Outcome.CLAIMED) {
+            if (!MessageDigest.isEqual(claim.fingerprint(), fingerprint)) {
+                mismatched.increment();
+                reject(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    KEY_HEADER + " was already used for a different request");
+                return;
+            }
+            if (claim.outcome() == IdempotencyStore.Outcome.COMPLETED) {
+                replay(response, claim.response());
+                return;
+            }
+            // The first attempt is running, possibly on another instance; poll until it finishes
+            if (System.nanoTime() > deadline) {
+                timedOut.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                reject(request, response, HttpStatus.CONFLICT,
+                    "A request with this " + KEY_HEADER + " is still being processed");
+                return;
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+            claim = idempotencyStore.claim(userId, idempotencyKey, fingerprint);
+        }
+        
+        String token = claim.token();
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachingResponse);
+            executed.increment();
+            byte[] responseBody = cachingResponse.getContentAsByteArray();
+            if (cachingResponse.getStatus() < 500 && responseBody.length <= properties.getMaxResponseBytes()) {
+                idempotencyStore.complete(userId, idempotencyKey, token, new StoredResponse(fingerprint,
+                    cachingResponse.getStatus(), headers(cachingResponse), responseBody));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(userId, idempotencyKey, token);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("waitedForFirst", waited.sum());
+        stats.put("keyReusedForDifferentRequest", mismatched.sum());
+        stats.put("timedOut", timedOut.sum());
+        return stats;
+    }
+    
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        replayed.increment();
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> {
+            response.setHeader(name, values.get(0));
+            values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+        });
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+    
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            headers.put(name, new ArrayList<>(response.getHeaders(name)));
+        }
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        return headers;
+    }
+    
+    private static byte[] fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+            LocalDateTime.now(),
+            status.value(),
+            status.getReasonPhrase(),
+            message,
+            request.getRequestURI()
+        ));
+    }
+    
+    // Null when the body is longer than the limit; never buffers more than one byte past it
+    private static byte[] readBody(HttpServletRequest request, int limit) throws IOException {
+        byte[] body = request.getInputStream().readNBytes(limit + 1);
+        return body.length > limit ? null : body;
+    }
+    
+    // Reads the body once up front so it can be fingerprinted and still be read by the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+                
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
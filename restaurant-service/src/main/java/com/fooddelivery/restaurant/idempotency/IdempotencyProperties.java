@@ -0,0 +1,27 @@
+package com.fooddelivery.restaurant.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "restaurant.idempotency")
+public class IdempotencyProperties {
+    
+    private boolean enabled = true;
+    
+    // How long a stored response is replayed for the same key
+    private long ttlMs = 86400000;
+    
+    // Keyed requests with a larger body are rejected with 413, read or declared
+    private int maxRequestBytes = 1048576;
+    
+    // Larger responses are not stored, so a retry runs again
+    private int maxResponseBytes = 65536;
+    
+    // A duplicate waits this long for the first request before getting 409 with Retry-After;
+    // kept short because the wait holds a request thread
+    private long waitTimeoutMs = 1000;
+    
+    // A claim whose request has not finished after this long is treated as abandoned and taken over
+    private long claimTimeoutMs = 60000;
+}
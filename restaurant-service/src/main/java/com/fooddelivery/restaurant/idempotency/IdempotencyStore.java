@@ -0,0 +1,163 @@
+package com.fooddelivery.restaurant.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Idempotency keys in the idempotency_records table on shard 0, so a retry is deduplicated
+ * whichever instance it reaches. A request claims its key by inserting the row before it runs;
+ * the unique (user_id, idempotency_key) constraint lets exactly one attempt win. A claim left
+ * behind by an instance that died mid-request can be taken over after {@code claim-timeout-ms}.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    private static final TypeReference<Map<String, List<String>>> HEADERS_TYPE = new TypeReference<>() {
+    };
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    
+    public IdempotencyStore(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                            IdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+    
+    /**
+     * Claims the key for this attempt, or reports the response or claim already holding it.
+     */
+    Claim claim(long userId, String key, byte[] fingerprint) {
+        return ShardContext.callOn(0, () -> {
+            String token = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("key", key)
+                .addValue("fingerprint", fingerprint)
+                .addValue("token", token)
+                .addValue("now", now)
+                .addValue("expiresAt", now.plus(properties.getTtlMs(), ChronoUnit.MILLIS))
+                .addValue("staleBefore", now.minus(properties.getClaimTimeoutMs(), ChronoUnit.MILLIS));
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_records "
+                    + "(user_id, idempotency_key, fingerprint, claim_token, claimed_at, expires_at) "
+                    + "VALUES (:userId, :key, :fingerprint, :token, :now, :expiresAt)", params);
+                return Claim.claimed(token);
+            } catch (DuplicateKeyException e) {
+                // Held already; take it over only if it expired or its claim was abandoned
+                int taken = jdbcTemplate.update("UPDATE idempotency_records SET fingerprint = :fingerprint, "
+                    + "claim_token = :token, claimed_at = :now, expires_at = :expiresAt, status = NULL, "
+                    + "headers = NULL, body = NULL "
+                    + "WHERE user_id = :userId AND idempotency_key = :key "
+                    + "AND (expires_at < :now OR (status IS NULL AND claimed_at < :staleBefore))", params);
+                if (taken == 1) {
+                    return Claim.claimed(token);
+                }
+            }
+            List<Claim> existing = jdbcTemplate.query("SELECT fingerprint, status, headers, body "
+                    + "FROM idempotency_records WHERE user_id = :userId AND idempotency_key = :key", params,
+                (rs, rowNum) -> {
+                    int status = rs.getInt("status");
+                    if (rs.wasNull()) {
+                        return Claim.inProgress(rs.getBytes("fingerprint"));
+                    }
+                    return Claim.completed(new StoredResponse(rs.getBytes("fingerprint"), status,
+                        readHeaders(rs.getString("headers")), rs.getBytes("body")));
+                });
+            // Deleted between the insert and the read: the caller simply tries again
+            return existing.isEmpty() ? Claim.inProgress(fingerprint) : existing.get(0);
+        });
+    }
+    
+    void complete(long userId, String key, String token, StoredResponse response) {
+        ShardContext.runOn(0, () -> jdbcTemplate.update("UPDATE idempotency_records "
+                + "SET status = :status, headers = :headers, body = :body "
+                + "WHERE user_id = :userId AND idempotency_key = :key AND claim_token = :token",
+            new MapSqlParameterSource()
+                .addValue("status", response.status())
+                .addValue("headers", writeHeaders(response.headers()))
+                .addValue("body", response.body())
+                .addValue("userId", userId)
+                .addValue("key", key)
+                .addValue("token", token)));
+    }
+    
+    /**
+     * Gives the key up so a retry runs again, for responses that are not kept.
+     */
+    void release(long userId, String key, String token) {
+        ShardContext.runOn(0, () -> jdbcTemplate.update("DELETE FROM idempotency_records "
+                + "WHERE user_id = :userId AND idempotency_key = :key AND claim_token = :token",
+            Map.of("userId", userId, "key", key, "token", token)));
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.idempotency.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            ShardContext.runOn(0, () -> jdbcTemplate.update("DELETE FROM idempotency_records WHERE expires_at < :now",
+                Map.of("now", LocalDateTime.now())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete expired idempotency keys", e);
+        }
+    }
+    
+    private String writeHeaders(Map<String, List<String>> headers) {
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private Map<String, List<String>> readHeaders(String headers) {
+        try {
+            return headers != null ? objectMapper.readValue(headers, HEADERS_TYPE) : Map.of();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    enum Outcome {
+        CLAIMED,
+        COMPLETED,
+        IN_PROGRESS
+    }
+    
+    record Claim(Outcome outcome, String token, byte[] fingerprint, StoredResponse response) {
+        
+        static Claim claimed(String token) {
+            return new Claim(Outcome.CLAIMED, token, null, null);
+        }
+        
+        static Claim completed(StoredResponse response) {
+            return new Claim(Outcome.COMPLETED, null, response.fingerprint(), response);
+        }
+        
+        static Claim inProgress(byte[] fingerprint) {
+            return new Claim(Outcome.IN_PROGRESS, null, fingerprint, null);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.fooddelivery.restaurant.idempotency;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The first response to an idempotent request, replayed for retries that carry the same key.
+ */
+record StoredResponse(byte[] fingerprint, int status, Map<String, List<String>> headers, byte[] body) {
+}
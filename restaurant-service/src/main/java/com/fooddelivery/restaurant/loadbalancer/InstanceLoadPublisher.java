@@ -0,0 +1,71 @@
+package com.fooddelivery.restaurant.loadbalancer;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Publishes this instance's load into its Eureka metadata so callers can weight their choice.
+ */
+@Component
+public class InstanceLoadPublisher {
+    
+    public static final String IN_FLIGHT = "load.in-flight";
+    public static final String P99_MILLIS = "load.p99-ms";
+    public static final String CACHE_WARMTH = "load.cache-warmth";
+    
+    private final InstanceLoadTracker loadTracker;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final Statistics statistics;
+    
+    private long lastHits;
+    private long lastMisses;
+    private double cacheWarmth;
+    
+    public InstanceLoadPublisher(InstanceLoadTracker loadTracker,
+                                 ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+                                 EntityManagerFactory entityManagerFactory) {
+        this.loadTracker = loadTracker;
+        this.applicationInfoManager = applicationInfoManager;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.load-metadata.publish-interval-ms:5000}")
+    public void publish() {
+        ApplicationInfoManager infoManager = applicationInfoManager.getIfAvailable();
+        if (infoManager == null) {
+            return;
+        }
+        infoManager.registerAppMetadata(Map.of(
+            IN_FLIGHT, String.valueOf(loadTracker.getInFlight()),
+            P99_MILLIS, format(loadTracker.getLatencyPercentileMillis(0.99)),
+            CACHE_WARMTH, format(sampleCacheWarmth())
+        ));
+    }
+    
+    /**
+     * Second-level cache hit ratio since the previous publish; an idle interval keeps the last value.
+     */
+    private synchronized double sampleCacheWarmth() {
+        long hits = statistics.getSecondLevelCacheHitCount() + statistics.getQueryCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount() + statistics.getQueryCacheMissCount();
+        long lookups = (hits - lastHits) + (misses - lastMisses);
+        if (lookups > 0) {
+            cacheWarmth = (double) (hits - lastHits) / lookups;
+        }
+        lastHits = hits;
+        lastMisses = misses;
+        return cacheWarmth;
+    }
+    
+    private String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fooddelivery.restaurant.loadbalancer;
+
+import com.fooddelivery.restaurant.util.LatencySamples;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks in-flight API requests and keeps a ring of recent latencies for percentile estimates.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InstanceLoadTracker extends OncePerRequestFilter {
+    
+    private static final int SAMPLE_CAPACITY = 2048;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LatencySamples latencySamples = new LatencySamples(SAMPLE_CAPACITY);
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+            latencySamples.record(System.nanoTime() - start);
+        }
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public double getLatencyPercentileMillis(double percentile) {
+        return latencySamples.percentile(percentile, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,23 @@
+package com.fooddelivery.restaurant.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-client load balancer configuration. Deliberately not a @Configuration so component
+ * scanning does not register it in the main context; it is applied via @LoadBalancerClients.
+ */
+public class LoadAwareLoadBalancerConfiguration {
+    
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> loadAwareServiceInstanceChooser(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LoadAwareServiceInstanceChooser(
+            loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class));
+    }
+}
@@ -0,0 +1,95 @@
+package com.fooddelivery.restaurant.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance at random, weighted by the load each instance publishes in its metadata:
+ * fewer in-flight requests, lower p99 latency and a warmer cache all raise the weight.
+ * Instances that have not published load yet get the average weight of the others.
+ */
+public class LoadAwareServiceInstanceChooser implements ReactorServiceInstanceLoadBalancer {
+    
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier;
+    
+    public LoadAwareServiceInstanceChooser(ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier) {
+        this.instanceListSupplier = instanceListSupplier;
+    }
+    
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplier.getIfAvailable();
+        if (supplier == null) {
+            return Mono.just(new EmptyResponse());
+        }
+        return supplier.get(request).next().map(this::choose);
+    }
+    
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        
+        double[] weights = new double[instances.size()];
+        double knownTotal = 0;
+        int knownCount = 0;
+        for (int i = 0; i < instances.size(); i++) {
+            weights[i] = weight(instances.get(i).getMetadata());
+            if (weights[i] > 0) {
+                knownTotal += weights[i];
+                knownCount++;
+            }
+        }
+        double fallback = knownCount == 0 ? 1.0 : knownTotal / knownCount;
+        
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] <= 0) {
+                weights[i] = fallback;
+            }
+            total += weights[i];
+        }
+        
+        double target = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return new DefaultResponse(instances.get(i));
+            }
+        }
+        return new DefaultResponse(instances.get(instances.size() - 1));
+    }
+    
+    private double weight(Map<String, String> metadata) {
+        Double inFlight = parse(metadata.get(InstanceLoadPublisher.IN_FLIGHT));
+        Double p99Millis = parse(metadata.get(InstanceLoadPublisher.P99_MILLIS));
+        if (inFlight == null || p99Millis == null) {
+            return 0;
+        }
+        Double warmth = parse(metadata.get(InstanceLoadPublisher.CACHE_WARMTH));
+        double warmthFactor = 0.5 + (warmth == null ? 0.5 : warmth);
+        return warmthFactor / ((inFlight + 1) * Math.max(p99Millis, 1.0));
+    }
+    
+    private Double parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
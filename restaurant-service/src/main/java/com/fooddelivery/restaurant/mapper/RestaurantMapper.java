@@ -14,6 +14,7 @@ public class RestaurantMapper {
         restaurant.setDescription(dto.getDescription());
         restaurant.setAddress(dto.getAddress());
         restaurant.setPhone(dto.getPhone());
+        restaurant.setTimeZone(dto.getTimeZone() != null ? dto.getTimeZone() : "UTC");
         return restaurant;
     }
     
@@ -24,10 +25,12 @@ public class RestaurantMapper {
             restaurant.getDescription(),
             restaurant.getAddress(),
             restaurant.getPhone(),
+            restaurant.getTimeZone() != null ? restaurant.getTimeZone() : "UTC",
             restaurant.getOwnerId(),
             restaurant.getActive(),
             restaurant.getCreatedAt(),
-            restaurant.getUpdatedAt()
+            restaurant.getUpdatedAt(),
+            null
         );
     }
     
@@ -36,5 +39,8 @@ public class RestaurantMapper {
         restaurant.setDescription(dto.getDescription());
         restaurant.setAddress(dto.getAddress());
         restaurant.setPhone(dto.getPhone());
+        if (dto.getTimeZone() != null) {
+            restaurant.setTimeZone(dto.getTimeZone());
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.fooddelivery.restaurant.reactive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only R2DBC view of the menu_items table; writes go through the JPA entity.
+ */
+@Table("menu_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemRow {
+    
+    @Id
+    private Long id;
+    private Long restaurantId;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Boolean available;
+    private String category;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,13 @@
+package com.fooddelivery.restaurant.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveMenuItemRepository extends R2dbcRepository<MenuItemRow, Long> {
+    
+    Flux<MenuItemRow> findByRestaurantId(Long restaurantId);
+    
+    Flux<MenuItemRow> findByRestaurantIdAndAvailableTrue(Long restaurantId);
+}
@@ -0,0 +1,130 @@
+package com.fooddelivery.restaurant.reactive;
+
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantResponseDto;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import com.fooddelivery.restaurant.sharding.ShardRoutingConnectionFactory;
+import com.fooddelivery.restaurant.trending.TrendingTracker;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Serves the public GET endpoints of RestaurantController and MenuItemController without
+ * blocking a thread per request. Responses match the servlet endpoints field for field.
+ */
+public class ReactiveReadHandler {
+    
+    private final ReactiveRestaurantRepository restaurantRepository;
+    private final ReactiveMenuItemRepository menuItemRepository;
+    private final MenuItemAvailabilityStore availabilityStore;
+    private final ShardRouter shardRouter;
+    private final TrendingTracker trendingTracker;
+    
+    public ReactiveReadHandler(ReactiveRestaurantRepository restaurantRepository,
+                               ReactiveMenuItemRepository menuItemRepository,
+                               MenuItemAvailabilityStore availabilityStore,
+                               ShardRouter shardRouter,
+                               TrendingTracker trendingTracker) {
+        this.restaurantRepository = restaurantRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.availabilityStore = availabilityStore;
+        this.shardRouter = shardRouter;
+        this.trendingTracker = trendingTracker;
+    }
+    
+    public Mono<ServerResponse> getRestaurantById(ServerRequest request) {
+        Long id = pathId(request, "id");
+        return findRestaurant(id).flatMap(restaurant -> ServerResponse.ok().bodyValue(toDto(restaurant)));
+    }
+    
+    public Mono<ServerResponse> getAllRestaurants(ServerRequest request) {
+        Flux<RestaurantResponseDto> restaurants = fanOut(shard -> restaurantRepository.findAll())
+            .sort(Comparator.comparing(RestaurantRow::getId))
+            .map(this::toDto);
+        return ServerResponse.ok().body(restaurants, RestaurantResponseDto.class);
+    }
+    
+    public Mono<ServerResponse> getRestaurantsByOwner(ServerRequest request) {
+        Long ownerId = pathId(request, "ownerId");
+        Flux<RestaurantResponseDto> restaurants = fanOut(shard -> restaurantRepository.findByOwnerId(ownerId))
+            .sort(Comparator.comparing(RestaurantRow::getId))
+            .map(this::toDto);
+        return ServerResponse.ok().body(restaurants, RestaurantResponseDto.class);
+    }
+    
+    public Mono<ServerResponse> getMenuItemsByRestaurant(ServerRequest request) {
+        Long restaurantId = pathId(request, "restaurantId");
+        Flux<MenuItemResponseDto> menuItems = menuItemRepository.findByRestaurantId(restaurantId)
+            .contextWrite(ShardRoutingConnectionFactory.on(shardRouter.shardOf(restaurantId)))
+            .sort(Comparator.comparing(MenuItemRow::getId))
+            .map(this::toDto);
+        // Resolve the restaurant before committing to a 200 so a missing one still becomes a 404
+        return findRestaurant(restaurantId)
+            .flatMap(restaurant -> ServerResponse.ok().body(menuItems, MenuItemResponseDto.class));
+    }
+    
+    public Mono<ServerResponse> getMenuItemById(ServerRequest request) {
+        Long menuId = pathId(request, "menuId");
+        return menuItemRepository.findById(menuId)
+            .contextWrite(ShardRoutingConnectionFactory.on(shardRouter.shardOf(menuId)))
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId)))
+            .doOnNext(menuItem -> trendingTracker.recordView(menuItem.getRestaurantId(), menuItem.getId()))
+            .flatMap(menuItem -> ServerResponse.ok().bodyValue(toDto(menuItem)));
+    }
+    
+    private Mono<RestaurantRow> findRestaurant(Long id) {
+        return restaurantRepository.findById(id)
+            .contextWrite(ShardRoutingConnectionFactory.on(shardRouter.shardOf(id)))
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Restaurant not found with id: " + id)));
+    }
+    
+    private <T> Flux<T> fanOut(Function<Integer, Flux<T>> query) {
+        return Flux.range(0, shardRouter.shardCount())
+            .flatMap(shard -> query.apply(shard).contextWrite(ShardRoutingConnectionFactory.on(shard)));
+    }
+    
+    private static Long pathId(ServerRequest request, String name) {
+        try {
+            return Long.valueOf(request.pathVariable(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + request.pathVariable(name));
+        }
+    }
+    
+    private RestaurantResponseDto toDto(RestaurantRow restaurant) {
+        return new RestaurantResponseDto(
+            restaurant.getId(),
+            restaurant.getName(),
+            restaurant.getDescription(),
+            restaurant.getAddress(),
+            restaurant.getPhone(),
+            restaurant.getTimeZone() != null ? restaurant.getTimeZone() : "UTC",
+            restaurant.getOwnerId(),
+            restaurant.getActive(),
+            restaurant.getCreatedAt(),
+            restaurant.getUpdatedAt(),
+            null
+        );
+    }
+    
+    private MenuItemResponseDto toDto(MenuItemRow menuItem) {
+        return new MenuItemResponseDto(
+            menuItem.getId(),
+            menuItem.getRestaurantId(),
+            menuItem.getName(),
+            menuItem.getDescription(),
+            menuItem.getPrice(),
+            availabilityStore.resolve(menuItem.getId(), menuItem.getAvailable()),
+            menuItem.getCategory(),
+            menuItem.getCreatedAt(),
+            menuItem.getUpdatedAt()
+        );
+    }
+}
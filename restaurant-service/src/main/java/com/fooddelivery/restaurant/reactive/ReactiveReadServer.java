@@ -0,0 +1,48 @@
+package com.fooddelivery.restaurant.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * Runs the reactive read routes on their own Netty event loop and port, next to the servlet
+ * container that keeps serving writes and authenticated requests.
+ */
+public class ReactiveReadServer implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadServer.class);
+    
+    private final WebServer webServer;
+    private volatile boolean running;
+    
+    public ReactiveReadServer(HttpHandler httpHandler, int port) {
+        this.webServer = new NettyReactiveWebServerFactory(port).getWebServer(httpHandler);
+    }
+    
+    @Override
+    public void start() {
+        webServer.start();
+        running = true;
+        log.info("Reactive read path listening on port {}", webServer.getPort());
+    }
+    
+    @Override
+    public void stop() {
+        webServer.stop();
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        // Same phase as the servlet container, so both accept and stop traffic together
+        return Integer.MAX_VALUE - 1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.fooddelivery.restaurant.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveRestaurantRepository extends R2dbcRepository<RestaurantRow, Long> {
+    
+    Flux<RestaurantRow> findByOwnerId(Long ownerId);
+    
+    Flux<RestaurantRow> findByActiveTrue();
+}
@@ -0,0 +1,31 @@
+package com.fooddelivery.restaurant.reactive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only R2DBC view of the restaurants table; writes go through the JPA entity.
+ */
+@Table("restaurants")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantRow {
+    
+    @Id
+    private Long id;
+    private String name;
+    private String description;
+    private String address;
+    private String phone;
+    private String timeZone;
+    private Long ownerId;
+    private Boolean active;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.fooddelivery.restaurant.repository;
+
+import com.fooddelivery.restaurant.entity.MenuItemAvailabilityWindow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MenuItemAvailabilityWindowRepository extends JpaRepository<MenuItemAvailabilityWindow, Long> {
+    
+    List<MenuItemAvailabilityWindow> findByMenuItemIdOrderByIdAsc(Long menuItemId);
+    
+    @Modifying
+    @Query("DELETE FROM MenuItemAvailabilityWindow w WHERE w.menuItemId = :menuItemId")
+    int deleteByMenuItemId(@Param("menuItemId") Long menuItemId);
+    
+    @Modifying
+    @Query("DELETE FROM MenuItemAvailabilityWindow w WHERE w.restaurantId = :restaurantId")
+    int deleteByRestaurantId(@Param("restaurantId") Long restaurantId);
+}
@@ -1,15 +1,81 @@
 package com.fooddelivery.restaurant.repository;
 
 import com.fooddelivery.restaurant.entity.MenuItem;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
+public interface MenuItemRepository extends JpaRepository<MenuItem, Long>, JpaSpecificationExecutor<MenuItem> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<MenuItem> findByRestaurantId(Long restaurantId);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<MenuItem> findByRestaurantIdAndAvailableTrue(Long restaurantId);
+    
+    // Not query-cached: the id lists vary per caller, so entries would rarely be reused
+    List<MenuItem> findByRestaurantIdInOrderByIdAsc(Collection<Long> restaurantIds);
+    
+    // At most :limit items per restaurant, its lowest ids first, numbered in the database so
+    // large menus are never loaded only to be cut down
+    @Query(nativeQuery = true, value = "SELECT m.* FROM menu_items m JOIN ("
+         + "SELECT i.id, ROW_NUMBER() OVER (PARTITION BY i.restaurant_id ORDER BY i.id) AS position "
+         + "FROM menu_items i WHERE i.restaurant_id IN (:restaurantIds)"
+         + ") ranked ON ranked.id = m.id WHERE ranked.position <= :limit ORDER BY m.id")
+    List<MenuItem> findFirstPerRestaurant(@Param("restaurantIds") Collection<Long> restaurantIds,
+                                          @Param("limit") int limit);
+    
+    // The same for available items, where the given ids override the stored flag either way
+    @Query(nativeQuery = true, value = "SELECT m.* FROM menu_items m JOIN ("
+         + "SELECT i.id, ROW_NUMBER() OVER (PARTITION BY i.restaurant_id ORDER BY i.id) AS position "
+         + "FROM menu_items i WHERE i.restaurant_id IN (:restaurantIds) "
+         + "AND ((i.available = TRUE AND i.id NOT IN (:unavailableIds)) OR i.id IN (:availableIds))"
+         + ") ranked ON ranked.id = m.id WHERE ranked.position <= :limit ORDER BY m.id")
+    List<MenuItem> findFirstAvailablePerRestaurant(@Param("restaurantIds") Collection<Long> restaurantIds,
+                                                   @Param("availableIds") Collection<Long> availableIds,
+                                                   @Param("unavailableIds") Collection<Long> unavailableIds,
+                                                   @Param("limit") int limit);
+    
+    long countByRestaurantIdAndAvailableTrue(Long restaurantId);
+    
+    @Query("SELECT COUNT(m) AS itemCount, SUM(m.price) AS priceTotal, MIN(m.price) AS minPrice, MAX(m.price) AS maxPrice "
+         + "FROM MenuItem m WHERE m.restaurantId = :restaurantId")
+    PriceSummary summarizePrices(@Param("restaurantId") Long restaurantId);
+    
+    @Query("SELECT m.category AS category, COUNT(m) AS itemCount FROM MenuItem m "
+         + "WHERE m.restaurantId = :restaurantId GROUP BY m.category")
+    List<CategoryCount> countByCategory(@Param("restaurantId") Long restaurantId);
+    
+    // Serializes writers of one item, which keeps its history versions gap-free and unique
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MenuItem m WHERE m.id = :id")
+    Optional<MenuItem> findForUpdate(@Param("id") Long id);
+    
+    @Query("SELECT DISTINCT m.restaurantId FROM MenuItem m WHERE m.id IN :ids")
+    List<Long> findDistinctRestaurantIdsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    interface PriceSummary {
+        Long getItemCount();
+        BigDecimal getPriceTotal();
+        BigDecimal getMinPrice();
+        BigDecimal getMaxPrice();
+    }
+    
+    interface CategoryCount {
+        String getCategory();
+        Long getItemCount();
+    }
 }
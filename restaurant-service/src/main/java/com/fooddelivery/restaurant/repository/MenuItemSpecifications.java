@@ -0,0 +1,55 @@
+package com.fooddelivery.restaurant.repository;
+
+import com.fooddelivery.restaurant.dto.MenuItemQueryDto;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds menu item filters that stay on the (restaurant_id, ...) indexes: every predicate is
+ * anchored on the restaurant and the remaining ones are simple equality or range comparisons.
+ */
+public final class MenuItemSpecifications {
+    
+    private MenuItemSpecifications() {
+    }
+    
+    /**
+     * Overrides are the restaurant's items whose current availability the database does not hold
+     * yet; the availability filter is corrected for them by id.
+     */
+    public static Specification<MenuItem> matching(Long restaurantId, MenuItemQueryDto query, Map<Long, Boolean> overrides) {
+        Specification<MenuItem> specification = (root, cq, cb) -> cb.equal(root.get("restaurantId"), restaurantId);
+        if (query.getCategory() != null) {
+            specification = specification.and((root, cq, cb) -> cb.equal(root.get("category"), query.getCategory()));
+        }
+        if (query.getAvailable() != null) {
+            specification = specification.and(availableIs(query.getAvailable(), overrides));
+        }
+        if (query.getMinPrice() != null) {
+            specification = specification.and((root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("price"), query.getMinPrice()));
+        }
+        if (query.getMaxPrice() != null) {
+            specification = specification.and((root, cq, cb) -> cb.lessThanOrEqualTo(root.get("price"), query.getMaxPrice()));
+        }
+        return specification;
+    }
+    
+    public static Specification<MenuItem> availableIs(boolean available, Map<Long, Boolean> overrides) {
+        List<Long> overriddenTo = new ArrayList<>();
+        List<Long> overriddenAway = new ArrayList<>();
+        overrides.forEach((menuItemId, value) -> (value == available ? overriddenTo : overriddenAway).add(menuItemId));
+        
+        return (root, cq, cb) -> {
+            Predicate persisted = cb.equal(root.get("available"), available);
+            if (!overriddenAway.isEmpty()) {
+                persisted = cb.and(persisted, cb.not(root.get("id").in(overriddenAway)));
+            }
+            return overriddenTo.isEmpty() ? persisted : cb.or(persisted, root.get("id").in(overriddenTo));
+        };
+    }
+}
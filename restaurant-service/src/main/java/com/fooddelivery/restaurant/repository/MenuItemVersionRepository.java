@@ -0,0 +1,38 @@
+package com.fooddelivery.restaurant.repository;
+
+import com.fooddelivery.restaurant.entity.MenuItemVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MenuItemVersionRepository extends JpaRepository<MenuItemVersion, Long> {
+    
+    List<MenuItemVersion> findByMenuItemIdOrderByVersionDesc(Long menuItemId, Pageable pageable);
+    
+    Optional<MenuItemVersion> findFirstByMenuItemIdAndCheckpointTrueAndChangedAtLessThanEqualOrderByVersionDesc(
+        Long menuItemId, LocalDateTime at);
+    
+    List<MenuItemVersion> findByMenuItemIdAndVersionBetweenOrderByVersionAsc(Long menuItemId, int from, int to);
+    
+    /**
+     * For every item of the restaurant, its latest checkpoint at or before {@code at} and the
+     * versions up to the next checkpoint, ordered by item and version.
+     */
+    @Query(value = "SELECT v.* FROM menu_item_versions v "
+                 + "JOIN (SELECT menu_item_id, MAX(version) AS base FROM menu_item_versions "
+                 + "      WHERE restaurant_id = :restaurantId AND checkpoint = TRUE AND changed_at <= :at "
+                 + "      GROUP BY menu_item_id) c "
+                 + "ON v.menu_item_id = c.menu_item_id AND v.version >= c.base AND v.version < c.base + :interval "
+                 + "ORDER BY v.menu_item_id, v.version",
+           nativeQuery = true)
+    List<MenuItemVersion> findFromCheckpoints(@Param("restaurantId") Long restaurantId,
+                                              @Param("at") LocalDateTime at,
+                                              @Param("interval") int interval);
+}
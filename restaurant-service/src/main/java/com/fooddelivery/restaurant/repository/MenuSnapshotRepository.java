@@ -0,0 +1,19 @@
+package com.fooddelivery.restaurant.repository;
+
+import com.fooddelivery.restaurant.entity.MenuSnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MenuSnapshotRepository extends JpaRepository<MenuSnapshot, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MenuSnapshot s WHERE s.restaurantId = :restaurantId")
+    Optional<MenuSnapshot> findForUpdate(@Param("restaurantId") Long restaurantId);
+}
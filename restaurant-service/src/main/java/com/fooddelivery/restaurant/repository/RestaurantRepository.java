@@ -9,6 +9,7 @@ import java.util.List;
 @Repository
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
     
+    // Not query-cached: these run on every shard and the cache key does not include the shard
     List<Restaurant> findByOwnerId(Long ownerId);
     
     List<Restaurant> findByActiveTrue();
@@ -0,0 +1,455 @@
+package com.fooddelivery.restaurant.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compressed (radix) trie from name tokens to restaurants. Every node caches the best score in
+ * its subtree and keeps its own postings in rank order, so a top-k lookup visits nodes and
+ * postings best-first and stops after k hits instead of collecting the whole subtree under a
+ * short prefix. Not thread-safe; callers guard it.
+ */
+class PrefixIndex {
+    
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_POSTINGS = new Entry[0];
+    // Bounds the work for multi-word queries whose words rarely occur together; typeahead would
+    // rather return fewer suggestions than stall
+    private static final int MAX_EXAMINED = 1_000;
+    
+    private static final Comparator<Entry> RANK = Comparator
+        .comparingInt((Entry entry) -> entry.score).reversed()
+        .thenComparing(entry -> entry.name)
+        .thenComparingLong(entry -> entry.id);
+    
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+        .comparingInt(Candidate::score).reversed()
+        // At equal scores emit postings before expanding nodes, otherwise a tie at the top score
+        // would expand every node sharing it before the first hit
+        .thenComparing(candidate -> candidate.posting() < 0)
+        .thenComparing((left, right) -> left.posting() >= 0 && right.posting() >= 0 ? RANK.compare(left.entry(), right.entry()) : 0);
+    
+    static final class Entry {
+        final long id;
+        final String name;
+        final String[] tokens;
+        final boolean active;
+        final int score;
+        
+        Entry(long id, String name, boolean active, int score) {
+            this.id = id;
+            this.name = name;
+            this.tokens = tokenize(name);
+            this.active = active;
+            this.score = score;
+        }
+    }
+    
+    private static final class Node {
+        char[] label;
+        Node[] children = NO_CHILDREN;
+        Entry[] postings = NO_POSTINGS;
+        int maxScore = -1;
+        int maxActiveScore = -1;
+        int postingCount;
+        
+        Node(char[] label) {
+            this.label = label;
+        }
+    }
+    
+    /**
+     * Either a node to expand ({@code posting} is -1) or a cursor at one of the node's postings.
+     */
+    private record Candidate(int score, Node node, int posting) {
+        
+        Entry entry() {
+            return node.postings[posting];
+        }
+    }
+    
+    private final Node root = new Node(new char[0]);
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private int nodeCount = 1;
+    
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+    
+    void put(long id, String name, boolean active, int score) {
+        // Postings are ordered by score and name, so any change means taking the entry out first
+        remove(id);
+        Entry entry = new Entry(id, name, active, score);
+        entries.put(id, entry);
+        for (String token : entry.tokens) {
+            insert(token, entry);
+        }
+    }
+    
+    void updateScore(long id, int score) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.score != score) {
+            put(id, entry.name, entry.active, score);
+        }
+    }
+    
+    void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String token : entry.tokens) {
+            removeToken(token, entry);
+        }
+    }
+    
+    Entry get(long id) {
+        return entries.get(id);
+    }
+    
+    /**
+     * Returns the best entries whose name has, for every query token, a token starting with it.
+     */
+    List<Entry> search(String query, int limit, boolean activeOnly) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0) {
+            return List.of();
+        }
+        // Walk the subtree of the rarest query token and check the others against each candidate
+        Node start = null;
+        int driver = -1;
+        for (int i = 0; i < queryTokens.length; i++) {
+            Node node = findPrefixNode(queryTokens[i]);
+            if (node == null || score(node, activeOnly) < 0) {
+                return List.of();
+            }
+            if (start == null || node.postingCount < start.postingCount) {
+                start = node;
+                driver = i;
+            }
+        }
+        
+        String[] otherTokens = new String[queryTokens.length - 1];
+        System.arraycopy(queryTokens, 0, otherTokens, 0, driver);
+        System.arraycopy(queryTokens, driver + 1, otherTokens, driver, otherTokens.length - driver);
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(new Candidate(score(start, activeOnly), start, -1));
+        
+        List<Entry> results = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        int examined = 0;
+        while (!queue.isEmpty() && results.size() < limit && examined++ < MAX_EXAMINED) {
+            Candidate candidate = queue.poll();
+            Node node = candidate.node();
+            if (candidate.posting() >= 0) {
+                Entry entry = candidate.entry();
+                if (seen.add(entry.id) && matchesAll(entry, otherTokens)) {
+                    results.add(entry);
+                }
+                offerPosting(queue, node, candidate.posting() + 1, activeOnly);
+                continue;
+            }
+            offerPosting(queue, node, 0, activeOnly);
+            for (Node child : node.children) {
+                int childScore = score(child, activeOnly);
+                if (childScore >= 0) {
+                    queue.add(new Candidate(childScore, child, -1));
+                }
+            }
+        }
+        return results;
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    int nodeCount() {
+        return nodeCount;
+    }
+    
+    /**
+     * Approximate retained size assuming a 64-bit JVM with compressed oops.
+     */
+    long estimateBytes() {
+        long bytes = 0;
+        List<Node> pending = new ArrayList<>(List.of(root));
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            bytes += align(12 + 3 * 4 + 3 * 4);
+            bytes += align(16 + 2L * node.label.length);
+            bytes += node.children.length > 0 ? align(16 + 4L * node.children.length) : 0;
+            bytes += node.postings.length > 0 ? align(16 + 4L * node.postings.length) : 0;
+            pending.addAll(Arrays.asList(node.children));
+        }
+        for (Entry entry : entries.values()) {
+            // Entry object, its map node and boxed key, name string and token strings
+            bytes += align(12 + 8 + 2 * 4 + 1 + 4) + 32 + 16;
+            bytes += align(24) + align(16 + entry.name.length());
+            bytes += align(16 + 4L * entry.tokens.length);
+            for (String token : entry.tokens) {
+                bytes += align(24) + align(16 + token.length());
+            }
+        }
+        return bytes;
+    }
+    
+    private void insert(String token, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int position = 0;
+        while (position < token.length()) {
+            int index = childIndex(node, token.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(token.substring(position).toCharArray());
+                addChild(node, leaf);
+                nodeCount++;
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, token, position);
+            if (common < child.label.length) {
+                // Split the edge; the shared part keeps the child's first character, so sibling order holds
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[] {child};
+                middle.maxScore = child.maxScore;
+                middle.maxActiveScore = child.maxActiveScore;
+                middle.postingCount = child.postingCount;
+                node.children[index] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+        int slot = Arrays.binarySearch(node.postings, entry, RANK);
+        if (slot < 0) {
+            slot = -slot - 1;
+            Entry[] postings = new Entry[node.postings.length + 1];
+            System.arraycopy(node.postings, 0, postings, 0, slot);
+            postings[slot] = entry;
+            System.arraycopy(node.postings, slot, postings, slot + 1, node.postings.length - slot);
+            node.postings = postings;
+        }
+        refresh(path);
+    }
+    
+    private void removeToken(String token, Entry entry) {
+        List<Node> path = findPath(token);
+        if (path == null) {
+            return;
+        }
+        Node terminal = path.get(path.size() - 1);
+        int position = Arrays.binarySearch(terminal.postings, entry, RANK);
+        if (position >= 0) {
+            Entry[] postings = new Entry[terminal.postings.length - 1];
+            System.arraycopy(terminal.postings, 0, postings, 0, position);
+            System.arraycopy(terminal.postings, position + 1, postings, position, postings.length - position);
+            terminal.postings = postings.length == 0 ? NO_POSTINGS : postings;
+        }
+        
+        for (int level = path.size() - 1; level > 0; level--) {
+            Node current = path.get(level);
+            Node parent = path.get(level - 1);
+            if (current.postings.length == 0 && current.children.length == 0) {
+                removeChild(parent, current);
+                nodeCount--;
+                continue;
+            }
+            if (current.postings.length == 0 && current.children.length == 1) {
+                // Fold a pass-through node into its only child to keep the trie compressed
+                Node only = current.children[0];
+                char[] label = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                System.arraycopy(only.label, 0, label, current.label.length, only.label.length);
+                current.label = label;
+                current.children = only.children;
+                current.postings = only.postings;
+                nodeCount--;
+            }
+            recompute(current);
+        }
+        recompute(root);
+    }
+    
+    private List<Node> findPath(String token) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int position = 0;
+        while (position < token.length()) {
+            int index = childIndex(node, token.charAt(position));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            if (commonPrefix(child.label, token, position) < child.label.length) {
+                return null;
+            }
+            node = child;
+            path.add(node);
+            position += child.label.length;
+        }
+        return path;
+    }
+    
+    private Node findPrefixNode(String prefix) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(position));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, position);
+            if (position + common == prefix.length()) {
+                // The prefix may end in the middle of an edge; everything below it still matches
+                return child;
+            }
+            if (common < child.label.length) {
+                return null;
+            }
+            node = child;
+            position += common;
+        }
+        return node;
+    }
+    
+    private void refresh(List<Node> path) {
+        if (path == null) {
+            return;
+        }
+        for (int level = path.size() - 1; level >= 0; level--) {
+            recompute(path.get(level));
+        }
+    }
+    
+    private void recompute(Node node) {
+        int maxScore = node.postings.length > 0 ? node.postings[0].score : -1;
+        int active = nextPosting(node, 0, true);
+        int maxActiveScore = active >= 0 ? node.postings[active].score : -1;
+        int postingCount = node.postings.length;
+        for (Node child : node.children) {
+            maxScore = Math.max(maxScore, child.maxScore);
+            maxActiveScore = Math.max(maxActiveScore, child.maxActiveScore);
+            postingCount += child.postingCount;
+        }
+        node.postingCount = postingCount;
+        node.maxScore = maxScore;
+        node.maxActiveScore = maxActiveScore;
+    }
+    
+    private static void offerPosting(PriorityQueue<Candidate> queue, Node node, int from, boolean activeOnly) {
+        int posting = nextPosting(node, from, activeOnly);
+        if (posting >= 0) {
+            queue.add(new Candidate(node.postings[posting].score, node, posting));
+        }
+    }
+    
+    private static int nextPosting(Node node, int from, boolean activeOnly) {
+        for (int posting = from; posting < node.postings.length; posting++) {
+            if (!activeOnly || node.postings[posting].active) {
+                return posting;
+            }
+        }
+        return -1;
+    }
+    
+    private static int score(Node node, boolean activeOnly) {
+        return activeOnly ? node.maxActiveScore : node.maxScore;
+    }
+    
+    private static boolean matchesAll(Entry entry, String[] queryTokens) {
+        for (String queryToken : queryTokens) {
+            boolean matched = false;
+            for (String token : entry.tokens) {
+                if (token.startsWith(queryToken)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char candidate = node.children[middle].label[0];
+            if (candidate < first) {
+                low = middle + 1;
+            } else if (candidate > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+    
+    private static void addChild(Node parent, Node child) {
+        Node[] children = Arrays.copyOf(parent.children, parent.children.length + 1);
+        int position = children.length - 1;
+        while (position > 0 && children[position - 1].label[0] > child.label[0]) {
+            children[position] = children[position - 1];
+            position--;
+        }
+        children[position] = child;
+        parent.children = children;
+    }
+    
+    private static void removeChild(Node parent, Node child) {
+        int index = childIndex(parent, child.label[0]);
+        Node[] children = new Node[parent.children.length - 1];
+        System.arraycopy(parent.children, 0, children, 0, index);
+        System.arraycopy(parent.children, index + 1, children, index, children.length - index);
+        parent.children = children.length == 0 ? NO_CHILDREN : children;
+    }
+    
+    private static int commonPrefix(char[] label, String text, int offset) {
+        int length = Math.min(label.length, text.length() - offset);
+        int common = 0;
+        while (common < length && label[common] == text.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+    
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
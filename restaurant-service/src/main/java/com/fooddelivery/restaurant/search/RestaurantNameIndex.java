@@ -0,0 +1,163 @@
+package com.fooddelivery.restaurant.search;
+
+import com.fooddelivery.restaurant.dto.RestaurantSuggestionDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuStats;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.event.CacheInvalidatedEvent;
+import com.fooddelivery.restaurant.event.MenuStatsChangedEvent;
+import com.fooddelivery.restaurant.event.RestaurantChangedEvent;
+import com.fooddelivery.restaurant.repository.MenuStatsRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import com.fooddelivery.restaurant.util.LatencySamples;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory typeahead over restaurant names, ranked by menu size. Loaded from every shard at
+ * startup, then kept current from local restaurant and menu stats changes after commit and from
+ * other instances' changes through the invalidation log.
+ */
+@Component
+public class RestaurantNameIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(RestaurantNameIndex.class);
+    
+    private static final int SAMPLE_CAPACITY = 2048;
+    private static final Set<CacheInvalidation.Type> RELOAD_TYPES = Set.of(
+        CacheInvalidation.Type.RESTAURANT, CacheInvalidation.Type.MENU_STATS, CacheInvalidation.Type.MENU_SNAPSHOT);
+    
+    private final PrefixIndex index = new PrefixIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LatencySamples latencySamples = new LatencySamples(SAMPLE_CAPACITY);
+    
+    private final RestaurantRepository restaurantRepository;
+    private final MenuStatsRepository menuStatsRepository;
+    private final ShardRouter shardRouter;
+    
+    public RestaurantNameIndex(RestaurantRepository restaurantRepository,
+                               MenuStatsRepository menuStatsRepository,
+                               ShardRouter shardRouter) {
+        this.restaurantRepository = restaurantRepository;
+        this.menuStatsRepository = menuStatsRepository;
+        this.shardRouter = shardRouter;
+    }
+    
+    public List<RestaurantSuggestionDto> suggest(String query, int limit, boolean activeOnly) {
+        long start = System.nanoTime();
+        List<PrefixIndex.Entry> entries;
+        lock.readLock().lock();
+        try {
+            entries = index.search(query, limit, activeOnly);
+        } finally {
+            lock.readLock().unlock();
+        }
+        latencySamples.record(System.nanoTime() - start);
+        
+        return entries.stream()
+            .map(entry -> new RestaurantSuggestionDto(entry.id, entry.name, entry.score))
+            .collect(Collectors.toList());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        Map<Long, Integer> itemCounts = shardRouter.fanOut(menuStatsRepository::findAll).stream()
+            .collect(Collectors.toMap(MenuStats::getRestaurantId, MenuStats::getItemCount));
+        List<Restaurant> restaurants = shardRouter.fanOut(restaurantRepository::findAll);
+        
+        lock.writeLock().lock();
+        try {
+            restaurants.forEach(restaurant -> index.put(restaurant.getId(), restaurant.getName(),
+                Boolean.TRUE.equals(restaurant.getActive()), itemCounts.getOrDefault(restaurant.getId(), 0)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} restaurant names in {} ms", restaurants.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.deleted()) {
+                index.remove(event.restaurantId());
+            } else {
+                PrefixIndex.Entry existing = index.get(event.restaurantId());
+                index.put(event.restaurantId(), event.name(), Boolean.TRUE.equals(event.active()),
+                    existing != null ? existing.score : 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuStatsChanged(MenuStatsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            index.updateScore(event.restaurantId(), event.itemCount());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        event.invalidations().stream()
+            .filter(invalidation -> RELOAD_TYPES.contains(invalidation.getType()))
+            .map(CacheInvalidation::getEntityId)
+            .distinct()
+            .forEach(this::reload);
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("restaurants", index.size());
+            stats.put("nodes", index.nodeCount());
+            stats.put("estimatedBytes", index.estimateBytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("lookups", latencySamples.count());
+        stats.put("p50Micros", latencySamples.percentile(0.50, TimeUnit.MICROSECONDS));
+        stats.put("p99Micros", latencySamples.percentile(0.99, TimeUnit.MICROSECONDS));
+        return stats;
+    }
+    
+    private void reload(Long restaurantId) {
+        int shard = shardRouter.shardOf(restaurantId);
+        Restaurant restaurant = ShardContext.callOn(shard, () -> restaurantRepository.findById(restaurantId).orElse(null));
+        int itemCount = ShardContext.callOn(shard, () -> menuStatsRepository.findById(restaurantId)
+            .map(MenuStats::getItemCount)
+            .orElse(0));
+        
+        lock.writeLock().lock();
+        try {
+            if (restaurant == null) {
+                index.remove(restaurantId);
+            } else {
+                index.put(restaurantId, restaurant.getName(), Boolean.TRUE.equals(restaurant.getActive()), itemCount);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
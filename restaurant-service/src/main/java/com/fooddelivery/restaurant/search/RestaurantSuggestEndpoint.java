@@ -0,0 +1,26 @@
+package com.fooddelivery.restaurant.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Size, estimated memory footprint and lookup latency of the restaurant name index at /actuator/suggest.
+ */
+@Component
+@Endpoint(id = "suggest")
+public class RestaurantSuggestEndpoint {
+    
+    private final RestaurantNameIndex nameIndex;
+    
+    public RestaurantSuggestEndpoint(RestaurantNameIndex nameIndex) {
+        this.nameIndex = nameIndex;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> suggest() {
+        return nameIndex.stats();
+    }
+}
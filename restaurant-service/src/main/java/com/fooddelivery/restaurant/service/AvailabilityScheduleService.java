@@ -0,0 +1,133 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.availability.AvailabilitySchedule;
+import com.fooddelivery.restaurant.cache.CacheInvalidationBus;
+import com.fooddelivery.restaurant.dto.AvailabilityScheduleRequestDto;
+import com.fooddelivery.restaurant.dto.AvailabilityScheduleResponseDto;
+import com.fooddelivery.restaurant.dto.AvailabilityWindowDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.entity.MenuItemAvailabilityWindow;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.event.AvailabilityScheduleChangedEvent;
+import com.fooddelivery.restaurant.exception.ForbiddenException;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.repository.MenuItemAvailabilityWindowRepository;
+import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.security.UserPrincipal;
+import com.fooddelivery.restaurant.sharding.ShardRouted;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class AvailabilityScheduleService {
+    
+    private final MenuItemAvailabilityWindowRepository windowRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public AvailabilityScheduleService(MenuItemAvailabilityWindowRepository windowRepository,
+                                       MenuItemRepository menuItemRepository,
+                                       RestaurantRepository restaurantRepository,
+                                       CacheInvalidationBus invalidationBus,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.windowRepository = windowRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.invalidationBus = invalidationBus;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @ShardRouted
+    public AvailabilityScheduleResponseDto getSchedule(Long menuId) {
+        MenuItem menuItem = menuItemRepository.findById(menuId)
+            .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId));
+        
+        Restaurant restaurant = restaurantRepository.findById(menuItem.getRestaurantId())
+            .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found"));
+        
+        return toDto(menuId, restaurant, windowRepository.findByMenuItemIdOrderByIdAsc(menuId));
+    }
+    
+    /**
+     * Replaces all of a menu item's windows. The new schedule applies immediately, overriding any
+     * manual toggle; an empty list hands availability back to manual toggles.
+     */
+    @Transactional
+    @ShardRouted
+    public AvailabilityScheduleResponseDto replaceSchedule(Long menuId, AvailabilityScheduleRequestDto requestDto) {
+        MenuItem menuItem = menuItemRepository.findById(menuId)
+            .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId));
+        
+        Restaurant restaurant = restaurantRepository.findById(menuItem.getRestaurantId())
+            .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found"));
+        
+        UserPrincipal currentUser = getCurrentUser();
+        
+        // Only owner can schedule their menu items
+        if (!restaurant.getOwnerId().equals(currentUser.getUserId()) && 
+            !isAdmin(currentUser)) {
+            throw new ForbiddenException("You are not authorized to change this menu item's schedule");
+        }
+        
+        windowRepository.deleteByMenuItemId(menuId);
+        List<MenuItemAvailabilityWindow> windows = windowRepository.saveAll(requestDto.getWindows().stream()
+            .map(window -> new MenuItemAvailabilityWindow(null, menuId, menuItem.getRestaurantId(),
+                AvailabilitySchedule.daysMask(window.getDays()), window.getStart(), window.getEnd()))
+            .collect(Collectors.toList()));
+        invalidationBus.publish(CacheInvalidation.Type.AVAILABILITY_SCHEDULE, menuId);
+        eventPublisher.publishEvent(new AvailabilityScheduleChangedEvent(menuId));
+        
+        return toDto(menuId, restaurant, windows);
+    }
+    
+    // Called from the item and restaurant deletes, inside their transactions
+    public void deleteForMenuItem(Long menuId) {
+        if (windowRepository.deleteByMenuItemId(menuId) > 0) {
+            invalidationBus.publish(CacheInvalidation.Type.AVAILABILITY_SCHEDULE, menuId);
+            eventPublisher.publishEvent(new AvailabilityScheduleChangedEvent(menuId));
+        }
+    }
+    
+    public void deleteForRestaurant(Long restaurantId) {
+        // Schedulers drop the restaurant's items on the restaurant change itself
+        windowRepository.deleteByRestaurantId(restaurantId);
+    }
+    
+    private AvailabilityScheduleResponseDto toDto(Long menuId, Restaurant restaurant, List<MenuItemAvailabilityWindow> windows) {
+        ZoneId zone = AvailabilitySchedule.zoneOf(restaurant.getTimeZone());
+        List<AvailabilityWindowDto> windowDtos = windows.stream()
+            .map(window -> new AvailabilityWindowDto(AvailabilitySchedule.daysOf(window.getDays()),
+                window.getStartTime(), window.getEndTime()))
+            .collect(Collectors.toList());
+        if (windows.isEmpty()) {
+            return new AvailabilityScheduleResponseDto(menuId, zone.getId(), windowDtos, null, null);
+        }
+        
+        AvailabilitySchedule schedule = AvailabilitySchedule.of(zone, windows);
+        Instant now = Instant.now();
+        Instant nextChange = schedule.nextChangeAfter(now);
+        return new AvailabilityScheduleResponseDto(menuId, zone.getId(), windowDtos, schedule.isAvailableAt(now),
+            nextChange != null ? nextChange.atZone(zone).toOffsetDateTime() : null);
+    }
+    
+    private UserPrincipal getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+    
+    private boolean isAdmin(UserPrincipal user) {
+        return user.getRole().equals("ADMIN");
+    }
+}
@@ -0,0 +1,142 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.MenuItemVersionDto;
+import com.fooddelivery.restaurant.entity.MenuItemVersion;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.exception.ForbiddenException;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.history.MenuItemHistory;
+import com.fooddelivery.restaurant.repository.MenuItemVersionRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.security.UserPrincipal;
+import com.fooddelivery.restaurant.sharding.ShardRouted;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Point-in-time reads over menu_item_versions. Each item is replayed from its latest checkpoint
+ * at or before the requested time, so at most {@link MenuItemHistory#CHECKPOINT_INTERVAL}
+ * versions per item are read however long its history is.
+ */
+@Service
+public class MenuHistoryService {
+    
+    private static final int MAX_VERSIONS = 200;
+    
+    private final MenuItemVersionRepository versionRepository;
+    private final RestaurantRepository restaurantRepository;
+    
+    public MenuHistoryService(MenuItemVersionRepository versionRepository,
+                              RestaurantRepository restaurantRepository) {
+        this.versionRepository = versionRepository;
+        this.restaurantRepository = restaurantRepository;
+    }
+    
+    @ShardRouted
+    public List<MenuItemResponseDto> getMenuAsOf(Long restaurantId, OffsetDateTime at) {
+        checkAccess(restaurantId);
+        LocalDateTime localAt = toLocal(at);
+        return MenuItemHistory.replay(
+            versionRepository.findFromCheckpoints(restaurantId, localAt, MenuItemHistory.CHECKPOINT_INTERVAL), localAt);
+    }
+    
+    @ShardRouted
+    public MenuItemResponseDto getMenuItemAsOf(Long menuId, OffsetDateTime at) {
+        LocalDateTime localAt = toLocal(at);
+        MenuItemVersion checkpoint = versionRepository
+            .findFirstByMenuItemIdAndCheckpointTrueAndChangedAtLessThanEqualOrderByVersionDesc(menuId, localAt)
+            .orElseThrow(() -> new ResourceNotFoundException("No history for menu item " + menuId + " at " + at));
+        checkAccess(checkpoint.getRestaurantId());
+        
+        List<MenuItemVersion> versions = versionRepository.findByMenuItemIdAndVersionBetweenOrderByVersionAsc(
+            menuId, checkpoint.getVersion(), checkpoint.getVersion() + MenuItemHistory.CHECKPOINT_INTERVAL - 1);
+        return MenuItemHistory.replay(versions, localAt).stream()
+            .findFirst()
+            .orElseThrow(() -> new ResourceNotFoundException("Menu item " + menuId + " was deleted at " + at));
+    }
+    
+    /**
+     * Recorded versions of a menu item, newest first.
+     */
+    @ShardRouted
+    public List<MenuItemVersionDto> getVersions(Long menuId, int limit) {
+        if (limit < 1 || limit > MAX_VERSIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_VERSIONS);
+        }
+        List<MenuItemVersion> versions = versionRepository.findByMenuItemIdOrderByVersionDesc(menuId, PageRequest.of(0, limit));
+        if (versions.isEmpty()) {
+            throw new ResourceNotFoundException("No history for menu item " + menuId);
+        }
+        checkAccess(versions.get(0).getRestaurantId());
+        return versions.stream().map(this::toDto).collect(Collectors.toList());
+    }
+    
+    // Owners see their own restaurants' history; history of deleted restaurants is admin-only
+    private void checkAccess(Long restaurantId) {
+        UserPrincipal currentUser = getCurrentUser();
+        if (isAdmin(currentUser)) {
+            return;
+        }
+        Restaurant restaurant = restaurantRepository.findById(restaurantId).orElse(null);
+        if (restaurant == null || !restaurant.getOwnerId().equals(currentUser.getUserId())) {
+            throw new ForbiddenException("You are not authorized to view this menu's history");
+        }
+    }
+    
+    private static LocalDateTime toLocal(OffsetDateTime at) {
+        // Versions are stamped with the server's local time, like every other timestamp here
+        return at.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+    
+    private MenuItemVersionDto toDto(MenuItemVersion version) {
+        List<String> changedFields = new ArrayList<>();
+        if (version.changes(MenuItemVersion.NAME)) {
+            changedFields.add("name");
+        }
+        if (version.changes(MenuItemVersion.DESCRIPTION)) {
+            changedFields.add("description");
+        }
+        if (version.changes(MenuItemVersion.PRICE)) {
+            changedFields.add("price");
+        }
+        if (version.changes(MenuItemVersion.AVAILABLE)) {
+            changedFields.add("available");
+        }
+        if (version.changes(MenuItemVersion.CATEGORY)) {
+            changedFields.add("category");
+        }
+        return new MenuItemVersionDto(
+            version.getMenuItemId(),
+            version.getRestaurantId(),
+            version.getVersion(),
+            version.getChangedAt(),
+            version.getCheckpoint(),
+            version.changes(MenuItemVersion.DELETED),
+            changedFields,
+            version.getName(),
+            version.getDescription(),
+            version.getPrice(),
+            version.getAvailable(),
+            version.getCategory()
+        );
+    }
+    
+    private UserPrincipal getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+    
+    private boolean isAdmin(UserPrincipal user) {
+        return user.getRole().equals("ADMIN");
+    }
+}
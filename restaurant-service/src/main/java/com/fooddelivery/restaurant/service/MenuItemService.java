@@ -1,39 +1,91 @@
 package com.fooddelivery.restaurant.service;
 
+import com.fooddelivery.restaurant.cache.CacheInvalidationBus;
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.catalog.CompactMenuStore;
+import com.fooddelivery.restaurant.dto.MenuItemQueryDto;
 import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
 import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
 import com.fooddelivery.restaurant.entity.MenuItem;
 import com.fooddelivery.restaurant.entity.Restaurant;
 import com.fooddelivery.restaurant.exception.ForbiddenException;
 import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.history.MenuItemHistory;
 import com.fooddelivery.restaurant.mapper.MenuItemMapper;
+import com.fooddelivery.restaurant.mapper.RestaurantMapper;
 import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.repository.MenuItemSpecifications;
 import com.fooddelivery.restaurant.repository.RestaurantRepository;
 import com.fooddelivery.restaurant.security.UserPrincipal;
+import com.fooddelivery.restaurant.sharding.ShardRouted;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class MenuItemService {
     
+    private static final int MAX_BATCH_RESTAURANTS = 100;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemMapper menuItemMapper;
+    private final MenuItemAvailabilityStore availabilityStore;
+    private final MenuSnapshotService menuSnapshotService;
+    private final CacheInvalidationBus invalidationBus;
+    private final RestaurantMapper restaurantMapper;
+    private final ShardRouter shardRouter;
+    private final MenuStatsService menuStatsService;
+    private final CompactMenuStore compactMenuStore;
+    private final AvailabilityScheduleService availabilityScheduleService;
+    private final MenuItemHistory menuItemHistory;
     
     public MenuItemService(MenuItemRepository menuItemRepository,
                           RestaurantRepository restaurantRepository,
-                          MenuItemMapper menuItemMapper) {
+                          MenuItemMapper menuItemMapper,
+                          MenuItemAvailabilityStore availabilityStore,
+                          MenuSnapshotService menuSnapshotService,
+                          CacheInvalidationBus invalidationBus,
+                          RestaurantMapper restaurantMapper,
+                          ShardRouter shardRouter,
+                          MenuStatsService menuStatsService,
+                          CompactMenuStore compactMenuStore,
+                          AvailabilityScheduleService availabilityScheduleService,
+                          MenuItemHistory menuItemHistory) {
         this.menuItemRepository = menuItemRepository;
         this.restaurantRepository = restaurantRepository;
         this.menuItemMapper = menuItemMapper;
+        this.availabilityStore = availabilityStore;
+        this.menuSnapshotService = menuSnapshotService;
+        this.invalidationBus = invalidationBus;
+        this.restaurantMapper = restaurantMapper;
+        this.shardRouter = shardRouter;
+        this.menuStatsService = menuStatsService;
+        this.compactMenuStore = compactMenuStore;
+        this.availabilityScheduleService = availabilityScheduleService;
+        this.menuItemHistory = menuItemHistory;
     }
     
     @Transactional
+    @ShardRouted
     public MenuItemResponseDto addMenuItem(Long restaurantId, MenuItemRequestDto requestDto) {
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + restaurantId));
@@ -48,14 +100,20 @@ public class MenuItemService {
         
         MenuItem menuItem = menuItemMapper.toEntity(requestDto, restaurantId);
         menuItem.setAvailable(true);
+        menuItem.setHistoryVersion(1);
         
         MenuItem savedMenuItem = menuItemRepository.save(menuItem);
+        menuItemHistory.recordCreated(savedMenuItem);
+        menuStatsService.onItemAdded(savedMenuItem);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_ITEM, savedMenuItem.getId());
+        menuSnapshotService.rebuild(restaurantId);
         return menuItemMapper.toDto(savedMenuItem);
     }
     
     @Transactional
+    @ShardRouted
     public MenuItemResponseDto updateMenuItem(Long menuId, MenuItemRequestDto requestDto) {
-        MenuItem menuItem = menuItemRepository.findById(menuId)
+        MenuItem menuItem = menuItemRepository.findForUpdate(menuId)
             .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId));
         
         Restaurant restaurant = restaurantRepository.findById(menuItem.getRestaurantId())
@@ -69,15 +127,23 @@ public class MenuItemService {
             throw new ForbiddenException("You are not authorized to update this menu item");
         }
         
+        BigDecimal previousPrice = menuItem.getPrice();
+        String previousCategory = menuItem.getCategory();
+        MenuItemHistory.State previous = MenuItemHistory.State.of(menuItem);
         menuItemMapper.updateEntityFromDto(requestDto, menuItem);
+        menuItemHistory.recordUpdated(previous, menuItem);
         MenuItem updatedMenuItem = menuItemRepository.save(menuItem);
+        menuStatsService.onItemUpdated(updatedMenuItem, previousPrice, previousCategory);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_ITEM, menuId);
+        menuSnapshotService.rebuild(menuItem.getRestaurantId());
         
-        return menuItemMapper.toDto(updatedMenuItem);
+        return toDto(updatedMenuItem);
     }
     
     @Transactional
+    @ShardRouted
     public void deleteMenuItem(Long menuId) {
-        MenuItem menuItem = menuItemRepository.findById(menuId)
+        MenuItem menuItem = menuItemRepository.findForUpdate(menuId)
             .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId));
         
         Restaurant restaurant = restaurantRepository.findById(menuItem.getRestaurantId())
@@ -91,11 +157,21 @@ public class MenuItemService {
             throw new ForbiddenException("You are not authorized to delete this menu item");
         }
         
+        menuItemHistory.recordDeleted(menuItem);
         menuItemRepository.delete(menuItem);
+        menuStatsService.onItemDeleted(menuItem);
+        availabilityScheduleService.deleteForMenuItem(menuId);
+        availabilityStore.forget(menuId);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_ITEM, menuId);
+        menuSnapshotService.rebuild(menuItem.getRestaurantId());
     }
     
-    @Transactional
+    @ShardRouted
     public MenuItemResponseDto updateMenuItemStatus(Long menuId, Boolean available) {
+        if (available == null) {
+            throw new IllegalArgumentException("Availability status is required");
+        }
+        
         MenuItem menuItem = menuItemRepository.findById(menuId)
             .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId));
         
@@ -110,29 +186,112 @@ public class MenuItemService {
             throw new ForbiddenException("You are not authorized to change this menu item status");
         }
         
-        menuItem.setAvailable(available);
-        MenuItem updatedMenuItem = menuItemRepository.save(menuItem);
+        // Written behind in batches by the availability store
+        availabilityStore.put(menuItem.getRestaurantId(), menuId, available);
         
-        return menuItemMapper.toDto(updatedMenuItem);
+        return toDto(menuItem);
     }
     
+    @ShardRouted
     public MenuItemResponseDto getMenuItemById(Long menuId) {
         MenuItem menuItem = menuItemRepository.findById(menuId)
             .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuId));
         
-        return menuItemMapper.toDto(menuItem);
+        return toDto(menuItem);
     }
     
+    @ShardRouted
     public List<MenuItemResponseDto> getMenuItemsByRestaurant(Long restaurantId) {
-        // Verify restaurant exists
+        // Served from the compact in-memory copy, loaded from the per-restaurant snapshot row
+        // (which also verifies the restaurant exists) on a miss
+        return compactMenuStore.getMenuItems(restaurantId, () -> menuSnapshotService.getMenu(restaurantId).getMenuItems());
+    }
+    
+    /**
+     * Filters, sorts and pages a restaurant's menu in the database. Availability filtering folds in
+     * toggles the database has not caught up with, so it matches the values the page shows.
+     */
+    @ShardRouted
+    public Page<MenuItemResponseDto> searchMenuItems(Long restaurantId, MenuItemQueryDto query) {
         restaurantRepository.findById(restaurantId)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + restaurantId));
         
-        return menuItemRepository.findByRestaurantId(restaurantId).stream()
-            .map(menuItemMapper::toDto)
+        PageRequest pageRequest = PageRequest.of(
+            query.getPage() != null ? query.getPage() : 0,
+            query.getSize() != null ? query.getSize() : DEFAULT_PAGE_SIZE,
+            toSort(query.getSort()));
+        Map<Long, Boolean> overrides = query.getAvailable() != null ? availabilityStore.overridesOf(restaurantId) : Map.of();
+        return menuItemRepository.findAll(MenuItemSpecifications.matching(restaurantId, query, overrides), pageRequest)
+            .map(this::toDto);
+    }
+    
+    /**
+     * Loads the menus of many restaurants with one restaurant query and one menu query per shard.
+     * Menus come back in the order the ids were given; unknown restaurants are left out. The menu
+     * query itself keeps only the first {@code limitPerRestaurant} items of each restaurant.
+     */
+    public List<RestaurantMenuDto> getMenusByRestaurants(Collection<Long> restaurantIds,
+                                                         boolean availableOnly,
+                                                         Integer limitPerRestaurant) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(restaurantIds));
+        if (ids.size() > MAX_BATCH_RESTAURANTS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_RESTAURANTS + " restaurants can be fetched at once");
+        }
+        if (limitPerRestaurant != null && limitPerRestaurant < 1) {
+            throw new IllegalArgumentException("limitPerRestaurant must be positive");
+        }
+        
+        int limit = limitPerRestaurant != null ? limitPerRestaurant : Integer.MAX_VALUE;
+        List<RestaurantMenuDto> menus = shardRouter.fanOut(shardRouter.groupByShard(ids), shardIds -> {
+            List<MenuItem> menuItems = availableOnly
+                ? findFirstAvailable(shardIds, limit)
+                : menuItemRepository.findFirstPerRestaurant(shardIds, limit);
+            Map<Long, List<MenuItemResponseDto>> itemsByRestaurant = menuItems.stream()
+                .map(this::toDto)
+                // A toggle may land between the query and resolving the item, so filter again on the resolved value
+                .filter(item -> !availableOnly || Boolean.TRUE.equals(item.getAvailable()))
+                .collect(Collectors.groupingBy(MenuItemResponseDto::getRestaurantId));
+            
+            return restaurantRepository.findAllById(shardIds).stream()
+                .map(restaurant -> new RestaurantMenuDto(restaurantMapper.toDto(restaurant),
+                    itemsByRestaurant.getOrDefault(restaurant.getId(), List.of())))
+                .toList();
+        });
+        
+        Map<Long, RestaurantMenuDto> byId = new HashMap<>();
+        menus.forEach(menu -> byId.put(menu.getRestaurant().getId(), menu));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
     
+    private static Sort toSort(String sort) {
+        if (sort == null) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1]) : Sort.Direction.ASC;
+        // Tie-break on id so pages stay stable when many items share the sort value
+        return Sort.by(direction, parts[0]).and(Sort.by("id"));
+    }
+    
+    private List<MenuItem> findFirstAvailable(List<Long> restaurantIds, int limit) {
+        // Unflushed toggles decide over the stored flag. Ids are positive, so 0 stands in for an
+        // empty list, which IN () would reject
+        List<Long> availableIds = new ArrayList<>(List.of(0L));
+        List<Long> unavailableIds = new ArrayList<>(List.of(0L));
+        availabilityStore.overridesOf(restaurantIds).forEach((menuItemId, available) ->
+            (available ? availableIds : unavailableIds).add(menuItemId));
+        return menuItemRepository.findFirstAvailablePerRestaurant(restaurantIds, availableIds, unavailableIds, limit);
+    }
+    
+    private MenuItemResponseDto toDto(MenuItem menuItem) {
+        MenuItemResponseDto dto = menuItemMapper.toDto(menuItem);
+        dto.setAvailable(availabilityStore.resolve(menuItem.getId(), menuItem.getAvailable()));
+        return dto;
+    }
+    
     private UserPrincipal getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return (UserPrincipal) authentication.getPrincipal();
@@ -0,0 +1,210 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooddelivery.restaurant.cache.CacheInvalidationBus;
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuSnapshot;
+import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.event.MenuAvailabilityFlushedEvent;
+import com.fooddelivery.restaurant.event.MenuChangedEvent;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.mapper.MenuItemMapper;
+import com.fooddelivery.restaurant.mapper.RestaurantMapper;
+import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.repository.MenuSnapshotRepository;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains one denormalized row per restaurant holding the restaurant and its whole menu,
+ * so a menu read is a single primary-key lookup.
+ */
+@Service
+public class MenuSnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(MenuSnapshotService.class);
+    
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+    
+    private final MenuSnapshotRepository menuSnapshotRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantMapper restaurantMapper;
+    private final MenuItemMapper menuItemMapper;
+    private final MenuItemAvailabilityStore availabilityStore;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus invalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    public MenuSnapshotService(MenuSnapshotRepository menuSnapshotRepository,
+                               RestaurantRepository restaurantRepository,
+                               MenuItemRepository menuItemRepository,
+                               RestaurantMapper restaurantMapper,
+                               MenuItemMapper menuItemMapper,
+                               MenuItemAvailabilityStore availabilityStore,
+                               ObjectMapper objectMapper,
+                               TransactionTemplate transactionTemplate,
+                               ShardRouter shardRouter,
+                               CacheInvalidationBus invalidationBus,
+                               ApplicationEventPublisher eventPublisher,
+                               NamedParameterJdbcTemplate jdbcTemplate) {
+        this.menuSnapshotRepository = menuSnapshotRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantMapper = restaurantMapper;
+        this.menuItemMapper = menuItemMapper;
+        this.availabilityStore = availabilityStore;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Rebuilds the snapshot inside the caller's transaction, after its writes have been made.
+     */
+    @Transactional
+    public RestaurantMenuDto rebuild(Long restaurantId) {
+        // Checked before any write so an unknown id never inserts or locks a row
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new ResourceNotFoundException("Restaurant not found with id: " + restaurantId);
+        }
+        
+        // Lock first so concurrent writers to the same restaurant rebuild one after another. The
+        // upsert creates a missing row or locks the existing one, so first builds cannot collide
+        jdbcTemplate.update("INSERT INTO menu_snapshots (restaurant_id, version, payload, updated_at) "
+            + "VALUES (:restaurantId, 0, :payload, CURRENT_TIMESTAMP) ON DUPLICATE KEY UPDATE version = version",
+            Map.of("restaurantId", restaurantId, "payload", new byte[0]));
+        MenuSnapshot snapshot = menuSnapshotRepository.findForUpdate(restaurantId)
+            .orElseThrow(() -> new IllegalStateException("Menu snapshot row missing for restaurant " + restaurantId));
+        
+        RestaurantMenuDto menu = build(restaurantId);
+        snapshot.setVersion(snapshot.getVersion() + 1);
+        snapshot.setPayload(serialize(menu));
+        menuSnapshotRepository.save(snapshot);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_SNAPSHOT, restaurantId);
+        eventPublisher.publishEvent(new MenuChangedEvent(restaurantId));
+        
+        return menu;
+    }
+    
+    @Transactional
+    public void delete(Long restaurantId) {
+        menuSnapshotRepository.findById(restaurantId).ifPresent(menuSnapshotRepository::delete);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_SNAPSHOT, restaurantId);
+        eventPublisher.publishEvent(new MenuChangedEvent(restaurantId));
+    }
+    
+    /**
+     * Reads the snapshot. Every restaurant gets its row when written or at startup, so a miss
+     * is answered from the tables without writing one.
+     */
+    public RestaurantMenuDto getMenu(Long restaurantId) {
+        RestaurantMenuDto menu = menuSnapshotRepository.findById(restaurantId)
+            .map(snapshot -> deserialize(snapshot.getPayload()))
+            .orElseGet(() -> transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                return build(restaurantId);
+            }));
+        
+        menu.getMenuItems().forEach(item ->
+            item.setAvailable(availabilityStore.resolve(item.getId(), item.getAvailable())));
+        return menu;
+    }
+    
+    /**
+     * Writes snapshots for restaurants that predate them, so menu reads never have to.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int total = shardRouter.fanOut(() -> {
+                int written = 0;
+                List<Long> restaurantIds;
+                while (!(restaurantIds = jdbcTemplate.queryForList("SELECT r.id FROM restaurants r "
+                        + "LEFT JOIN menu_snapshots s ON s.restaurant_id = r.id WHERE s.restaurant_id IS NULL "
+                        + "ORDER BY r.id LIMIT " + BACKFILL_CHUNK_SIZE, Map.of(), Long.class)).isEmpty()) {
+                    for (Long restaurantId : restaurantIds) {
+                        transactionTemplate.executeWithoutResult(status -> rebuild(restaurantId));
+                    }
+                    written += restaurantIds.size();
+                }
+                return List.of(written);
+            }).stream().mapToInt(Integer::intValue).sum();
+            if (total > 0) {
+                log.info("Wrote menu snapshots for {} restaurants", total);
+            }
+        } catch (RuntimeException e) {
+            // Misses are still answered from the tables until the next start
+            log.warn("Could not backfill menu snapshots", e);
+        }
+    }
+    
+    @EventListener
+    public void onAvailabilityFlushed(MenuAvailabilityFlushedEvent event) {
+        shardRouter.groupByShard(event.menuItemIds()).forEach((shard, menuItemIds) -> ShardContext.runOn(shard, () -> {
+            for (Long restaurantId : menuItemRepository.findDistinctRestaurantIdsByIdIn(menuItemIds)) {
+                transactionTemplate.executeWithoutResult(status -> rebuild(restaurantId));
+            }
+        }));
+    }
+    
+    private RestaurantMenuDto build(Long restaurantId) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+            .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + restaurantId));
+        
+        List<MenuItemResponseDto> menuItems = menuItemRepository.findByRestaurantId(restaurantId).stream()
+            .map(menuItemMapper::toDto)
+            .sorted(Comparator.comparing(MenuItemResponseDto::getId))
+            .toList();
+        menuItems.forEach(item -> item.setAvailable(availabilityStore.resolve(item.getId(), item.getAvailable())));
+        return new RestaurantMenuDto(restaurantMapper.toDto(restaurant), menuItems);
+    }
+    
+    private byte[] serialize(RestaurantMenuDto menu) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, menu);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize menu snapshot", e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private RestaurantMenuDto deserialize(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, RestaurantMenuDto.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read menu snapshot", e);
+        }
+    }
+}
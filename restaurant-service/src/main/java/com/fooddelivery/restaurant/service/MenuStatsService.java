@@ -0,0 +1,195 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.cache.CacheInvalidationBus;
+import com.fooddelivery.restaurant.dto.MenuStatsDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
+import com.fooddelivery.restaurant.entity.MenuItem;
+import com.fooddelivery.restaurant.entity.MenuStats;
+import com.fooddelivery.restaurant.event.MenuAvailabilityFlushedEvent;
+import com.fooddelivery.restaurant.event.MenuStatsChangedEvent;
+import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.repository.MenuStatsRepository;
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps one row of menu aggregates per restaurant (item counts, price range, category facets),
+ * adjusted in the same transaction as each menu change so listings never read menu_items.
+ */
+@Service
+public class MenuStatsService {
+    
+    private final MenuStatsRepository menuStatsRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus invalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public MenuStatsService(MenuStatsRepository menuStatsRepository,
+                            MenuItemRepository menuItemRepository,
+                            TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter,
+                            CacheInvalidationBus invalidationBus,
+                            ApplicationEventPublisher eventPublisher) {
+        this.menuStatsRepository = menuStatsRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @Transactional
+    public void onItemAdded(MenuItem menuItem) {
+        update(menuItem.getRestaurantId(), stats -> add(stats, menuItem.getPrice(), menuItem.getCategory(), menuItem.getAvailable()));
+    }
+    
+    @Transactional
+    public void onItemUpdated(MenuItem menuItem, BigDecimal previousPrice, String previousCategory) {
+        update(menuItem.getRestaurantId(), stats -> {
+            remove(stats, menuItem.getRestaurantId(), previousPrice, previousCategory, menuItem.getAvailable());
+            add(stats, menuItem.getPrice(), menuItem.getCategory(), menuItem.getAvailable());
+        });
+    }
+    
+    @Transactional
+    public void onItemDeleted(MenuItem menuItem) {
+        update(menuItem.getRestaurantId(), stats ->
+            remove(stats, menuItem.getRestaurantId(), menuItem.getPrice(), menuItem.getCategory(), menuItem.getAvailable()));
+    }
+    
+    /**
+     * Recomputes the row from menu_items; used for restaurants that predate the stats table.
+     */
+    @Transactional
+    public MenuStats rebuild(Long restaurantId) {
+        MenuStats stats = menuStatsRepository.findForUpdate(restaurantId)
+            .orElseGet(() -> new MenuStats(restaurantId, 0, 0, BigDecimal.ZERO, null, null, new TreeMap<>(), null));
+        
+        MenuItemRepository.PriceSummary prices = menuItemRepository.summarizePrices(restaurantId);
+        Map<String, Integer> categoryCounts = new TreeMap<>();
+        menuItemRepository.countByCategory(restaurantId)
+            .forEach(category -> categoryCounts.put(category.getCategory(), category.getItemCount().intValue()));
+        
+        stats.setItemCount(prices.getItemCount().intValue());
+        stats.setAvailableCount((int) menuItemRepository.countByRestaurantIdAndAvailableTrue(restaurantId));
+        stats.setPriceTotal(prices.getPriceTotal() != null ? prices.getPriceTotal() : BigDecimal.ZERO);
+        stats.setMinPrice(prices.getMinPrice());
+        stats.setMaxPrice(prices.getMaxPrice());
+        stats.setCategoryCounts(categoryCounts);
+        
+        MenuStats saved = menuStatsRepository.save(stats);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_STATS, restaurantId);
+        eventPublisher.publishEvent(new MenuStatsChangedEvent(restaurantId, saved.getItemCount()));
+        return saved;
+    }
+    
+    @Transactional
+    public void delete(Long restaurantId) {
+        menuStatsRepository.findById(restaurantId).ifPresent(menuStatsRepository::delete);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_STATS, restaurantId);
+    }
+    
+    /**
+     * Loads stats for restaurants on the current shard, building missing rows on the way.
+     */
+    public Map<Long, MenuStatsDto> getStats(Collection<Long> restaurantIds) {
+        Map<Long, MenuStatsDto> result = new HashMap<>();
+        menuStatsRepository.findAllById(restaurantIds).forEach(stats -> result.put(stats.getRestaurantId(), toDto(stats)));
+        for (Long restaurantId : restaurantIds) {
+            if (!result.containsKey(restaurantId)) {
+                result.put(restaurantId, toDto(transactionTemplate.execute(status -> rebuild(restaurantId))));
+            }
+        }
+        return result;
+    }
+    
+    @EventListener
+    public void onAvailabilityFlushed(MenuAvailabilityFlushedEvent event) {
+        // Flushes only know the new flag, not the old one, so recount from the (restaurant_id, available) index
+        shardRouter.groupByShard(event.menuItemIds()).forEach((shard, menuItemIds) -> ShardContext.runOn(shard, () -> {
+            for (Long restaurantId : menuItemRepository.findDistinctRestaurantIdsByIdIn(menuItemIds)) {
+                transactionTemplate.executeWithoutResult(status -> update(restaurantId, stats ->
+                    stats.setAvailableCount((int) menuItemRepository.countByRestaurantIdAndAvailableTrue(restaurantId))));
+            }
+        }));
+    }
+    
+    private void update(Long restaurantId, Consumer<MenuStats> change) {
+        MenuStats stats = menuStatsRepository.findForUpdate(restaurantId).orElse(null);
+        if (stats == null) {
+            // A full rebuild already sees this transaction's change
+            rebuild(restaurantId);
+            return;
+        }
+        change.accept(stats);
+        menuStatsRepository.save(stats);
+        invalidationBus.publish(CacheInvalidation.Type.MENU_STATS, restaurantId);
+        eventPublisher.publishEvent(new MenuStatsChangedEvent(restaurantId, stats.getItemCount()));
+    }
+    
+    private static void add(MenuStats stats, BigDecimal price, String category, Boolean available) {
+        stats.setItemCount(stats.getItemCount() + 1);
+        if (Boolean.TRUE.equals(available)) {
+            stats.setAvailableCount(stats.getAvailableCount() + 1);
+        }
+        stats.setPriceTotal(stats.getPriceTotal().add(price));
+        if (stats.getMinPrice() == null || price.compareTo(stats.getMinPrice()) < 0) {
+            stats.setMinPrice(price);
+        }
+        if (stats.getMaxPrice() == null || price.compareTo(stats.getMaxPrice()) > 0) {
+            stats.setMaxPrice(price);
+        }
+        
+        Map<String, Integer> categoryCounts = new TreeMap<>(stats.getCategoryCounts());
+        categoryCounts.merge(category, 1, Integer::sum);
+        stats.setCategoryCounts(categoryCounts);
+    }
+    
+    private void remove(MenuStats stats, Long restaurantId, BigDecimal price, String category, Boolean available) {
+        stats.setItemCount(Math.max(stats.getItemCount() - 1, 0));
+        if (Boolean.TRUE.equals(available)) {
+            stats.setAvailableCount(Math.max(stats.getAvailableCount() - 1, 0));
+        }
+        stats.setPriceTotal(stats.getPriceTotal().subtract(price).max(BigDecimal.ZERO));
+        
+        Map<String, Integer> categoryCounts = new TreeMap<>(stats.getCategoryCounts());
+        categoryCounts.computeIfPresent(category, (key, count) -> count > 1 ? count - 1 : null);
+        stats.setCategoryCounts(categoryCounts);
+        
+        // Removing the cheapest or most expensive item leaves no way to know the next one, so ask the index
+        if (stats.getMinPrice() == null || price.compareTo(stats.getMinPrice()) == 0 || price.compareTo(stats.getMaxPrice()) == 0) {
+            MenuItemRepository.PriceSummary prices = menuItemRepository.summarizePrices(restaurantId);
+            stats.setMinPrice(prices.getMinPrice());
+            stats.setMaxPrice(prices.getMaxPrice());
+        }
+    }
+    
+    private static MenuStatsDto toDto(MenuStats stats) {
+        BigDecimal averagePrice = stats.getItemCount() > 0
+            ? stats.getPriceTotal().divide(BigDecimal.valueOf(stats.getItemCount()), 2, RoundingMode.HALF_UP)
+            : null;
+        return new MenuStatsDto(
+            stats.getItemCount(),
+            stats.getAvailableCount(),
+            stats.getMinPrice(),
+            stats.getMaxPrice(),
+            averagePrice,
+            stats.getCategoryCounts()
+        );
+    }
+}
@@ -1,19 +1,30 @@
 package com.fooddelivery.restaurant.service;
 
+import com.fooddelivery.restaurant.cache.CacheInvalidationBus;
+import com.fooddelivery.restaurant.dto.MenuStatsDto;
 import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
 import com.fooddelivery.restaurant.dto.RestaurantResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantSuggestionDto;
+import com.fooddelivery.restaurant.entity.CacheInvalidation;
 import com.fooddelivery.restaurant.entity.Restaurant;
+import com.fooddelivery.restaurant.event.RestaurantChangedEvent;
 import com.fooddelivery.restaurant.exception.ForbiddenException;
 import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
 import com.fooddelivery.restaurant.mapper.RestaurantMapper;
 import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.search.RestaurantNameIndex;
 import com.fooddelivery.restaurant.security.UserPrincipal;
+import com.fooddelivery.restaurant.sharding.ShardRouted;
+import com.fooddelivery.restaurant.sharding.ShardRouter;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,14 +32,36 @@ public class RestaurantService {
     
     private final RestaurantRepository restaurantRepository;
     private final RestaurantMapper restaurantMapper;
+    private final MenuSnapshotService menuSnapshotService;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus invalidationBus;
+    private final MenuStatsService menuStatsService;
+    private final RestaurantNameIndex nameIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvailabilityScheduleService availabilityScheduleService;
     
     public RestaurantService(RestaurantRepository restaurantRepository, 
-                           RestaurantMapper restaurantMapper) {
+                           RestaurantMapper restaurantMapper,
+                           MenuSnapshotService menuSnapshotService,
+                           ShardRouter shardRouter,
+                           CacheInvalidationBus invalidationBus,
+                           MenuStatsService menuStatsService,
+                           RestaurantNameIndex nameIndex,
+                           ApplicationEventPublisher eventPublisher,
+                           AvailabilityScheduleService availabilityScheduleService) {
         this.restaurantRepository = restaurantRepository;
         this.restaurantMapper = restaurantMapper;
+        this.menuSnapshotService = menuSnapshotService;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+        this.menuStatsService = menuStatsService;
+        this.nameIndex = nameIndex;
+        this.eventPublisher = eventPublisher;
+        this.availabilityScheduleService = availabilityScheduleService;
     }
     
     @Transactional
+    @ShardRouted
     public RestaurantResponseDto createRestaurant(RestaurantRequestDto requestDto) {
         UserPrincipal currentUser = getCurrentUser();
         
@@ -37,10 +70,14 @@ public class RestaurantService {
         restaurant.setActive(true);
         
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        publishChanged(savedRestaurant);
+        menuStatsService.rebuild(savedRestaurant.getId());
+        menuSnapshotService.rebuild(savedRestaurant.getId());
         return restaurantMapper.toDto(savedRestaurant);
     }
     
     @Transactional
+    @ShardRouted
     public RestaurantResponseDto updateRestaurant(Long id, RestaurantRequestDto requestDto) {
         Restaurant restaurant = restaurantRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + id));
@@ -55,11 +92,15 @@ public class RestaurantService {
         
         restaurantMapper.updateEntityFromDto(requestDto, restaurant);
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        invalidationBus.publish(CacheInvalidation.Type.RESTAURANT, id);
+        publishChanged(updatedRestaurant);
+        menuSnapshotService.rebuild(id);
         
         return restaurantMapper.toDto(updatedRestaurant);
     }
     
     @Transactional
+    @ShardRouted
     public void deleteRestaurant(Long id) {
         Restaurant restaurant = restaurantRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + id));
@@ -72,9 +113,15 @@ public class RestaurantService {
         }
         
         restaurantRepository.delete(restaurant);
+        invalidationBus.publish(CacheInvalidation.Type.RESTAURANT, id);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(id, restaurant.getName(), restaurant.getActive(), true));
+        menuStatsService.delete(id);
+        menuSnapshotService.delete(id);
+        availabilityScheduleService.deleteForRestaurant(id);
     }
     
     @Transactional
+    @ShardRouted
     public RestaurantResponseDto updateRestaurantStatus(Long id, Boolean active) {
         Restaurant restaurant = restaurantRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + id));
@@ -88,27 +135,57 @@ public class RestaurantService {
         
         restaurant.setActive(active);
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        invalidationBus.publish(CacheInvalidation.Type.RESTAURANT, id);
+        publishChanged(updatedRestaurant);
+        menuSnapshotService.rebuild(id);
         
         return restaurantMapper.toDto(updatedRestaurant);
     }
     
-    public RestaurantResponseDto getRestaurantById(Long id) {
+    @ShardRouted
+    public RestaurantResponseDto getRestaurantById(Long id, boolean includeMenuStats) {
         Restaurant restaurant = restaurantRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found with id: " + id));
         
-        return restaurantMapper.toDto(restaurant);
+        return toDtos(List.of(restaurant), includeMenuStats).get(0);
     }
     
-    public List<RestaurantResponseDto> getAllRestaurants() {
-        return restaurantRepository.findAll().stream()
-            .map(restaurantMapper::toDto)
+    public List<RestaurantResponseDto> getAllRestaurants(boolean includeMenuStats) {
+        return shardRouter.fanOut(() -> toDtos(restaurantRepository.findAll(), includeMenuStats)).stream()
+            .sorted(Comparator.comparing(RestaurantResponseDto::getId))
+            .collect(Collectors.toList());
+    }
+    
+    public List<RestaurantResponseDto> getRestaurantsByOwner(Long ownerId, boolean includeMenuStats) {
+        return shardRouter.fanOut(() -> toDtos(restaurantRepository.findByOwnerId(ownerId), includeMenuStats)).stream()
+            .sorted(Comparator.comparing(RestaurantResponseDto::getId))
             .collect(Collectors.toList());
     }
     
-    public List<RestaurantResponseDto> getRestaurantsByOwner(Long ownerId) {
-        return restaurantRepository.findByOwnerId(ownerId).stream()
+    public List<RestaurantSuggestionDto> suggestRestaurants(String query, int limit, boolean activeOnly) {
+        if (limit < 1 || limit > 20) {
+            throw new IllegalArgumentException("limit must be between 1 and 20");
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return nameIndex.suggest(query, limit, activeOnly);
+    }
+    
+    // Runs on the restaurants' shard, so the stats come from one primary-key batch lookup
+    private List<RestaurantResponseDto> toDtos(List<Restaurant> restaurants, boolean includeMenuStats) {
+        List<RestaurantResponseDto> dtos = restaurants.stream()
             .map(restaurantMapper::toDto)
             .collect(Collectors.toList());
+        if (includeMenuStats && !dtos.isEmpty()) {
+            Map<Long, MenuStatsDto> stats = menuStatsService.getStats(dtos.stream().map(RestaurantResponseDto::getId).toList());
+            dtos.forEach(dto -> dto.setMenuStats(stats.get(dto.getId())));
+        }
+        return dtos;
+    }
+    
+    private void publishChanged(Restaurant restaurant) {
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurant.getId(), restaurant.getName(), restaurant.getActive(), false));
     }
     
     private UserPrincipal getCurrentUser() {
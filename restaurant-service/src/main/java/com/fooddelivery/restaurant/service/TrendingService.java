@@ -0,0 +1,84 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.TrendingMenuItemDto;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.trending.ClusterTrending;
+import com.fooddelivery.restaurant.trending.TrendingEntry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class TrendingService {
+    
+    private static final int MAX_LIMIT = 50;
+    // Tracked entries considered per request, so deleted or unavailable items can be skipped
+    private static final int CANDIDATES = 200;
+    
+    private final ClusterTrending clusterTrending;
+    private final MenuItemService menuItemService;
+    
+    public TrendingService(ClusterTrending clusterTrending, MenuItemService menuItemService) {
+        this.clusterTrending = clusterTrending;
+        this.menuItemService = menuItemService;
+    }
+    
+    /**
+     * The most viewed menu items across all restaurants and instances, resolved against the current menus so
+     * deleted items are left out.
+     */
+    public List<TrendingMenuItemDto> getTrending(int limit, boolean availableOnly) {
+        checkLimit(limit);
+        Map<Long, Map<Long, MenuItemResponseDto>> menus = new HashMap<>();
+        return resolve(clusterTrending.top(null, CANDIDATES), limit, availableOnly,
+            entry -> menus.computeIfAbsent(entry.restaurantId(), this::loadMenu).get(entry.menuItemId()));
+    }
+    
+    public List<TrendingMenuItemDto> getTrendingForRestaurant(Long restaurantId, int limit, boolean availableOnly) {
+        checkLimit(limit);
+        // Also verifies the restaurant exists; usually answered from the compact menu cache
+        Map<Long, MenuItemResponseDto> menu = index(menuItemService.getMenuItemsByRestaurant(restaurantId));
+        return resolve(clusterTrending.top(restaurantId, CANDIDATES), limit, availableOnly,
+            entry -> menu.get(entry.menuItemId()));
+    }
+    
+    private List<TrendingMenuItemDto> resolve(List<TrendingEntry> entries, int limit, boolean availableOnly,
+                                              Function<TrendingEntry, MenuItemResponseDto> lookup) {
+        List<TrendingMenuItemDto> trending = new ArrayList<>(limit);
+        for (TrendingEntry entry : entries) {
+            if (trending.size() == limit) {
+                break;
+            }
+            MenuItemResponseDto menuItem = lookup.apply(entry);
+            if (menuItem == null || (availableOnly && !Boolean.TRUE.equals(menuItem.getAvailable()))) {
+                continue;
+            }
+            trending.add(new TrendingMenuItemDto(menuItem, Math.round((entry.views() - entry.error()) * 100) / 100.0));
+        }
+        return trending;
+    }
+    
+    private Map<Long, MenuItemResponseDto> loadMenu(Long restaurantId) {
+        try {
+            return index(menuItemService.getMenuItemsByRestaurant(restaurantId));
+        } catch (ResourceNotFoundException e) {
+            return Map.of();
+        }
+    }
+    
+    private static Map<Long, MenuItemResponseDto> index(List<MenuItemResponseDto> menuItems) {
+        return menuItems.stream().collect(Collectors.toMap(MenuItemResponseDto::getId, Function.identity()));
+    }
+    
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.fooddelivery.restaurant.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Gives this instance a node id that no other running instance holds, by leasing one of the
+ * {@link ShardedIds#MAX_NODES} rows in id_node_leases on shard 0. The lease is renewed on a
+ * schedule and released on shutdown. If a renewal finds the lease gone (the instance stalled past
+ * its expiry and another one took the id over), id generation stops until a new id is leased.
+ * Lease times are taken from the database clock so instances with skewed clocks agree.
+ */
+public class NodeIdLease implements SmartInitializingSingleton, DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(NodeIdLease.class);
+    
+    private static final String EXPIRES = "TIMESTAMPADD(SECOND, :seconds, CURRENT_TIMESTAMP)";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int leaseSeconds;
+    private final String instanceId;
+    private volatile int nodeId = -1;
+    
+    public NodeIdLease(NamedParameterJdbcTemplate jdbcTemplate, ShardingProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseSeconds = properties.getNodeLeaseSeconds();
+        this.instanceId = hostName() + "/" + UUID.randomUUID();
+    }
+    
+    /**
+     * Runs once the session factory has created id_node_leases and before the application takes
+     * traffic, so no id is generated without a lease.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!claim()) {
+            throw new IllegalStateException("All " + ShardedIds.MAX_NODES + " node ids are leased by running instances");
+        }
+    }
+    
+    @Scheduled(initialDelayString = "${restaurant.sharding.node-lease-renew-ms:15000}",
+               fixedDelayString = "${restaurant.sharding.node-lease-renew-ms:15000}")
+    public void renew() {
+        int node = nodeId;
+        if (node >= 0 && ShardContext.callOn(0, () -> jdbcTemplate.update(
+                "UPDATE id_node_leases SET expires_at = " + EXPIRES
+                    + " WHERE node_id = :nodeId AND instance_id = :instanceId",
+                Map.of("seconds", leaseSeconds, "nodeId", node, "instanceId", instanceId))) == 1) {
+            return;
+        }
+        if (node >= 0) {
+            log.error("Lost the lease on node id {}; generating no ids until a new one is leased", node);
+            ShardedIds.clearNode();
+            nodeId = -1;
+        }
+        if (!claim()) {
+            log.error("No node id is free; inserts that need a generated id will fail");
+        }
+    }
+    
+    public int getNodeId() {
+        return nodeId;
+    }
+    
+    @Override
+    public void destroy() {
+        int node = nodeId;
+        if (node < 0) {
+            return;
+        }
+        ShardedIds.clearNode();
+        try {
+            ShardContext.runOn(0, () -> jdbcTemplate.update(
+                "DELETE FROM id_node_leases WHERE node_id = :nodeId AND instance_id = :instanceId",
+                Map.of("nodeId", node, "instanceId", instanceId)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to release node id {}; it is free again once the lease expires", node, e);
+        }
+    }
+    
+    private boolean claim() {
+        for (int node = 0; node < ShardedIds.MAX_NODES; node++) {
+            Map<String, Object> params = leaseParams(node);
+            if (ShardContext.callOn(0, () -> tryClaim(params))) {
+                ShardedIds.configureNode(node);
+                nodeId = node;
+                log.info("Leased node id {} as {}", node, instanceId);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean tryClaim(Map<String, Object> params) {
+        try {
+            return jdbcTemplate.update("INSERT INTO id_node_leases (node_id, instance_id, expires_at) "
+                + "VALUES (:nodeId, :instanceId, " + EXPIRES + ")", params) == 1;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.update("UPDATE id_node_leases SET instance_id = :instanceId, expires_at = " + EXPIRES
+                + " WHERE node_id = :nodeId AND expires_at < CURRENT_TIMESTAMP", params) == 1;
+        }
+    }
+    
+    private Map<String, Object> leaseParams(int node) {
+        return Map.of("nodeId", node, "instanceId", instanceId, "seconds", leaseSeconds);
+    }
+    
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fooddelivery.restaurant.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread's database work is routed to.
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static Integer current() {
+        return CURRENT.get();
+    }
+    
+    public static <T> T callOn(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    public static void runOn(int shard, Runnable work) {
+        callOn(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+    
+    static void set(int shard) {
+        CURRENT.set(shard);
+    }
+}
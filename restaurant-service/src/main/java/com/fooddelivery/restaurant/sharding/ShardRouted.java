@@ -0,0 +1,15 @@
+package com.fooddelivery.restaurant.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the invocation to the shard encoded in its first {@code Long} argument (a restaurant
+ * or menu item id). Methods without one are routed to the shard chosen for new restaurants.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ShardRouted {
+}
@@ -0,0 +1,117 @@
+package com.fooddelivery.restaurant.sharding;
+
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Maps restaurant and menu item ids to shards and fans queries without a shard key out to all shards.
+ */
+@Component
+public class ShardRouter implements DisposableBean {
+    
+    private final int shardCount;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService fanOutExecutor;
+    
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        if (shardCount < 1 || shardCount > ShardedIds.MAX_SHARDS) {
+            throw new IllegalStateException("Between 1 and " + ShardedIds.MAX_SHARDS + " shards must be configured");
+        }
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fanOutExecutor = shardCount > 1
+            ? Executors.newFixedThreadPool(shardCount * 2, runnable -> {
+                Thread thread = new Thread(runnable, "shard-fan-out-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+    }
+    
+    public int shardCount() {
+        return shardCount;
+    }
+    
+    public int shardOf(long id) {
+        if (shardCount == 1) {
+            // Unsharded ids come from auto-increment columns and carry no shard bits
+            return 0;
+        }
+        int shard = ShardedIds.shardOf(id);
+        if (shard >= shardCount) {
+            throw new ResourceNotFoundException("No shard holds id: " + id);
+        }
+        return shard;
+    }
+    
+    public int shardForNewRestaurant() {
+        return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+    }
+    
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return byShard;
+    }
+    
+    /**
+     * Runs the query on every shard in parallel and concatenates the results in shard order.
+     */
+    public <T> List<T> fanOut(Supplier<List<T>> query) {
+        Map<Integer, List<Long>> everyShard = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            everyShard.put(shard, List.of());
+        }
+        return fanOut(everyShard, ids -> query.get());
+    }
+    
+    /**
+     * Runs the query once per shard with that shard's ids, in parallel, and concatenates the
+     * results in shard order.
+     */
+    public <T> List<T> fanOut(Map<Integer, List<Long>> idsByShard, Function<List<Long>, List<T>> query) {
+        if (idsByShard.size() == 1) {
+            Map.Entry<Integer, List<Long>> only = idsByShard.entrySet().iterator().next();
+            return ShardContext.callOn(only.getKey(), () -> query.apply(only.getValue()));
+        }
+        
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(idsByShard.size());
+        idsByShard.forEach((shard, ids) -> futures.add(
+            CompletableFuture.supplyAsync(() -> ShardContext.callOn(shard, () -> query.apply(ids)), fanOutExecutor)));
+        
+        List<T> merged = new ArrayList<>();
+        try {
+            futures.forEach(future -> merged.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return merged;
+    }
+    
+    @Override
+    public void destroy() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.fooddelivery.restaurant.sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs ahead of the transaction interceptor so the connection is acquired from the routed shard.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+    
+    private final ShardRouter shardRouter;
+    
+    public ShardRoutingAspect(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+    
+    @Around("@annotation(com.fooddelivery.restaurant.sharding.ShardRouted)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        int shard = resolveShard(joinPoint.getArgs());
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+    
+    private int resolveShard(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Long id) {
+                return shardRouter.shardOf(id);
+            }
+        }
+        Integer current = ShardContext.current();
+        return current != null ? current : shardRouter.shardForNewRestaurant();
+    }
+}
@@ -0,0 +1,25 @@
+package com.fooddelivery.restaurant.sharding;
+
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.function.Function;
+
+/**
+ * Reactive counterpart of {@link ShardRoutingDataSource}. The shard travels in the subscriber
+ * context instead of a thread local, since a reactive pipeline hops between threads.
+ */
+public class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+    
+    private static final String SHARD_KEY = ShardRoutingConnectionFactory.class.getName() + ".shard";
+    
+    public static Function<Context, Context> on(int shard) {
+        return context -> context.put(SHARD_KEY, shard);
+    }
+    
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(SHARD_KEY)));
+    }
+}
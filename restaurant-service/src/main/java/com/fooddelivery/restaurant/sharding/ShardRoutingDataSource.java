@@ -0,0 +1,12 @@
+package com.fooddelivery.restaurant.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // No shard bound means shard 0, which is also where schema management and health checks go
+        return ShardContext.current();
+    }
+}
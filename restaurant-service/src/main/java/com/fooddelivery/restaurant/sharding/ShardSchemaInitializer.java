@@ -0,0 +1,50 @@
+package com.fooddelivery.restaurant.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Hibernate only manages the schema of the connection it boots with (shard 0). This replays the
+ * same ddl-auto action against every other shard once the session factory is up.
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+    
+    private final ShardRouter shardRouter;
+    private Metadata metadata;
+    private SessionFactoryImplementor sessionFactory;
+    
+    public ShardSchemaInitializer(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+    
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+    
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            return;
+        }
+        for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+            ShardContext.runOn(shard, () -> SchemaManagementToolCoordinator.process(
+                metadata,
+                sessionFactory.getServiceRegistry(),
+                sessionFactory.getProperties(),
+                action -> { }
+            ));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fooddelivery.restaurant.sharding;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.mapping.SimpleValue;
+
+import java.lang.reflect.Member;
+
+/**
+ * With sharding enabled, assigns {@link ShardedIds} for the current shard before the insert.
+ * Otherwise the column's auto-increment assigns the id, as it did before sharding existed, so a
+ * single-database deployment needs no node id coordination between its instances.
+ */
+public class ShardedIdGenerator extends IdentityGenerator implements BeforeExecutionGenerator {
+    
+    public static final String SHARDING_ENABLED = "restaurant.sharding.enabled";
+    
+    private final boolean sharded;
+    
+    public ShardedIdGenerator(ShardedId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().requireService(ConfigurationService.class)
+            .getSettings().get(SHARDING_ENABLED);
+        this.sharded = Boolean.parseBoolean(String.valueOf(setting));
+        if (!sharded && context.getRootClass().getIdentifier() instanceof SimpleValue identifier) {
+            // Schema tooling decides on an auto-increment column from the table's identifier
+            // value and its strategy name, neither of which a custom generator sets
+            identifier.setIdentifierGeneratorStrategy("identity");
+            identifier.getTable().setIdentifierValue(identifier);
+        }
+    }
+    
+    @Override
+    public boolean generatedOnExecution() {
+        return !sharded;
+    }
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        Integer shard = ShardContext.current();
+        return ShardedIds.next(shard != null ? shard : 0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.fooddelivery.restaurant.sharding;
+
+import java.time.Instant;
+
+/**
+ * Generates ids that carry the shard they were created on, so any restaurant or menu item id
+ * can be routed without a lookup.
+ *
+ * Layout (53 bits, safe as a JSON number): 31 bits of seconds since 2024-01-01, 5 bits shard,
+ * 5 bits node, 12 bits sequence. Ids below 2^22 were issued by the old auto-increment columns
+ * and always live on shard 0. The node id is leased per instance by {@link NodeIdLease}; until
+ * one is held no ids are generated.
+ */
+public final class ShardedIds {
+    
+    public static final int MAX_SHARDS = 32;
+    public static final int MAX_NODES = 32;
+    
+    private static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 5;
+    private static final int SHARD_BITS = 5;
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final int TIME_SHIFT = SEQUENCE_BITS + NODE_BITS + SHARD_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long LEGACY_ID_LIMIT = 1L << TIME_SHIFT;
+    
+    private static volatile int nodeId = -1;
+    private static long lastSecond = -1;
+    private static long sequence;
+    
+    private ShardedIds() {
+    }
+    
+    static void configureNode(int node) {
+        if (node < 0 || node >= MAX_NODES) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (MAX_NODES - 1));
+        }
+        nodeId = node;
+    }
+    
+    static void clearNode() {
+        nodeId = -1;
+    }
+    
+    public static int shardOf(long id) {
+        if (id < LEGACY_ID_LIMIT) {
+            return 0;
+        }
+        return (int) ((id >>> SHARD_SHIFT) & (MAX_SHARDS - 1));
+    }
+    
+    public static synchronized long next(int shard) {
+        int node = nodeId;
+        if (node < 0) {
+            throw new IllegalStateException("This instance holds no node id lease, so no id can be generated");
+        }
+        long second = Instant.now().getEpochSecond() - EPOCH_SECONDS;
+        if (second < lastSecond) {
+            // Clock moved backwards; keep issuing from the last second we used
+            second = lastSecond;
+        }
+        if (second == lastSecond) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                second = waitForNextSecond(lastSecond);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastSecond = second;
+        return (second << TIME_SHIFT) | ((long) shard << SHARD_SHIFT) | ((long) node << NODE_SHIFT) | sequence;
+    }
+    
+    private static long waitForNextSecond(long current) {
+        long second;
+        do {
+            Thread.onSpinWait();
+            second = Instant.now().getEpochSecond() - EPOCH_SECONDS;
+        } while (second <= current);
+        return second;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fooddelivery.restaurant.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "restaurant.sharding")
+public class ShardingProperties {
+    
+    private boolean enabled;
+    
+    // Node ids are leased from shard 0 for this long and renewed well before it runs out
+    private int nodeLeaseSeconds = 60;
+    
+    private List<Shard> shards = new ArrayList<>();
+    
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        
+        // Same database as url, used by the reactive read path
+        private String r2dbcUrl;
+    }
+}
@@ -0,0 +1,43 @@
+package com.fooddelivery.restaurant.slowquery;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which Spring Data repository method the current thread is inside, so a slow statement
+ * can be traced back to it. The label is only built when a statement is actually recorded.
+ */
+@Aspect
+@Component
+public class RepositoryCallTracker {
+    
+    private static final ThreadLocal<ProceedingJoinPoint> CURRENT = new ThreadLocal<>();
+    
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        ProceedingJoinPoint previous = CURRENT.get();
+        CURRENT.set(joinPoint);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+    
+    static String current() {
+        ProceedingJoinPoint joinPoint = CURRENT.get();
+        if (joinPoint == null) {
+            return null;
+        }
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        String repository = interfaces.length > 0 ? interfaces[0].getSimpleName() : joinPoint.getSignature().getDeclaringTypeName();
+        return repository + "." + joinPoint.getSignature().getName();
+    }
+}
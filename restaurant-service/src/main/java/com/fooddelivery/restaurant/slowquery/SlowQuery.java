@@ -0,0 +1,80 @@
+package com.fooddelivery.restaurant.slowquery;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recorded slow statement. The plan is filled in later by the background EXPLAIN and stays
+ * null when the statement cannot be explained.
+ */
+public final class SlowQuery {
+    
+    private final Instant executedAt;
+    private final double durationMs;
+    private final String sql;
+    private final List<String> parameters;
+    private final int batchSize;
+    private final String repositoryMethod;
+    private final String route;
+    private final String thread;
+    private final Integer shard;
+    private volatile List<Map<String, Object>> plan;
+    
+    SlowQuery(Instant executedAt, double durationMs, String sql, List<String> parameters, int batchSize,
+              String repositoryMethod, String route, String thread, Integer shard) {
+        this.executedAt = executedAt;
+        this.durationMs = durationMs;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.batchSize = batchSize;
+        this.repositoryMethod = repositoryMethod;
+        this.route = route;
+        this.thread = thread;
+        this.shard = shard;
+    }
+    
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+    
+    public double getDurationMs() {
+        return durationMs;
+    }
+    
+    public String getSql() {
+        return sql;
+    }
+    
+    public List<String> getParameters() {
+        return parameters;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public String getRepositoryMethod() {
+        return repositoryMethod;
+    }
+    
+    public String getRoute() {
+        return route;
+    }
+    
+    public String getThread() {
+        return thread;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public List<Map<String, Object>> getPlan() {
+        return plan;
+    }
+    
+    void setPlan(List<Map<String, Object>> plan) {
+        this.plan = plan;
+    }
+}
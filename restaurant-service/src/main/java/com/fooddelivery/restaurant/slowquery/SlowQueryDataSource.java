@@ -0,0 +1,141 @@
+package com.fooddelivery.restaurant.slowquery;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Times every statement executed through the wrapped DataSource and hands it to the recorder
+ * together with its SQL and bind values. Connections and statements are JDK proxies, so
+ * everything the recorder does not need passes straight through to the driver.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+    
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Object[] NO_PARAMETERS = new Object[0];
+    
+    private final SlowQueryRecorder recorder;
+    
+    public SlowQueryDataSource(DataSource target, SlowQueryRecorder recorder) {
+        super(target);
+        this.recorder = recorder;
+        // Plans are collected on the unwrapped DataSource so EXPLAINs are never recorded themselves
+        recorder.setExplainDataSource(target);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+    
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (isIdentityMethod(method)) {
+                    return identity(proxy, method, args);
+                }
+                Object result = invoke(connection, method, args);
+                return switch (method.getName()) {
+                    case "prepareStatement", "prepareCall" -> wrap((Statement) result, (String) args[0]);
+                    case "createStatement" -> wrap((Statement) result, null);
+                    default -> result;
+                };
+            });
+    }
+    
+    private Statement wrap(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        StatementState state = new StatementState(preparedSql);
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                if (isIdentityMethod(method)) {
+                    return identity(proxy, method, args);
+                }
+                String name = method.getName();
+                if (EXECUTE_METHODS.contains(name)) {
+                    return execute(statement, state, method, args);
+                }
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    state.bind(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    state.clear();
+                } else if (name.equals("addBatch")) {
+                    state.batchSize++;
+                }
+                return invoke(statement, method, args);
+            });
+    }
+    
+    private Object execute(Statement statement, StatementState state, Method method, Object[] args) throws Throwable {
+        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : state.sql;
+        long start = System.nanoTime();
+        try {
+            return invoke(statement, method, args);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            boolean batch = method.getName().endsWith("Batch");
+            recorder.record(sql, state.parameters, state.parameterCount, batch ? state.batchSize : 0, elapsed);
+            if (batch) {
+                state.batchSize = 0;
+            }
+        }
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+    }
+    
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+    
+    private static final class StatementState {
+        
+        private final String sql;
+        private Object[] parameters = NO_PARAMETERS;
+        private int parameterCount;
+        private int batchSize;
+        
+        StatementState(String sql) {
+            this.sql = sql;
+        }
+        
+        void bind(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+        
+        void clear() {
+            Arrays.fill(parameters, null);
+            parameterCount = 0;
+        }
+    }
+}
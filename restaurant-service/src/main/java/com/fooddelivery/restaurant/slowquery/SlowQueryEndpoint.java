@@ -0,0 +1,35 @@
+package com.fooddelivery.restaurant.slowquery;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recent slow statements with bind values, caller and plan at /actuator/slowqueries; DELETE clears them.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+    
+    private final SlowQueryRecorder recorder;
+    
+    public SlowQueryEndpoint(SlowQueryRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> response = new LinkedHashMap<>(recorder.stats());
+        response.put("queries", recorder.recent());
+        return response;
+    }
+    
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+}
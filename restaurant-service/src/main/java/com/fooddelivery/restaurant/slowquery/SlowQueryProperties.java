@@ -0,0 +1,26 @@
+package com.fooddelivery.restaurant.slowquery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "restaurant.slow-query")
+public class SlowQueryProperties {
+    
+    private boolean enabled = true;
+    
+    // Statements running at least this long are recorded
+    private long thresholdMs = 200;
+    
+    // Most recent slow statements kept; older ones are overwritten
+    private int capacity = 256;
+    
+    // Bind values may hold customer data, so they are only kept where that is acceptable
+    private boolean captureParameters = false;
+    private int maxParameterLength = 100;
+    
+    // Plans are collected once per statement text within this window
+    private boolean explain = true;
+    private long explainCacheTtlMs = 600000;
+    private int explainTimeoutSeconds = 5;
+}
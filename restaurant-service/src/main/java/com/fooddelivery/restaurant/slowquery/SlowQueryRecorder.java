@@ -0,0 +1,214 @@
+package com.fooddelivery.restaurant.slowquery;
+
+import com.fooddelivery.restaurant.sharding.ShardContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent statements that ran past the threshold in a fixed-size ring, with their
+ * bind values, the repository method and HTTP route they ran for, and an EXPLAIN plan collected
+ * in the background. Statements under the threshold cost one comparison.
+ */
+@Component
+public class SlowQueryRecorder implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryRecorder.class);
+    
+    private static final int EXPLAIN_QUEUE_SIZE = 64;
+    
+    private final SlowQueryProperties properties;
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowQuery> ring;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong explainsDropped = new AtomicLong();
+    private final Cache<String, List<Map<String, Object>>> plans;
+    private final ThreadPoolExecutor explainExecutor;
+    private volatile DataSource explainDataSource;
+    
+    public SlowQueryRecorder(SlowQueryProperties properties) {
+        this.properties = properties;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getThresholdMs());
+        this.ring = new AtomicReferenceArray<>(properties.getCapacity());
+        this.plans = Caffeine.newBuilder()
+            .maximumSize(512)
+            .expireAfterWrite(Duration.ofMillis(properties.getExplainCacheTtlMs()))
+            .build();
+        // One thread and a short queue: plans are best effort and must not add load while the database is struggling
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, (runnable, executor) -> explainsDropped.incrementAndGet());
+    }
+    
+    void setExplainDataSource(DataSource dataSource) {
+        this.explainDataSource = dataSource;
+    }
+    
+    void record(String sql, Object[] parameters, int parameterCount, int batchSize, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos || sql == null) {
+            return;
+        }
+        Integer shard = ShardContext.current();
+        SlowQuery query = new SlowQuery(Instant.now(), elapsedNanos / 1_000_000.0, sql,
+            properties.isCaptureParameters() ? format(parameters, parameterCount) : null, batchSize,
+            RepositoryCallTracker.current(), route(), Thread.currentThread().getName(), shard);
+        long index = recorded.getAndIncrement();
+        ring.set((int) (index % ring.length()), query);
+        
+        if (properties.isExplain() && batchSize == 0 && isExplainable(sql)) {
+            List<Map<String, Object>> cached = plans.getIfPresent(sql);
+            if (cached != null) {
+                query.setPlan(cached);
+            } else {
+                Object[] values = Arrays.copyOf(parameters, parameterCount);
+                explainExecutor.execute(() -> query.setPlan(plans.get(sql, key -> explain(key, values, shard))));
+            }
+        }
+    }
+    
+    /**
+     * Recorded statements, newest first.
+     */
+    public List<SlowQuery> recent() {
+        List<SlowQuery> queries = new ArrayList<>(ring.length());
+        long last = recorded.get();
+        for (long index = last - 1; index >= Math.max(0, last - ring.length()); index--) {
+            SlowQuery query = ring.get((int) (index % ring.length()));
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        return queries;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+        plans.invalidateAll();
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("thresholdMs", properties.getThresholdMs());
+        stats.put("capacity", ring.length());
+        stats.put("recorded", recorded.get());
+        stats.put("explainsDropped", explainsDropped.get());
+        return stats;
+    }
+    
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+    
+    private List<Map<String, Object>> explain(String sql, Object[] parameters, Integer shard) {
+        DataSource dataSource = explainDataSource;
+        if (dataSource == null) {
+            return null;
+        }
+        try {
+            return shard != null ? ShardContext.callOn(shard, () -> runExplain(dataSource, sql, parameters))
+                : runExplain(dataSource, sql, parameters);
+        } catch (RuntimeException e) {
+            log.debug("Could not explain slow statement {}", sql, e);
+            return List.of(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+    
+    private List<Map<String, Object>> runExplain(DataSource dataSource, String sql, Object[] parameters) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            statement.setQueryTimeout(properties.getExplainTimeoutSeconds());
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            List<Map<String, Object>> rows = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        row.put(metaData.getColumnLabel(column), resultSet.getObject(column));
+                    }
+                    rows.add(row);
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+    
+    private static boolean isExplainable(String sql) {
+        String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with")
+            || start.startsWith("update") || start.startsWith("delete");
+    }
+    
+    private List<String> format(Object[] parameters, int count) {
+        List<String> formatted = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            formatted.add(format(parameters[i]));
+        }
+        return formatted;
+    }
+    
+    private String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        if (value instanceof InputStream || value instanceof Reader) {
+            return "<stream>";
+        }
+        String text = value.toString();
+        int max = properties.getMaxParameterLength();
+        return text.length() <= max ? text : text.substring(0, max) + "...";
+    }
+    
+    private static String route() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
@@ -0,0 +1,154 @@
+package com.fooddelivery.restaurant.trending;
+
+import com.fooddelivery.restaurant.affinity.PeerForwardVerifier;
+import com.fooddelivery.restaurant.affinity.RestaurantAffinityFilter;
+import com.fooddelivery.restaurant.affinity.RestaurantAffinityRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trending rankings across every instance. Each instance only counts the views it served itself,
+ * so its own ranking is merged with the top entries of every peer, read over a signed internal
+ * request. Merged rankings are kept for {@code merge-ttl-ms} so trending reads do not fan out
+ * each time. A peer that does not answer in time is left out of the merge.
+ */
+@Component
+public class ClusterTrending {
+    
+    public static final String PEER_PATH = "/internal/trending";
+    
+    private static final Logger log = LoggerFactory.getLogger(ClusterTrending.class);
+    
+    private static final long ALL_RESTAURANTS = -1;
+    
+    private final TrendingTracker trendingTracker;
+    private final RestaurantAffinityRouter affinityRouter;
+    private final PeerForwardVerifier peerForwardVerifier;
+    private final RestClient restClient;
+    private final Cache<Key, List<TrendingEntry>> merged;
+    private final LongAdder peerFailures = new LongAdder();
+    
+    public ClusterTrending(TrendingTracker trendingTracker,
+                           RestaurantAffinityRouter affinityRouter,
+                           PeerForwardVerifier peerForwardVerifier,
+                           @Value("${restaurant.trending.merge-ttl-ms:2000}") long mergeTtlMs,
+                           @Value("${restaurant.affinity.forward-timeout-ms:2000}") int peerTimeoutMs) {
+        this.trendingTracker = trendingTracker;
+        this.affinityRouter = affinityRouter;
+        this.peerForwardVerifier = peerForwardVerifier;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Math.min(peerTimeoutMs, 500));
+        requestFactory.setReadTimeout(peerTimeoutMs);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.merged = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(mergeTtlMs))
+            .maximumSize(10_000)
+            .build();
+    }
+    
+    /**
+     * The most viewed menu items of one restaurant, or of all restaurants when the id is null,
+     * counted on every instance.
+     */
+    public List<TrendingEntry> top(Long restaurantId, int limit) {
+        List<ServiceInstance> peers = affinityRouter.peers();
+        if (peers.isEmpty()) {
+            return local(restaurantId, limit);
+        }
+        Key key = new Key(restaurantId != null ? restaurantId : ALL_RESTAURANTS, limit);
+        return merged.get(key, ignored -> {
+            List<List<TrendingEntry>> rankings = new ArrayList<>(peers.size() + 1);
+            rankings.add(local(restaurantId, limit));
+            for (ServiceInstance peer : peers) {
+                List<TrendingEntry> ranking = fetch(peer, restaurantId, limit);
+                if (ranking != null) {
+                    rankings.add(ranking);
+                }
+            }
+            return merge(rankings, limit);
+        });
+    }
+    
+    public List<TrendingEntry> local(Long restaurantId, int limit) {
+        return restaurantId != null ? trendingTracker.top(restaurantId, limit) : trendingTracker.top(limit);
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("peers", affinityRouter.peers().size());
+        stats.put("mergedRankingsCached", merged.estimatedSize());
+        stats.put("peerFetchFailures", peerFailures.sum());
+        return stats;
+    }
+    
+    /**
+     * Adds up the rankings of several instances. Views an instance does not list are unknown but
+     * at most the lowest count it did list, once its ranking is full, so that amount is added to
+     * both the views and the error of the merged entry.
+     */
+    static List<TrendingEntry> merge(List<List<TrendingEntry>> rankings, int limit) {
+        double[] floors = new double[rankings.size()];
+        Map<Long, TrendingEntry> totals = new HashMap<>();
+        Map<Long, Double> listedFloors = new HashMap<>();
+        for (int i = 0; i < rankings.size(); i++) {
+            List<TrendingEntry> ranking = rankings.get(i);
+            floors[i] = ranking.size() < limit ? 0
+                : ranking.stream().mapToDouble(TrendingEntry::views).min().orElse(0);
+            for (TrendingEntry entry : ranking) {
+                listedFloors.merge(entry.menuItemId(), floors[i], Double::sum);
+                totals.merge(entry.menuItemId(), entry, (a, b) ->
+                    new TrendingEntry(a.menuItemId(), a.restaurantId(), a.views() + b.views(), a.error() + b.error()));
+            }
+        }
+        double floorSum = 0;
+        for (double floor : floors) {
+            floorSum += floor;
+        }
+        List<TrendingEntry> entries = new ArrayList<>(totals.size());
+        for (TrendingEntry total : totals.values()) {
+            double unlisted = floorSum - listedFloors.get(total.menuItemId());
+            entries.add(new TrendingEntry(total.menuItemId(), total.restaurantId(),
+                total.views() + unlisted, total.error() + unlisted));
+        }
+        entries.sort(Comparator.comparingDouble((TrendingEntry entry) -> entry.views() - entry.error()).reversed());
+        return entries.size() > limit ? List.copyOf(entries.subList(0, limit)) : entries;
+    }
+    
+    private List<TrendingEntry> fetch(ServiceInstance peer, Long restaurantId, int limit) {
+        String pathAndQuery = PEER_PATH + "?limit=" + limit + (restaurantId != null ? "&restaurantId=" + restaurantId : "");
+        String self = String.valueOf(affinityRouter.selfInstanceId());
+        try {
+            TrendingEntry[] entries = restClient.get()
+                .uri(URI.create(peer.getUri() + pathAndQuery))
+                .header(RestaurantAffinityFilter.FORWARDED_HEADER, self)
+                .header(PeerForwardVerifier.SIGNATURE_HEADER, peerForwardVerifier.sign(self, "GET", pathAndQuery))
+                .retrieve()
+                .body(TrendingEntry[].class);
+            return entries != null ? List.of(entries) : List.of();
+        } catch (RuntimeException e) {
+            peerFailures.increment();
+            log.debug("Leaving {} out of the trending merge", peer.getInstanceId(), e);
+            return null;
+        }
+    }
+    
+    private record Key(long restaurantId, int limit) {
+    }
+}
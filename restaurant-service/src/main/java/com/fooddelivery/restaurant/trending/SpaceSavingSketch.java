@@ -0,0 +1,198 @@
+package com.fooddelivery.restaurant.trending;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k summary over exponentially decayed counts. At most {@code capacity} counters
+ * are kept in an indexed min-heap; an unseen key takes over the smallest counter and inherits its
+ * count as an error bound, so every key whose decayed count exceeds total / capacity is present and
+ * none is overestimated by more than its error. Decay is applied forward: a hit at time t adds
+ * e^((t - landmark) / tau), and the counters are rescaled to a new landmark before those weights
+ * grow too large. Not thread-safe.
+ */
+final class SpaceSavingSketch {
+    
+    // e^32 leaves plenty of double precision for the increments that follow before the next rescale
+    private static final double RESCALE_EXPONENT = 32;
+    
+    private final int capacity;
+    private final long[] keys;
+    private final long[] groups;
+    private final double[] counts;
+    private final double[] errors;
+    private final Map<Long, Integer> positions;
+    private int size;
+    private long landmarkMillis;
+    
+    SpaceSavingSketch(int capacity, long landmarkMillis) {
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.groups = new long[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.positions = new HashMap<>(capacity * 4 / 3 + 1);
+        this.landmarkMillis = landmarkMillis;
+    }
+    
+    /**
+     * Counts one hit for the key. The group travels with the key so callers can resolve it
+     * without a lookup; it is replaced along with the key when a counter is taken over.
+     */
+    void add(long key, long group, long nowMillis, double tauMillis) {
+        double exponent = (nowMillis - landmarkMillis) / tauMillis;
+        if (exponent > RESCALE_EXPONENT) {
+            scale(Math.exp(-exponent));
+            landmarkMillis = nowMillis;
+            exponent = 0;
+        }
+        double weight = Math.exp(exponent);
+        
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            set(size, key, group, weight, 0);
+            siftUp(size++);
+        } else {
+            positions.remove(keys[0]);
+            set(0, key, group, counts[0] + weight, counts[0]);
+            siftDown(0);
+        }
+    }
+    
+    /**
+     * Drops every counter of the group, for example when a restaurant is deleted.
+     */
+    void removeGroup(long group) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (groups[i] == group) {
+                positions.remove(keys[i]);
+            } else {
+                set(kept++, keys[i], groups[i], counts[i], errors[i]);
+            }
+        }
+        size = kept;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+    
+    /**
+     * The counters decayed to {@code nowMillis}, highest guaranteed count (count - error) first.
+     * Ranking by the lower bound keeps keys that only just took over a counter, and mostly carry
+     * its inherited error, from outranking keys that earned their count.
+     */
+    List<Counter> top(int limit, long nowMillis, double tauMillis) {
+        double decay = Math.exp(-(nowMillis - landmarkMillis) / tauMillis);
+        List<Counter> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter(keys[i], groups[i], counts[i] * decay, errors[i] * decay));
+        }
+        counters.sort(Comparator.comparingDouble(Counter::guaranteed).reversed());
+        return counters.size() > limit ? new ArrayList<>(counters.subList(0, limit)) : counters;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(landmarkMillis);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(keys[i]);
+            out.writeLong(groups[i]);
+            out.writeDouble(counts[i]);
+            out.writeDouble(errors[i]);
+        }
+    }
+    
+    /**
+     * Reads a sketch written by {@link #write}, keeping the largest counters if it was written
+     * with a bigger capacity.
+     */
+    static SpaceSavingSketch read(DataInputStream in, int capacity) throws IOException {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity, in.readLong());
+        int count = in.readInt();
+        List<Counter> counters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            counters.add(new Counter(in.readLong(), in.readLong(), in.readDouble(), in.readDouble()));
+        }
+        counters.sort(Comparator.comparingDouble(Counter::count).reversed());
+        for (Counter counter : counters.subList(0, Math.min(capacity, counters.size()))) {
+            sketch.set(sketch.size, counter.key(), counter.group(), counter.count(), counter.error());
+            sketch.siftUp(sketch.size++);
+        }
+        return sketch;
+    }
+    
+    private void scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            counts[i] *= factor;
+            errors[i] *= factor;
+        }
+    }
+    
+    private void set(int position, long key, long group, double count, double error) {
+        keys[position] = key;
+        groups[position] = group;
+        counts[position] = count;
+        errors[position] = error;
+        positions.put(key, position);
+    }
+    
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+    
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+    
+    private void swap(int a, int b) {
+        long key = keys[a];
+        long group = groups[a];
+        double count = counts[a];
+        double error = errors[a];
+        set(a, keys[b], groups[b], counts[b], errors[b]);
+        set(b, key, group, count, error);
+    }
+    
+    record Counter(long key, long group, double count, double error) {
+        
+        double guaranteed() {
+            return count - error;
+        }
+    }
+}
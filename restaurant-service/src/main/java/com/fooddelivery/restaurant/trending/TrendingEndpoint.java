@@ -0,0 +1,32 @@
+package com.fooddelivery.restaurant.trending;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracked restaurants, counters in use, views recorded, the last persist and peer merges at
+ * /actuator/trending.
+ */
+@Component
+@Endpoint(id = "trending")
+public class TrendingEndpoint {
+    
+    private final TrendingTracker trendingTracker;
+    private final ClusterTrending clusterTrending;
+    
+    public TrendingEndpoint(TrendingTracker trendingTracker, ClusterTrending clusterTrending) {
+        this.trendingTracker = trendingTracker;
+        this.clusterTrending = clusterTrending;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> trending() {
+        Map<String, Object> stats = new LinkedHashMap<>(trendingTracker.stats());
+        stats.put("cluster", clusterTrending.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,8 @@
+package com.fooddelivery.restaurant.trending;
+
+/**
+ * A tracked menu item with its decayed view count. The true count lies between
+ * {@code views - error} and {@code views}.
+ */
+public record TrendingEntry(Long menuItemId, Long restaurantId, double views, double error) {
+}
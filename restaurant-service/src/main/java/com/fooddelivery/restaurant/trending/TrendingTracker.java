@@ -0,0 +1,268 @@
+package com.fooddelivery.restaurant.trending;
+
+import com.fooddelivery.restaurant.event.RestaurantChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts menu item views in fixed memory: one Space-Saving sketch across all restaurants and one
+ * per restaurant, for at most {@code max-restaurants} restaurants at a time. Counts decay with the
+ * configured half-life, so the ranking follows what is popular now rather than all time. The
+ * sketches are written to a small file periodically and on shutdown and read back on startup.
+ * Views are buffered per thread stripe and drained into the sketches every
+ * {@code drain-interval-ms}, so request threads never contend on the sketches themselves. Counts
+ * are per instance; {@link ClusterTrending} merges them across instances.
+ */
+@Component
+public class TrendingTracker implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(TrendingTracker.class);
+    
+    private static final int MAGIC = 0x54524E31;
+    
+    private final boolean enabled;
+    private final int restaurantCapacity;
+    private final double tauMillis;
+    private final Path path;
+    private final SpaceSavingSketch global;
+    private final Cache<Long, SpaceSavingSketch> restaurants;
+    private final ViewBuffer buffer;
+    // Held by whichever thread is moving buffered views into the sketches
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long lastPersistBytes;
+    private volatile long lastPersistMillis;
+    
+    public TrendingTracker(@Value("${restaurant.trending.enabled:true}") boolean enabled,
+                           @Value("${restaurant.trending.half-life-ms:3600000}") long halfLifeMs,
+                           @Value("${restaurant.trending.global-capacity:512}") int globalCapacity,
+                           @Value("${restaurant.trending.restaurant-capacity:32}") int restaurantCapacity,
+                           @Value("${restaurant.trending.max-restaurants:5000}") int maxRestaurants,
+                           @Value("${restaurant.trending.path:data/trending.bin}") String path,
+                           @Value("${restaurant.trending.buffer-stripes:0}") int bufferStripes,
+                           @Value("${restaurant.trending.buffer-capacity:1024}") int bufferCapacity) {
+        this.enabled = enabled;
+        this.restaurantCapacity = restaurantCapacity;
+        this.tauMillis = halfLifeMs / Math.log(2);
+        this.path = Path.of(path);
+        this.restaurants = Caffeine.newBuilder()
+            .maximumSize(maxRestaurants)
+            .build();
+        int stripes = bufferStripes > 0 ? bufferStripes : 4 * Runtime.getRuntime().availableProcessors();
+        this.buffer = new ViewBuffer(stripes, bufferCapacity);
+        this.global = load(globalCapacity);
+    }
+    
+    public void recordView(Long restaurantId, Long menuItemId) {
+        if (!enabled || restaurantId == null || menuItemId == null) {
+            return;
+        }
+        if (buffer.offer(restaurantId, menuItemId)) {
+            return;
+        }
+        // The stripe filled up between drains: empty it here unless a drain is already running
+        if (drainLock.tryLock()) {
+            try {
+                drainBuffered();
+            } finally {
+                drainLock.unlock();
+            }
+            if (buffer.offer(restaurantId, menuItemId)) {
+                return;
+            }
+        }
+        dropped.increment();
+    }
+    
+    @Scheduled(fixedDelayString = "${restaurant.trending.drain-interval-ms:100}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        drainLock.lock();
+        try {
+            drainBuffered();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+    
+    /**
+     * The most viewed menu items across all restaurants, most guaranteed views first. Items that
+     * were deleted may still be listed until they decay out.
+     */
+    public List<TrendingEntry> top(int limit) {
+        synchronized (global) {
+            return toEntries(global.top(limit, System.currentTimeMillis(), tauMillis));
+        }
+    }
+    
+    public List<TrendingEntry> top(Long restaurantId, int limit) {
+        SpaceSavingSketch sketch = restaurants.getIfPresent(restaurantId);
+        if (sketch == null) {
+            return List.of();
+        }
+        synchronized (sketch) {
+            return toEntries(sketch.top(limit, System.currentTimeMillis(), tauMillis));
+        }
+    }
+    
+    @EventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (!event.deleted()) {
+            return;
+        }
+        // Buffered views of the restaurant would otherwise bring its items back
+        drain();
+        restaurants.invalidate(event.restaurantId());
+        synchronized (global) {
+            global.removeGroup(event.restaurantId());
+        }
+    }
+    
+    @Scheduled(initialDelayString = "${restaurant.trending.persist-interval-ms:60000}",
+               fixedDelayString = "${restaurant.trending.persist-interval-ms:60000}")
+    public void scheduledPersist() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            persist();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write trending counts to {}", path, e);
+        }
+    }
+    
+    /**
+     * Writes every sketch to a temporary file next to the configured path and moves it into place.
+     * Each sketch is locked only while it is copied into the buffer.
+     */
+    public synchronized void persist() throws IOException {
+        drain();
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        synchronized (global) {
+            global.write(out);
+        }
+        List<Map.Entry<Long, SpaceSavingSketch>> sketches = new ArrayList<>(restaurants.asMap().entrySet());
+        out.writeInt(sketches.size());
+        for (Map.Entry<Long, SpaceSavingSketch> entry : sketches) {
+            out.writeLong(entry.getKey());
+            synchronized (entry.getValue()) {
+                entry.getValue().write(out);
+            }
+        }
+        
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporary, StandardOpenOption.WRITE))) {
+                buffer.writeTo(stream);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        lastPersistBytes = buffer.size();
+        lastPersistMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("halfLifeMs", Math.round(tauMillis * Math.log(2)));
+        synchronized (global) {
+            stats.put("globalCounters", global.size());
+        }
+        stats.put("restaurantsTracked", restaurants.estimatedSize());
+        stats.put("viewsRecorded", recorded.sum());
+        stats.put("viewsDropped", dropped.sum());
+        stats.put("path", path.toAbsolutePath().toString());
+        stats.put("lastPersistBytes", lastPersistBytes);
+        stats.put("lastPersistMillis", lastPersistMillis);
+        return stats;
+    }
+    
+    @Override
+    public void destroy() {
+        scheduledPersist();
+    }
+    
+    private void drainBuffered() {
+        long now = System.currentTimeMillis();
+        int drained;
+        synchronized (global) {
+            drained = buffer.drainTo((restaurantId, menuItemId) -> {
+                global.add(menuItemId, restaurantId, now, tauMillis);
+                SpaceSavingSketch sketch = restaurants.get(restaurantId, id -> new SpaceSavingSketch(restaurantCapacity, now));
+                synchronized (sketch) {
+                    sketch.add(menuItemId, restaurantId, now, tauMillis);
+                }
+            });
+        }
+        recorded.add(drained);
+    }
+    
+    private SpaceSavingSketch load(int globalCapacity) {
+        long now = System.currentTimeMillis();
+        if (!enabled || !Files.exists(path)) {
+            return new SpaceSavingSketch(globalCapacity, now);
+        }
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a trending counts file");
+            }
+            SpaceSavingSketch loaded = SpaceSavingSketch.read(in, globalCapacity);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long restaurantId = in.readLong();
+                restaurants.put(restaurantId, SpaceSavingSketch.read(in, restaurantCapacity));
+            }
+            log.info("Loaded trending counts for {} restaurants from {}", count, path.toAbsolutePath());
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable trending counts at {}", path, e);
+            restaurants.invalidateAll();
+            return new SpaceSavingSketch(globalCapacity, now);
+        }
+    }
+    
+    private static List<TrendingEntry> toEntries(List<SpaceSavingSketch.Counter> counters) {
+        List<TrendingEntry> entries = new ArrayList<>(counters.size());
+        for (SpaceSavingSketch.Counter counter : counters) {
+            entries.add(new TrendingEntry(counter.key(), counter.group(), counter.count(), counter.error()));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fooddelivery.restaurant.trending;
+
+/**
+ * Holds views until they are drained into the sketches. Request threads append to one of a fixed
+ * set of stripes picked by thread, so they rarely wait on each other; only the stripe is locked,
+ * and only for the append. A full stripe rejects the view and leaves the decision to the caller.
+ */
+final class ViewBuffer {
+    
+    private final Stripe[] stripes;
+    private final int mask;
+    
+    ViewBuffer(int stripeCount, int stripeCapacity) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+        this.mask = size - 1;
+    }
+    
+    boolean offer(long restaurantId, long menuItemId) {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & mask].offer(restaurantId, menuItemId);
+    }
+    
+    /**
+     * Empties every stripe into the consumer. Callers must not drain concurrently; each stripe is
+     * locked only while its views are copied out.
+     */
+    int drainTo(ViewConsumer consumer) {
+        int drained = 0;
+        for (Stripe stripe : stripes) {
+            drained += stripe.drainTo(consumer);
+        }
+        return drained;
+    }
+    
+    @FunctionalInterface
+    interface ViewConsumer {
+        void accept(long restaurantId, long menuItemId);
+    }
+    
+    private static final class Stripe {
+        
+        // Restaurant and menu item id pairs
+        private long[] views;
+        private long[] spare;
+        private int size;
+        
+        Stripe(int capacity) {
+            this.views = new long[capacity * 2];
+            this.spare = new long[capacity * 2];
+        }
+        
+        synchronized boolean offer(long restaurantId, long menuItemId) {
+            if (size == views.length) {
+                return false;
+            }
+            views[size++] = restaurantId;
+            views[size++] = menuItemId;
+            return true;
+        }
+        
+        int drainTo(ViewConsumer consumer) {
+            long[] drained;
+            int count;
+            synchronized (this) {
+                if (size == 0) {
+                    return 0;
+                }
+                drained = views;
+                count = size;
+                views = spare;
+                size = 0;
+                spare = null;
+            }
+            for (int i = 0; i < count; i += 2) {
+                consumer.accept(drained[i], drained[i + 1]);
+            }
+            synchronized (this) {
+                spare = drained;
+            }
+            return count / 2;
+        }
+    }
+}
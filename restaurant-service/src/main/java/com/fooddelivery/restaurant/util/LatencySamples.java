@@ -0,0 +1,46 @@
+package com.fooddelivery.restaurant.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed ring of the most recent latencies for percentile estimates. Recording is lock-free;
+ * a percentile sorts a copy of the ring, so it is meant for stats, not the request path.
+ */
+public final class LatencySamples {
+    
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    
+    public LatencySamples(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+    
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+    
+    public long count() {
+        return count.get();
+    }
+    
+    /**
+     * The nearest-rank percentile of the samples held, in the given unit; 0 before any is recorded.
+     */
+    public double percentile(double percentile, TimeUnit unit) {
+        int size = (int) Math.min(count.get(), samples.length());
+        if (size == 0) {
+            return 0.0;
+        }
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))] / (double) unit.toNanos(1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.fooddelivery.restaurant.admission;
+
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests rejected for bad input are answered 400 and must not shrink the concurrency limit,
+ * or anonymous clients could push it down to its minimum with invalid parameters.
+ */
+class AdmissionErrorAccountingTest {
+    
+    private static final HttpClient http = HttpClient.newHttpClient();
+    
+    private static LocalInstance instance;
+    
+    @BeforeAll
+    static void startInstance() {
+        // Startup takes longer than the target, so the first counted server error would cut the limit
+        instance = LocalInstance.start(LocalInstance.database("admission-errors"),
+            "restaurant.admission.latency-target-ms=2000");
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void badRequestsDoNotShrinkTheLimit() throws Exception {
+        AdmissionControlFilter filter = instance.bean(AdmissionControlFilter.class);
+        Object limitBefore = filter.stats().get("limit");
+        
+        for (String path : new String[] {"/api/menu/trending?limit=999", "/api/menu/trending?limit=abc",
+                "/api/restaurants/menus?ids=1&limitPerRestaurant=0", "/api/restaurants/not-a-number"}) {
+            for (int i = 0; i < 3; i++) {
+                HttpResponse<String> response = http.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + instance.port() + path)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+                assertThat(response.statusCode()).as(path).isEqualTo(400);
+            }
+        }
+        
+        assertThat(filter.stats().get("limit")).isEqualTo(limitBefore);
+    }
+}
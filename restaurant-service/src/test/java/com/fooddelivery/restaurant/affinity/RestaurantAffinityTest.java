@@ -0,0 +1,215 @@
+package com.fooddelivery.restaurant.affinity;
+
+import com.fooddelivery.restaurant.cache.CacheInvalidationBus;
+import com.fooddelivery.restaurant.catalog.CompactMenuStore;
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.repository.CacheInvalidationRepository;
+import com.fooddelivery.restaurant.service.MenuItemService;
+import com.fooddelivery.restaurant.service.RestaurantService;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import com.fooddelivery.restaurant.trending.ClusterTrending;
+import com.fooddelivery.restaurant.trending.TrendingEntry;
+import com.fooddelivery.restaurant.trending.TrendingTracker;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.fooddelivery.restaurant.support.LocalInstance.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Two instances discovering each other through a static peer list. Clients spread menu reads
+ * evenly across both; with affinity each menu should still be loaded into only one instance's cache.
+ */
+class RestaurantAffinityTest {
+    
+    private static final String SERVICE_ID = "restaurant-service";
+    private static final int RESTAURANTS = 20;
+    private static final int READS_PER_RESTAURANT = 4;
+    
+    private static final Map<String, Queue<String>> forwardedAuthorizations = new ConcurrentHashMap<>();
+    private static final HttpClient http = HttpClient.newHttpClient();
+    
+    private static final List<LocalInstance> instances = new ArrayList<>();
+    private static final List<Long> restaurantIds = new ArrayList<>();
+    
+    @BeforeAll
+    static void startInstances() throws InterruptedException {
+        int[] ports = {LocalInstance.freePort(), LocalInstance.freePort()};
+        String database = LocalInstance.database("affinity");
+        for (int port : ports) {
+            List<String> properties = new ArrayList<>(List.of(
+                "server.port=" + port,
+                "restaurant.affinity.refresh-interval-ms=200",
+                "restaurant.invalidation.poll-interval-ms=100",
+                // Every read comes from one test client, which would otherwise be rate limited
+                "restaurant.admission.enabled=false"));
+            for (int peer = 0; peer < ports.length; peer++) {
+                String prefix = "spring.cloud.discovery.client.simple.instances." + SERVICE_ID + "[" + peer + "].";
+                properties.add(prefix + "uri=http://localhost:" + ports[peer]);
+                properties.add(prefix + "instance-id=" + instanceId(ports[peer]));
+            }
+            instances.add(LocalInstance.start(database, peer(port), properties.toArray(String[]::new)));
+        }
+        for (LocalInstance instance : instances) {
+            await(Duration.ofSeconds(10), () -> instance.bean(RestaurantAffinityRouter.class).ring().members().size() == 2);
+        }
+        
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        LocalInstance writer = instances.get(0);
+        for (int i = 0; i < RESTAURANTS; i++) {
+            Long restaurantId = writer.bean(RestaurantService.class).createRestaurant(restaurant("Restaurant " + i)).getId();
+            writer.bean(MenuItemService.class).addMenuItem(restaurantId, menuItem("Dish " + i));
+            restaurantIds.add(restaurantId);
+        }
+        // Let the other instance apply the writer's invalidations before counting cache loads
+        CacheInvalidationRepository log = writer.bean(CacheInvalidationRepository.class);
+        CacheInvalidationBus otherBus = instances.get(1).bean(CacheInvalidationBus.class);
+        await(Duration.ofSeconds(10), () -> otherBus.getAppliedCount() == log.count());
+    }
+    
+    @AfterAll
+    static void stopInstances() {
+        instances.forEach(LocalInstance::close);
+    }
+    
+    @Test
+    void eachMenuIsCachedOnlyByItsOwner() throws Exception {
+        long missesBefore = sum("misses");
+        long hitsBefore = sum("hits");
+        
+        for (Long restaurantId : restaurantIds) {
+            for (int read = 0; read < READS_PER_RESTAURANT; read++) {
+                HttpResponse<String> response = get(instances.get(read % 2), "/api/restaurants/" + restaurantId + "/menu", null);
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.headers().firstValue(RestaurantAffinityFilter.SERVED_BY_HEADER)).hasValue(ownerOf(restaurantId));
+            }
+        }
+        
+        long misses = sum("misses") - missesBefore;
+        long hits = sum("hits") - hitsBefore;
+        double hitRate = (double) hits / (hits + misses);
+        // Without affinity both instances would load every menu: 2 misses per restaurant and a 50% hit rate
+        assertThat(misses).isEqualTo(RESTAURANTS);
+        assertThat(hitRate).isEqualTo((READS_PER_RESTAURANT - 1) / (double) READS_PER_RESTAURANT);
+    }
+    
+    @Test
+    void forwardedReadsKeepAuthorizationAndResponseHeaders() throws Exception {
+        Long restaurantId = restaurantIds.get(0);
+        String owner = ownerOf(restaurantId);
+        LocalInstance nonOwner = instances.stream()
+            .filter(instance -> instance.bean(RestaurantAffinityRouter.class).remoteOwnerOf(restaurantId) != null)
+            .findFirst().orElseThrow();
+        
+        HttpResponse<String> response = get(nonOwner, "/api/restaurants/" + restaurantId + "/menu?category=Mains",
+            "Bearer affinity-test");
+        
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(RestaurantAffinityFilter.SERVED_BY_HEADER)).hasValue(owner);
+        assertThat(response.headers().firstValue("X-Total-Count")).hasValue("1");
+        assertThat(forwardedAuthorizations.get(owner)).contains("Bearer affinity-test");
+    }
+    
+    @Test
+    void trendingMergesViewsCountedOnEveryInstance() {
+        Long restaurantId = restaurantIds.get(1);
+        for (LocalInstance instance : instances) {
+            TrendingTracker tracker = instance.bean(TrendingTracker.class);
+            tracker.recordView(restaurantId, 9001L);
+            tracker.drain();
+        }
+        
+        for (LocalInstance instance : instances) {
+            List<TrendingEntry> trending = instance.bean(ClusterTrending.class).top(restaurantId, 10);
+            assertThat(trending).extracting(TrendingEntry::menuItemId).containsExactly(9001L);
+            assertThat(trending.get(0).views()).isCloseTo(2, within(0.01));
+            assertThat(instance.bean(ClusterTrending.class).stats()).containsEntry("peerFetchFailures", 0L);
+        }
+    }
+    
+    private static String ownerOf(Long restaurantId) {
+        return instances.get(0).bean(RestaurantAffinityRouter.class).ring().ownerOf(restaurantId);
+    }
+    
+    private static long sum(String stat) {
+        return instances.stream()
+            .mapToLong(instance -> ((Number) instance.bean(CompactMenuStore.class).stats().get(stat)).longValue())
+            .sum();
+    }
+    
+    private static HttpResponse<String> get(LocalInstance instance, String path, String authorization)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + instance.port() + path));
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static String instanceId(int port) {
+        return SERVICE_ID + ":" + port;
+    }
+    
+    // Registers the instance as itself in the ring and records the Authorization header of reads forwarded to it
+    private static ApplicationContextInitializer<ConfigurableApplicationContext> peer(int port) {
+        return context -> {
+            Queue<String> received = forwardedAuthorizations.computeIfAbsent(instanceId(port), id -> new ConcurrentLinkedQueue<>());
+            context.getBeanFactory().registerSingleton("selfRegistration", new PeerRegistration(port));
+            context.getBeanFactory().registerSingleton("forwardedAuthorizationRecorder", (Filter) (request, response, chain) -> {
+                HttpServletRequest httpRequest = (HttpServletRequest) request;
+                String authorization = httpRequest.getHeader(HttpHeaders.AUTHORIZATION);
+                if (httpRequest.getHeader(RestaurantAffinityFilter.FORWARDED_HEADER) != null && authorization != null) {
+                    received.add(authorization);
+                }
+                chain.doFilter(request, response);
+            });
+        };
+    }
+    
+    private static RestaurantRequestDto restaurant(String name) {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName(name);
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+    
+    private static MenuItemRequestDto menuItem(String name) {
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName(name);
+        menuItem.setPrice(new BigDecimal("9.50"));
+        menuItem.setCategory("Mains");
+        return menuItem;
+    }
+    
+    private static final class PeerRegistration extends DefaultServiceInstance implements Registration {
+        
+        PeerRegistration(int port) {
+            super(instanceId(port), SERVICE_ID, "localhost", port, false);
+        }
+    }
+}
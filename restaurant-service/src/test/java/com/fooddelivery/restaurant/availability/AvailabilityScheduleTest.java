@@ -0,0 +1,146 @@
+package com.fooddelivery.restaurant.availability;
+
+import com.fooddelivery.restaurant.entity.MenuItemAvailabilityWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+
+import static java.time.DayOfWeek.FRIDAY;
+import static java.time.DayOfWeek.MONDAY;
+import static java.time.DayOfWeek.SATURDAY;
+import static java.time.DayOfWeek.SUNDAY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityScheduleTest {
+    
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+    
+    @Test
+    void weekdayWindowFollowsLocalTime() {
+        // Monday 2026-06-15, British Summer Time (UTC+1)
+        AvailabilitySchedule schedule = schedule(LONDON, window(EnumSet.range(MONDAY, FRIDAY), "08:00", "11:00"));
+        
+        assertThat(schedule.isAvailableAt(at("2026-06-15T06:59:59Z"))).isFalse();
+        assertThat(schedule.isAvailableAt(at("2026-06-15T07:00:00Z"))).isTrue();
+        assertThat(schedule.isAvailableAt(at("2026-06-15T10:00:00Z"))).isFalse();
+        assertThat(schedule.isAvailableAt(at("2026-06-20T08:00:00Z"))).isFalse();
+        assertThat(schedule.nextChangeAfter(at("2026-06-15T06:00:00Z"))).isEqualTo(at("2026-06-15T07:00:00Z"));
+        assertThat(schedule.nextChangeAfter(at("2026-06-15T07:00:00Z"))).isEqualTo(at("2026-06-15T10:00:00Z"));
+        // Friday's window closes, and the next one opens on Monday
+        assertThat(schedule.nextChangeAfter(at("2026-06-19T12:00:00Z"))).isEqualTo(at("2026-06-22T07:00:00Z"));
+        assertThat(schedule.lastChangeAtOrBefore(at("2026-06-20T12:00:00Z"))).isEqualTo(at("2026-06-19T10:00:00Z"));
+    }
+    
+    @Test
+    void overnightWindowBelongsToTheDayItStarts() {
+        AvailabilitySchedule schedule = schedule(ZoneId.of("UTC"), window(EnumSet.of(FRIDAY), "22:00", "02:00"));
+        
+        // Friday 2026-06-19 22:00 until Saturday 02:00
+        assertThat(schedule.isAvailableAt(at("2026-06-19T21:59:59Z"))).isFalse();
+        assertThat(schedule.isAvailableAt(at("2026-06-19T23:00:00Z"))).isTrue();
+        assertThat(schedule.isAvailableAt(at("2026-06-20T01:59:59Z"))).isTrue();
+        assertThat(schedule.isAvailableAt(at("2026-06-20T02:00:00Z"))).isFalse();
+        // Friday morning is not covered by Thursday, which has no window
+        assertThat(schedule.isAvailableAt(at("2026-06-19T01:00:00Z"))).isFalse();
+        assertThat(schedule.nextChangeAfter(at("2026-06-19T23:00:00Z"))).isEqualTo(at("2026-06-20T02:00:00Z"));
+    }
+    
+    @Test
+    void equalStartAndEndMeansTheWholeDay() {
+        AvailabilitySchedule schedule = schedule(ZoneId.of("UTC"), window(EnumSet.of(SATURDAY), "00:00", "00:00"));
+        
+        assertThat(schedule.isAvailableAt(at("2026-06-20T00:00:00Z"))).isTrue();
+        assertThat(schedule.isAvailableAt(at("2026-06-20T23:59:59Z"))).isTrue();
+        assertThat(schedule.isAvailableAt(at("2026-06-21T00:00:00Z"))).isFalse();
+    }
+    
+    @Test
+    void adjacentWindowsDoNotFlipAtTheirSharedEdge() {
+        AvailabilitySchedule schedule = schedule(ZoneId.of("UTC"),
+            window(EnumSet.of(SATURDAY), "08:00", "12:00"),
+            window(EnumSet.of(SATURDAY), "12:00", "15:00"));
+        
+        assertThat(schedule.isAvailableAt(at("2026-06-20T12:00:00Z"))).isTrue();
+        assertThat(schedule.nextChangeAfter(at("2026-06-20T09:00:00Z"))).isEqualTo(at("2026-06-20T15:00:00Z"));
+    }
+    
+    @Test
+    void edgeInTheSkippedHourMovesForwardByTheGap() {
+        // Clocks go from 01:00 GMT to 02:00 BST on Sunday 2026-03-29, so 01:30 does not exist
+        AvailabilitySchedule schedule = schedule(LONDON, window(EnumSet.of(SUNDAY), "01:30", "03:00"));
+        
+        assertThat(schedule.isAvailableAt(at("2026-03-29T01:29:59Z"))).isFalse();
+        // 02:30 BST
+        assertThat(schedule.isAvailableAt(at("2026-03-29T01:30:00Z"))).isTrue();
+        // 03:00 BST
+        assertThat(schedule.isAvailableAt(at("2026-03-29T02:00:00Z"))).isFalse();
+    }
+    
+    @Test
+    void edgeInTheRepeatedHourTakesItsFirstOccurrence() {
+        // Clocks go back from 02:00 BST to 01:00 GMT on Sunday 2026-10-25, so 01:30 happens twice
+        AvailabilitySchedule schedule = schedule(LONDON, window(EnumSet.of(SUNDAY), "01:30", "04:00"));
+        
+        // 01:30 BST
+        assertThat(schedule.lastChangeAtOrBefore(at("2026-10-25T02:00:00Z"))).isEqualTo(at("2026-10-25T00:30:00Z"));
+        // 04:00 GMT: the window lasts three and a half hours of elapsed time
+        assertThat(schedule.nextChangeAfter(at("2026-10-25T00:30:00Z"))).isEqualTo(at("2026-10-25T04:00:00Z"));
+    }
+    
+    @Test
+    void overnightWindowAcrossTheSpringChangeKeepsItsLocalHours() {
+        // Saturday 22:00 GMT until Sunday 06:00 BST, seven hours of elapsed time
+        AvailabilitySchedule schedule = schedule(LONDON, window(EnumSet.of(SATURDAY), "22:00", "06:00"));
+        
+        assertThat(schedule.lastChangeAtOrBefore(at("2026-03-29T03:00:00Z"))).isEqualTo(at("2026-03-28T22:00:00Z"));
+        assertThat(schedule.nextChangeAfter(at("2026-03-29T03:00:00Z"))).isEqualTo(at("2026-03-29T05:00:00Z"));
+    }
+    
+    @Test
+    void changingTheZoneMovesTheWindows() {
+        AvailabilitySchedule utc = schedule(ZoneId.of("UTC"), window(EnumSet.of(MONDAY), "09:00", "10:00"));
+        AvailabilitySchedule tokyo = utc.withZone(ZoneId.of("Asia/Tokyo"));
+        
+        assertThat(utc.isAvailableAt(at("2026-06-15T09:30:00Z"))).isTrue();
+        assertThat(tokyo.isAvailableAt(at("2026-06-15T09:30:00Z"))).isFalse();
+        assertThat(tokyo.isAvailableAt(at("2026-06-15T00:30:00Z"))).isTrue();
+    }
+    
+    @Test
+    void noWindowsNeverChange() {
+        AvailabilitySchedule schedule = schedule(ZoneId.of("UTC"));
+        
+        assertThat(schedule.isAvailableAt(at("2026-06-15T09:30:00Z"))).isFalse();
+        assertThat(schedule.nextChangeAfter(at("2026-06-15T09:30:00Z"))).isNull();
+        assertThat(schedule.lastChangeAtOrBefore(at("2026-06-15T09:30:00Z"))).isNull();
+    }
+    
+    @Test
+    void daysMaskRoundTrips() {
+        EnumSet<DayOfWeek> days = EnumSet.of(MONDAY, FRIDAY, SUNDAY);
+        
+        assertThat(AvailabilitySchedule.daysMask(days)).isEqualTo(0b1010001);
+        assertThat(AvailabilitySchedule.daysOf(AvailabilitySchedule.daysMask(days))).isEqualTo(days);
+    }
+    
+    private static AvailabilitySchedule schedule(ZoneId zone, MenuItemAvailabilityWindow... windows) {
+        return AvailabilitySchedule.of(zone, List.of(windows));
+    }
+    
+    private static MenuItemAvailabilityWindow window(EnumSet<DayOfWeek> days, String start, String end) {
+        MenuItemAvailabilityWindow window = new MenuItemAvailabilityWindow();
+        window.setDays(AvailabilitySchedule.daysMask(days));
+        window.setStartTime(LocalTime.parse(start));
+        window.setEndTime(LocalTime.parse(end));
+        return window;
+    }
+    
+    private static Instant at(String instant) {
+        return Instant.parse(instant);
+    }
+}
@@ -0,0 +1,81 @@
+package com.fooddelivery.restaurant.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+    
+    @Test
+    void entriesExpireOnTheFirstAdvanceAtOrPastTheirDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 1_000);
+        wheel.schedule(1_250, "a");
+        wheel.schedule(1_300, "b");
+        
+        assertThat(wheel.advance(1_249)).isEmpty();
+        // Deadlines round up to the next tick, so nothing expires early
+        assertThat(wheel.advance(1_299)).isEmpty();
+        assertThat(wheel.advance(1_300)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+    
+    @Test
+    void pastDeadlinesAreDueOnTheNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 5_000);
+        wheel.schedule(4_000, "late");
+        wheel.schedule(5_000, "now");
+        
+        assertThat(wheel.size()).isEqualTo(2);
+        assertThat(wheel.advance(5_000)).containsExactlyInAnyOrder("late", "now");
+    }
+    
+    @Test
+    void entriesOnEveryLevelAndInOverflowExpireOnTime() {
+        // One millisecond ticks: level 0 spans 64 ms, the top level about 4.6 hours
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 0);
+        long[] deadlines = {1, 63, 64, 65, 4_095, 4_096, 4_097, 262_144, 262_145, 16_777_215, 16_777_216, 16_777_217, 40_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        
+        for (long deadline : deadlines) {
+            assertThat(wheel.advance(deadline - 1)).isEmpty();
+            assertThat(wheel.advance(deadline)).containsExactly(deadline);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+    
+    @Test
+    void randomDeadlinesMatchAPlainScan() {
+        Random random = new Random(7);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 0);
+        Map<Integer, Long> pending = new HashMap<>();
+        long now = 0;
+        int next = 0;
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = random.nextInt(4); i > 0; i--) {
+                long deadline = now + (random.nextBoolean() ? random.nextInt(2_000) : random.nextInt(50_000_000));
+                wheel.schedule(deadline, next);
+                pending.put(next++, deadline);
+            }
+            now += random.nextInt(random.nextInt(10) == 0 ? 500_000 : 200);
+            
+            List<Integer> expected = new ArrayList<>();
+            long tick = now;
+            pending.forEach((value, deadline) -> {
+                if ((deadline + 9) / 10 * 10 <= tick) {
+                    expected.add(value);
+                }
+            });
+            assertThat(wheel.advance(now)).containsExactlyInAnyOrderElementsOf(expected);
+            expected.forEach(pending::remove);
+            assertThat(wheel.size()).isEqualTo(pending.size());
+        }
+    }
+}
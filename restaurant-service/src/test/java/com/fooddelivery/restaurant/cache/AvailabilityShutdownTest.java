@@ -0,0 +1,82 @@
+package com.fooddelivery.restaurant.cache;
+
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.service.MenuItemService;
+import com.fooddelivery.restaurant.service.RestaurantService;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Toggles are written behind, so none may be lost when the instance shuts down: pending ones are
+ * flushed when the store stops, and ones arriving after that are written through.
+ */
+class AvailabilityShutdownTest {
+    
+    // Nothing is flushed on schedule during a test
+    private static final String NO_SCHEDULED_FLUSH = "restaurant.availability.flush-interval-ms=3600000";
+    
+    @Test
+    void pendingTogglesAreWrittenOnShutdown() throws SQLException {
+        String database = LocalInstance.database("availability-shutdown");
+        Long menuItemId;
+        try (LocalInstance instance = LocalInstance.start(database, NO_SCHEDULED_FLUSH)) {
+            menuItemId = createMenuItem(instance);
+            instance.bean(MenuItemService.class).updateMenuItemStatus(menuItemId, false);
+            assertThat(instance.bean(MenuItemAvailabilityStore.class).pendingCount()).isEqualTo(1);
+        }
+        
+        assertThat(storedAvailability(database, menuItemId)).isFalse();
+    }
+    
+    @Test
+    void togglesAfterStopAreWrittenThrough() throws SQLException {
+        String database = LocalInstance.database("availability-after-stop");
+        try (LocalInstance instance = LocalInstance.start(database, NO_SCHEDULED_FLUSH)) {
+            Long menuItemId = createMenuItem(instance);
+            MenuItemAvailabilityStore store = instance.bean(MenuItemAvailabilityStore.class);
+            store.stop();
+            
+            instance.bean(MenuItemService.class).updateMenuItemStatus(menuItemId, false);
+            
+            assertThat(store.pendingCount()).isZero();
+            assertThat(storedAvailability(database, menuItemId)).isFalse();
+            store.start();
+        }
+    }
+    
+    private static Long createMenuItem(LocalInstance instance) {
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName("Shutdown");
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        Long restaurantId = instance.bean(RestaurantService.class).createRestaurant(restaurant).getId();
+        
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName("Soup");
+        menuItem.setPrice(new BigDecimal("6.00"));
+        menuItem.setCategory("Starters");
+        return instance.bean(MenuItemService.class).addMenuItem(restaurantId, menuItem).getId();
+    }
+    
+    private static boolean storedAvailability(String database, Long menuItemId) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(database, "sa", "");
+             PreparedStatement statement = connection.prepareStatement("SELECT available FROM menu_items WHERE id = ?")) {
+            statement.setLong(1, menuItemId);
+            try (ResultSet result = statement.executeQuery()) {
+                assertThat(result.next()).isTrue();
+                return result.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.fooddelivery.restaurant.cache;
+
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.repository.CacheInvalidationRepository;
+import com.fooddelivery.restaurant.repository.MenuItemRepository;
+import com.fooddelivery.restaurant.service.MenuItemService;
+import com.fooddelivery.restaurant.service.RestaurantService;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static com.fooddelivery.restaurant.support.LocalInstance.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two instances on one database, each with its own second-level cache: writes on one must
+ * reach the other's caches through the invalidation log alone.
+ */
+class CacheInvalidationConvergenceTest {
+    
+    private static final Duration CONVERGENCE = Duration.ofSeconds(5);
+    
+    private static LocalInstance writer;
+    private static LocalInstance reader;
+    
+    @BeforeAll
+    static void startInstances() {
+        String database = LocalInstance.database("invalidation-convergence");
+        writer = LocalInstance.start(database, "restaurant.invalidation.poll-interval-ms=100");
+        reader = LocalInstance.start(database, "restaurant.invalidation.poll-interval-ms=100");
+    }
+    
+    @AfterAll
+    static void stopInstances() {
+        reader.close();
+        writer.close();
+    }
+    
+    @BeforeEach
+    void signIn() {
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+    }
+    
+    @Test
+    void restaurantUpdateReachesTheOtherInstance() throws InterruptedException {
+        Long restaurantId = createRestaurant("Pizza Palace");
+        RestaurantService readerService = reader.bean(RestaurantService.class);
+        assertThat(readerService.getRestaurantById(restaurantId, false).getName()).isEqualTo("Pizza Palace");
+        
+        writer.bean(RestaurantService.class).updateRestaurant(restaurantId, restaurant("Pasta Palace"));
+        
+        await(CONVERGENCE, () -> "Pasta Palace".equals(readerService.getRestaurantById(restaurantId, false).getName()));
+    }
+    
+    @Test
+    void menuQueryResultsConvergeWhileUnrelatedChangesKeepThemCached() throws InterruptedException {
+        Long restaurantId = createRestaurant("Burger Barn");
+        MenuItemService writerMenu = writer.bean(MenuItemService.class);
+        MenuItemRepository readerItems = reader.bean(MenuItemRepository.class);
+        
+        writerMenu.addMenuItem(restaurantId, menuItem("Cheeseburger"));
+        await(CONVERGENCE, () -> readerItems.findByRestaurantId(restaurantId).size() == 1);
+        
+        writerMenu.addMenuItem(restaurantId, menuItem("Fries"));
+        await(CONVERGENCE, () -> readerItems.findByRestaurantId(restaurantId).size() == 2);
+        
+        // A restaurant-only change must leave the cached menu query in place
+        awaitAllApplied();
+        readerItems.findByRestaurantId(restaurantId);
+        writer.bean(RestaurantService.class).updateRestaurant(restaurantId, restaurant("Burger Barn Express"));
+        awaitAllApplied();
+        
+        long hits = reader.statistics().getQueryCacheHitCount();
+        assertThat(readerItems.findByRestaurantId(restaurantId)).hasSize(2);
+        assertThat(reader.statistics().getQueryCacheHitCount()).isEqualTo(hits + 1);
+    }
+    
+    private static void awaitAllApplied() throws InterruptedException {
+        CacheInvalidationRepository log = writer.bean(CacheInvalidationRepository.class);
+        CacheInvalidationBus readerBus = reader.bean(CacheInvalidationBus.class);
+        // Only the writer appends to the log, so the reader is caught up once it has applied every row
+        await(CONVERGENCE, () -> readerBus.getAppliedCount() == log.count());
+    }
+    
+    private Long createRestaurant(String name) {
+        return writer.bean(RestaurantService.class).createRestaurant(restaurant(name)).getId();
+    }
+    
+    private static RestaurantRequestDto restaurant(String name) {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName(name);
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+    
+    private static MenuItemRequestDto menuItem(String name) {
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName(name);
+        menuItem.setPrice(new BigDecimal("9.50"));
+        menuItem.setCategory("Mains");
+        return menuItem;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fooddelivery.restaurant.config;
+
+import com.fooddelivery.restaurant.catalog.CatalogSnapshotStore;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Only health and info are public; the diagnostic endpoints expose SQL and internal state and
+ * some of them write, so they need an ADMIN token.
+ */
+class ActuatorAccessTest {
+    
+    private static final HttpClient http = HttpClient.newHttpClient();
+    
+    private static LocalInstance instance;
+    
+    @BeforeAll
+    static void startInstance() {
+        instance = LocalInstance.start(LocalInstance.database("actuator-access"));
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void healthIsPublic() throws Exception {
+        assertThat(send("GET", "/actuator/health", null).statusCode()).isEqualTo(200);
+    }
+    
+    @Test
+    void slowQueriesNeedAnAdmin() throws Exception {
+        String owner = instance.token(42L, "RESTAURANT_OWNER");
+        String admin = instance.token(999L, "ADMIN");
+        
+        assertThat(send("GET", "/actuator/slowqueries", null).statusCode()).isEqualTo(403);
+        assertThat(send("DELETE", "/actuator/slowqueries", null).statusCode()).isEqualTo(403);
+        assertThat(send("GET", "/actuator/slowqueries", owner).statusCode()).isEqualTo(403);
+        assertThat(send("DELETE", "/actuator/slowqueries", owner).statusCode()).isEqualTo(403);
+        assertThat(send("GET", "/actuator/slowqueries", admin).statusCode()).isEqualTo(200);
+        assertThat(send("DELETE", "/actuator/slowqueries", admin).statusCode()).isIn(200, 204);
+    }
+    
+    @Test
+    void diagnosticEndpointsNeedAnAdmin() throws Exception {
+        String admin = instance.token(999L, "ADMIN");
+        for (String endpoint : List.of("cacheregions", "affinity", "invalidations", "suggest", "catalogsnapshot",
+                "compactmenu", "admission", "idempotency", "trending", "availabilityschedule")) {
+            assertThat(send("GET", "/actuator/" + endpoint, null).statusCode()).as(endpoint).isEqualTo(403);
+            assertThat(send("GET", "/actuator/" + endpoint, admin).statusCode()).as(endpoint).isEqualTo(200);
+        }
+    }
+    
+    @Test
+    void catalogSnapshotWritesNeedAnAdmin() throws Exception {
+        String owner = instance.token(42L, "RESTAURANT_OWNER");
+        long before = Files.exists(snapshotPath()) ? Files.getLastModifiedTime(snapshotPath()).toMillis() : -1;
+        
+        assertThat(send("POST", "/actuator/catalogsnapshot", null).statusCode()).isEqualTo(403);
+        assertThat(send("POST", "/actuator/catalogsnapshot", owner).statusCode()).isEqualTo(403);
+        assertThat(Files.exists(snapshotPath()) ? Files.getLastModifiedTime(snapshotPath()).toMillis() : -1).isEqualTo(before);
+        
+        HttpResponse<String> written = send("POST", "/actuator/catalogsnapshot", instance.token(999L, "ADMIN"));
+        assertThat(written.statusCode()).isEqualTo(200);
+        assertThat(written.body()).contains("\"written\":true");
+        assertThat(snapshotPath()).exists();
+    }
+    
+    private static Path snapshotPath() {
+        return instance.bean(CatalogSnapshotStore.class).getPath();
+    }
+    
+    static HttpResponse<String> send(String method, String path, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + instance.port() + path))
+            .method(method, HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
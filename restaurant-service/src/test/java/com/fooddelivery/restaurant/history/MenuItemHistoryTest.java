@@ -0,0 +1,168 @@
+package com.fooddelivery.restaurant.history;
+
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.MenuItemVersionDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.service.MenuHistoryService;
+import com.fooddelivery.restaurant.service.MenuItemService;
+import com.fooddelivery.restaurant.service.RestaurantService;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * One item edited past its second checkpoint, then toggled through a flush, next to an item
+ * that gets deleted. As-of reads are taken between changes, on both sides of each checkpoint.
+ */
+class MenuItemHistoryTest {
+    
+    // Versions 2 to 21; version 17 is the second checkpoint
+    private static final int EDITS = 20;
+    
+    private static LocalInstance instance;
+    private static Long restaurantId;
+    private static Long edited;
+    private static Long deleted;
+    private static OffsetDateTime beforeCreation;
+    // afterVersion.get(v - 1) lies between version v and version v + 1 of the edited item
+    private static final List<OffsetDateTime> afterVersion = new ArrayList<>();
+    private static OffsetDateTime beforeDelete;
+    private static OffsetDateTime afterDelete;
+    private static OffsetDateTime afterFlush;
+    
+    @BeforeAll
+    static void recordHistory() throws InterruptedException {
+        // Toggles are flushed by the test only
+        instance = LocalInstance.start(LocalInstance.database("menu-item-history"),
+            "restaurant.availability.flush-interval-ms=3600000");
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        MenuItemService menu = instance.bean(MenuItemService.class);
+        
+        beforeCreation = pause();
+        restaurantId = instance.bean(RestaurantService.class).createRestaurant(restaurant()).getId();
+        edited = menu.addMenuItem(restaurantId, menuItem(price(1))).getId();
+        deleted = menu.addMenuItem(restaurantId, menuItem(new BigDecimal("3.00"))).getId();
+        afterVersion.add(pause());
+        for (int version = 2; version <= EDITS + 1; version++) {
+            menu.updateMenuItem(edited, menuItem(price(version)));
+            afterVersion.add(pause());
+        }
+        
+        beforeDelete = pause();
+        menu.deleteMenuItem(deleted);
+        afterDelete = pause();
+        
+        menu.updateMenuItemStatus(edited, false);
+        instance.bean(MenuItemAvailabilityStore.class).flush();
+        afterFlush = pause();
+        // The flag already holds this value, so the flush adds no version
+        menu.updateMenuItemStatus(edited, false);
+        instance.bean(MenuItemAvailabilityStore.class).flush();
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void checkpointsAreWrittenEverySixteenVersions() {
+        List<MenuItemVersionDto> versions = history().getVersions(edited, 50);
+        
+        assertThat(versions).extracting(MenuItemVersionDto::getVersion).startsWith(EDITS + 2, EDITS + 1).hasSize(EDITS + 2);
+        assertThat(versions).filteredOn(MenuItemVersionDto::isCheckpoint).extracting(MenuItemVersionDto::getVersion)
+            .containsExactly(17, 1);
+        MenuItemVersionDto delta = versions.stream().filter(version -> version.getVersion() == 16).findFirst().orElseThrow();
+        assertThat(delta.getChangedFields()).containsExactly("price");
+        assertThat(delta.getName()).isNull();
+        MenuItemVersionDto flushed = versions.get(0);
+        assertThat(flushed.getChangedFields()).containsExactly("available");
+        assertThat(flushed.getAvailable()).isFalse();
+    }
+    
+    @Test
+    void itemAsOfReplaysFromTheLatestCheckpoint() {
+        for (int version : new int[] {1, 2, 15, 16, 17, 18, EDITS + 1}) {
+            MenuItemResponseDto item = history().getMenuItemAsOf(edited, afterVersion.get(version - 1));
+            assertThat(item.getPrice()).as("as of version %d", version).isEqualByComparingTo(price(version));
+            assertThat(item.getName()).isEqualTo("Soup");
+            assertThat(item.getAvailable()).isTrue();
+        }
+        assertThatThrownBy(() -> history().getMenuItemAsOf(edited, beforeCreation))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    void menuAsOfReplaysEveryItemOnBothSidesOfACheckpoint() {
+        for (int version : new int[] {16, 17, 18}) {
+            List<MenuItemResponseDto> menu = history().getMenuAsOf(restaurantId, afterVersion.get(version - 1));
+            assertThat(menu).extracting(MenuItemResponseDto::getId).containsExactly(edited, deleted);
+            assertThat(menu.get(0).getPrice()).as("as of version %d", version).isEqualByComparingTo(price(version));
+        }
+        assertThat(history().getMenuAsOf(restaurantId, beforeCreation)).isEmpty();
+    }
+    
+    @Test
+    void deletedItemsDropOutAfterTheirDeletion() {
+        assertThat(history().getMenuAsOf(restaurantId, beforeDelete)).extracting(MenuItemResponseDto::getId)
+            .containsExactly(edited, deleted);
+        assertThat(history().getMenuAsOf(restaurantId, afterDelete)).extracting(MenuItemResponseDto::getId)
+            .containsExactly(edited);
+        assertThat(history().getMenuItemAsOf(deleted, beforeDelete).getPrice()).isEqualByComparingTo("3.00");
+        assertThatThrownBy(() -> history().getMenuItemAsOf(deleted, afterDelete))
+            .isInstanceOf(ResourceNotFoundException.class)
+            .hasMessageContaining("deleted");
+    }
+    
+    @Test
+    void flushedAvailabilityIsPartOfTheHistory() {
+        assertThat(history().getMenuItemAsOf(edited, afterDelete).getAvailable()).isTrue();
+        assertThat(history().getMenuItemAsOf(edited, afterFlush).getAvailable()).isFalse();
+        assertThat(history().getMenuItemAsOf(edited, afterFlush).getPrice()).isEqualByComparingTo(price(EDITS + 1));
+    }
+    
+    private static MenuHistoryService history() {
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        return instance.bean(MenuHistoryService.class);
+    }
+    
+    // Versions are stamped with the clock, so leave a gap on each side of the instant taken
+    private static OffsetDateTime pause() throws InterruptedException {
+        Thread.sleep(5);
+        OffsetDateTime now = OffsetDateTime.now();
+        Thread.sleep(5);
+        return now;
+    }
+    
+    private static BigDecimal price(int version) {
+        return BigDecimal.valueOf(version).add(new BigDecimal("0.50"));
+    }
+    
+    private static RestaurantRequestDto restaurant() {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName("History");
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+    
+    private static MenuItemRequestDto menuItem(BigDecimal price) {
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName("Soup");
+        menuItem.setPrice(price);
+        menuItem.setCategory("Starters");
+        return menuItem;
+    }
+}
@@ -0,0 +1,87 @@
+package com.fooddelivery.restaurant.idempotency;
+
+import com.fooddelivery.restaurant.admission.AdmissionControlFilter;
+import com.fooddelivery.restaurant.repository.RestaurantRepository;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two attempts with the same key arriving together: the handler must run once, and the duplicate
+ * waits for its response without taking a concurrency permit.
+ */
+class IdempotencyConcurrencyTest {
+    
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final AtomicInteger handled = new AtomicInteger();
+    
+    private static LocalInstance instance;
+    
+    @BeforeAll
+    static void startInstance() {
+        instance = LocalInstance.start(LocalInstance.database("idempotency-concurrency"), context ->
+            // Runs after the security chain, so only for the attempt that claimed the key; the delay
+            // makes sure the duplicate arrives while it is still running
+            context.getBeanFactory().registerSingleton("slowCreate", (Filter) (request, response, chain) -> {
+                if ("POST".equals(((HttpServletRequest) request).getMethod())) {
+                    handled.incrementAndGet();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                chain.doFilter(request, response);
+            }));
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void concurrentDuplicatesRunTheHandlerOnce() {
+        String token = instance.token(42L, "RESTAURANT_OWNER");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + instance.port() + "/api/restaurants"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .header(IdempotencyFilter.KEY_HEADER, "create-once")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"name\":\"Once\",\"address\":\"1 Main Street\",\"phone\":\"1234567890\"}"))
+            .build();
+        
+        List<HttpResponse<String>> responses = List.of(
+                http.sendAsync(request, HttpResponse.BodyHandlers.ofString()),
+                http.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+            .stream().map(CompletableFuture::join).toList();
+        
+        assertThat(responses).extracting(HttpResponse::statusCode).containsOnly(201);
+        assertThat(responses.get(0).body()).isEqualTo(responses.get(1).body());
+        assertThat(responses).filteredOn(response -> response.headers().firstValue(IdempotencyFilter.REPLAYED_HEADER).isPresent())
+            .hasSize(1);
+        assertThat(handled).hasValue(1);
+        assertThat(instance.bean(RestaurantRepository.class).count()).isEqualTo(1);
+        assertThat(admittedWrites()).isEqualTo(1L);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Object admittedWrites() {
+        Map<String, Object> priorities = (Map<String, Object>) instance.bean(AdmissionControlFilter.class).stats().get("priorities");
+        return ((Map<String, Object>) priorities.get("AUTHENTICATED_WRITE")).get("admitted");
+    }
+}
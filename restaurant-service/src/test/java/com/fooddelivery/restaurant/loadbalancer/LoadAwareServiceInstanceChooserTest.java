@@ -0,0 +1,89 @@
+package com.fooddelivery.restaurant.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoadAwareServiceInstanceChooserTest {
+    
+    private static final int DRAWS = 50_000;
+    
+    private final LoadAwareServiceInstanceChooser chooser = new LoadAwareServiceInstanceChooser(null);
+    
+    @Test
+    void noInstancesGiveAnEmptyResponse() {
+        assertThat(chooser.choose(List.of()).hasServer()).isFalse();
+    }
+    
+    @Test
+    void lessLoadedInstancesArePickedMoreOften() {
+        // Weights 1 / (1 * 10) and 1 / (4 * 40): the idle instance should get 16 of every 17 picks
+        ServiceInstance idle = instance("idle", "0", "10", "0.5");
+        ServiceInstance busy = instance("busy", "3", "40", "0.5");
+        
+        Map<String, Double> shares = shares(List.of(idle, busy));
+        
+        assertThat(shares.get("idle")).isCloseTo(16 / 17.0, within(0.01));
+    }
+    
+    @Test
+    void warmerCachesArePickedMoreOften() {
+        Map<String, Double> shares = shares(List.of(instance("cold", "0", "10", "0.0"), instance("warm", "0", "10", "1.0")));
+        
+        assertThat(shares.get("warm")).isCloseTo(0.75, within(0.01));
+    }
+    
+    @Test
+    void instancesWithoutLoadGetTheAverageWeight() {
+        // Weights 0.1 and 0.05, so the unpublished and the malformed instance each get 0.075
+        ServiceInstance fast = instance("fast", "0", "10", null);
+        ServiceInstance slow = instance("slow", "1", "10", null);
+        ServiceInstance unpublished = instance("unpublished", null, null, null);
+        ServiceInstance malformed = instance("malformed", "n/a", "10", null);
+        
+        Map<String, Double> shares = shares(List.of(fast, slow, unpublished, malformed));
+        
+        assertThat(shares.get("fast")).isCloseTo(0.1 / 0.3, within(0.01));
+        assertThat(shares.get("slow")).isCloseTo(0.05 / 0.3, within(0.01));
+        assertThat(shares.get("unpublished")).isCloseTo(0.075 / 0.3, within(0.01));
+        assertThat(shares.get("malformed")).isCloseTo(0.075 / 0.3, within(0.01));
+    }
+    
+    @Test
+    void withoutAnyLoadThePickIsUniform() {
+        Map<String, Double> shares = shares(List.of(instance("a", null, null, null), instance("b", null, null, null)));
+        
+        assertThat(shares.get("a")).isCloseTo(0.5, within(0.01));
+    }
+    
+    private Map<String, Double> shares(List<ServiceInstance> instances) {
+        Map<String, Double> shares = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            Response<ServiceInstance> response = chooser.choose(instances);
+            shares.merge(response.getServer().getInstanceId(), 1.0 / DRAWS, Double::sum);
+        }
+        return shares;
+    }
+    
+    private static ServiceInstance instance(String id, String inFlight, String p99Millis, String cacheWarmth) {
+        Map<String, String> metadata = new HashMap<>();
+        if (inFlight != null) {
+            metadata.put(InstanceLoadPublisher.IN_FLIGHT, inFlight);
+        }
+        if (p99Millis != null) {
+            metadata.put(InstanceLoadPublisher.P99_MILLIS, p99Millis);
+        }
+        if (cacheWarmth != null) {
+            metadata.put(InstanceLoadPublisher.CACHE_WARMTH, cacheWarmth);
+        }
+        return new DefaultServiceInstance(id, "restaurant-service", "localhost", 8081, false, metadata);
+    }
+}
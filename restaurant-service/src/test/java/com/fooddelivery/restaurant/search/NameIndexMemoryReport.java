@@ -0,0 +1,93 @@
+package com.fooddelivery.restaurant.search;
+
+import com.fooddelivery.restaurant.util.LatencySamples;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap taken by the name index over synthetic restaurant names next to its own
+ * estimate, and the latency of prefix lookups against it:
+ *
+ *   mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ *   java -Xmx2g -cp target/classes:target/test-classes:$(cat target/classpath.txt) \
+ *     com.fooddelivery.restaurant.search.NameIndexMemoryReport --names=100000 --words=3
+ */
+public class NameIndexMemoryReport {
+    
+    private static final String[] WORDS = {
+        "pizza", "palace", "burger", "barn", "sushi", "garden", "golden", "dragon", "taco", "town",
+        "noodle", "house", "curry", "corner", "bistro", "grill", "kitchen", "express", "royal", "spice",
+        "cafe", "bakery", "street", "food", "little", "italy", "thai", "orchid", "smoke", "pit"
+    };
+    
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+        int names = Integer.parseInt(options.getOrDefault("names", "100000"));
+        int words = Integer.parseInt(options.getOrDefault("words", "3"));
+        Random random = new Random(42);
+        
+        long baseline = usedHeap();
+        PrefixIndex index = new PrefixIndex();
+        for (int id = 1; id <= names; id++) {
+            index.put(id, name(random, words), random.nextInt(10) > 0, random.nextInt(200));
+        }
+        long measured = usedHeap() - baseline;
+        long estimated = index.estimateBytes();
+        
+        LatencySamples single = new LatencySamples(10_000);
+        LatencySamples multi = new LatencySamples(10_000);
+        long hits = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+            hits += lookup(index, prefix, single);
+            hits += lookup(index, prefix + " " + WORDS[random.nextInt(WORDS.length)].charAt(0), multi);
+        }
+        
+        System.out.printf("%d names, %d nodes%n", index.size(), index.nodeCount());
+        System.out.printf("measured %.1f MB (%d B per name), estimated %.1f MB (%d B per name)%n",
+            measured / (double) (1 << 20), measured / names, estimated / (double) (1 << 20), estimated / names);
+        System.out.printf("single-word lookup p50 %.1f us, p99 %.1f us%n",
+            single.percentile(0.50, TimeUnit.MICROSECONDS), single.percentile(0.99, TimeUnit.MICROSECONDS));
+        System.out.printf("two-word lookup    p50 %.1f us, p99 %.1f us (hits %d)%n",
+            multi.percentile(0.50, TimeUnit.MICROSECONDS), multi.percentile(0.99, TimeUnit.MICROSECONDS), hits);
+    }
+    
+    private static int lookup(PrefixIndex index, String query, LatencySamples samples) {
+        long start = System.nanoTime();
+        int found = index.search(query, 10, false).size();
+        samples.record(System.nanoTime() - start);
+        return found;
+    }
+    
+    // A numbered word keeps names distinct, as real names mostly are
+    private static String name(Random random, int words) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < words - 1; i++) {
+            name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return name.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(100_000)).toString();
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 2) {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
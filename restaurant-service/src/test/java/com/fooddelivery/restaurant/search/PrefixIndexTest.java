@@ -0,0 +1,101 @@
+package com.fooddelivery.restaurant.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+    
+    private final PrefixIndex index = new PrefixIndex();
+    
+    @Test
+    void anyWordOfTheNameMatchesByPrefixIgnoringCaseAndAccents() {
+        index.put(1, "Café Crème", true, 0);
+        index.put(2, "The Burger Joint", true, 0);
+        
+        assertThat(ids("cafe")).containsExactly(1L);
+        assertThat(ids("CRE")).containsExactly(1L);
+        assertThat(ids("joi")).containsExactly(2L);
+        assertThat(ids("urger")).isEmpty();
+        assertThat(ids("  ")).isEmpty();
+    }
+    
+    @Test
+    void everyQueryWordMustPrefixSomeWordOfTheName() {
+        index.put(1, "Pizza Palace", true, 0);
+        index.put(2, "Pasta Palace", true, 0);
+        index.put(3, "Pizza Express", true, 0);
+        
+        assertThat(ids("pal piz")).containsExactly(1L);
+        assertThat(ids("pa pa")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids("pizza zoo")).isEmpty();
+    }
+    
+    @Test
+    void resultsAreRankedByScoreThenNameAndCutAtTheLimit() {
+        index.put(1, "Pizza Bella", true, 5);
+        index.put(2, "Pizza Amore", true, 5);
+        index.put(3, "Pizzeria Roma", true, 9);
+        index.put(4, "Pie Shop", true, 1);
+        
+        assertThat(ids("pi")).containsExactly(3L, 2L, 1L, 4L);
+        assertThat(index.search("pi", 2, false)).extracting(entry -> entry.id).containsExactly(3L, 2L);
+    }
+    
+    @Test
+    void activeOnlySkipsInactiveRestaurantsAtAnyScore() {
+        index.put(1, "Sushi Bar", false, 50);
+        index.put(2, "Sushi Go", true, 3);
+        
+        assertThat(index.search("sushi", 10, true)).extracting(entry -> entry.id).containsExactly(2L);
+        assertThat(ids("sushi")).containsExactly(1L, 2L);
+        assertThat(index.search("bar", 10, true)).isEmpty();
+    }
+    
+    @Test
+    void scoreChangesReorderResults() {
+        index.put(1, "Noodle House", true, 1);
+        index.put(2, "Noodle Bar", true, 2);
+        
+        index.updateScore(1, 10);
+        
+        assertThat(ids("noodle")).containsExactly(1L, 2L);
+        assertThat(index.get(1).score).isEqualTo(10);
+    }
+    
+    @Test
+    void renamesAndRemovalsDropOldWordsAndCollapseTheTrie() {
+        index.put(1, "Pizzeria", true, 0);
+        index.put(2, "Pizza", true, 0);
+        index.put(3, "Pie", true, 0);
+        
+        index.put(1, "Trattoria", true, 0);
+        assertThat(ids("pizzer")).isEmpty();
+        assertThat(ids("trat")).containsExactly(1L);
+        assertThat(ids("pi")).containsExactlyInAnyOrder(2L, 3L);
+        
+        index.remove(1);
+        index.remove(2);
+        index.remove(3);
+        assertThat(index.size()).isZero();
+        assertThat(index.nodeCount()).isEqualTo(1);
+        assertThat(ids("p")).isEmpty();
+    }
+    
+    @Test
+    void aPrefixEndingInsideAnEdgeMatchesEverythingBelowIt() {
+        index.put(1, "Steakhouse", true, 0);
+        index.put(2, "Steam Buns", true, 0);
+        
+        // "stea" ends where the two words split, "steak" inside the edge below that
+        assertThat(ids("stea")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids("steak")).containsExactly(1L);
+        assertThat(ids("steakhousex")).isEmpty();
+    }
+    
+    private List<Long> ids(String query) {
+        return index.search(query, 10, false).stream().map(entry -> entry.id).toList();
+    }
+}
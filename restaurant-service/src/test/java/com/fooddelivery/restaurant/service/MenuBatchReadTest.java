@@ -0,0 +1,106 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The batched menu read picks each restaurant's first items in the query, and with
+ * {@code availableOnly} must count toggles that are not flushed yet.
+ */
+class MenuBatchReadTest {
+    
+    private static LocalInstance instance;
+    private static Long large;
+    private static Long small;
+    private static final List<Long> largeItems = new ArrayList<>();
+    private static final List<Long> smallItems = new ArrayList<>();
+    
+    @BeforeAll
+    static void startInstance() {
+        // Toggles stay pending until a test flushes them
+        instance = LocalInstance.start(LocalInstance.database("menu-batch-read"),
+            "restaurant.availability.flush-interval-ms=3600000");
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        RestaurantService restaurants = instance.bean(RestaurantService.class);
+        MenuItemService menu = instance.bean(MenuItemService.class);
+        large = restaurants.createRestaurant(restaurant("Large Menu")).getId();
+        small = restaurants.createRestaurant(restaurant("Small Menu")).getId();
+        for (int i = 0; i < 5; i++) {
+            largeItems.add(menu.addMenuItem(large, menuItem("Large " + i)).getId());
+        }
+        for (int i = 0; i < 2; i++) {
+            smallItems.add(menu.addMenuItem(small, menuItem("Small " + i)).getId());
+        }
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void eachRestaurantIsCutToItsFirstItems() {
+        List<RestaurantMenuDto> menus = instance.bean(MenuItemService.class).getMenusByRestaurants(List.of(small, large), false, 3);
+        
+        assertThat(menus).extracting(menu -> menu.getRestaurant().getId()).containsExactly(small, large);
+        assertThat(itemIds(menus.get(0))).containsExactlyElementsOf(smallItems);
+        assertThat(itemIds(menus.get(1))).containsExactlyElementsOf(largeItems.subList(0, 3));
+        assertThat(itemIds(instance.bean(MenuItemService.class).getMenusByRestaurants(List.of(large), false, null).get(0)))
+            .containsExactlyElementsOf(largeItems);
+    }
+    
+    @Test
+    void availableOnlyCountsUnflushedTogglesBeforeCutting() {
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        MenuItemService menu = instance.bean(MenuItemService.class);
+        Long toggled = largeItems.get(1);
+        
+        menu.updateMenuItemStatus(toggled, false);
+        assertThat(availableIds(2)).containsExactly(largeItems.get(0), largeItems.get(2));
+        
+        // Stored as unavailable now; the pending toggle back must bring it in again
+        instance.bean(MenuItemAvailabilityStore.class).flush();
+        menu.updateMenuItemStatus(toggled, true);
+        assertThat(availableIds(2)).containsExactly(largeItems.get(0), toggled);
+        
+        instance.bean(MenuItemAvailabilityStore.class).flush();
+        assertThat(availableIds(2)).containsExactly(largeItems.get(0), toggled);
+    }
+    
+    private static List<Long> availableIds(int limit) {
+        return itemIds(instance.bean(MenuItemService.class).getMenusByRestaurants(List.of(large), true, limit).get(0));
+    }
+    
+    private static List<Long> itemIds(RestaurantMenuDto menu) {
+        return menu.getMenuItems().stream().map(MenuItemResponseDto::getId).toList();
+    }
+    
+    private static RestaurantRequestDto restaurant(String name) {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName(name);
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+    
+    private static MenuItemRequestDto menuItem(String name) {
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName(name);
+        menuItem.setPrice(new BigDecimal("9.50"));
+        menuItem.setCategory("Mains");
+        return menuItem;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.exception.ResourceNotFoundException;
+import com.fooddelivery.restaurant.repository.MenuSnapshotRepository;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writers rebuilding a restaurant that has no snapshot row yet must not collide creating it, and
+ * menu reads must never write one.
+ */
+class MenuSnapshotRebuildTest {
+    
+    private static final int WRITERS = 8;
+    
+    private static LocalInstance instance;
+    
+    @BeforeAll
+    static void startInstance() {
+        instance = LocalInstance.start(LocalInstance.database("menu-snapshot-rebuild"));
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void concurrentFirstRebuildsCreateOneRow() throws Exception {
+        Long restaurantId = createRestaurantWithoutSnapshot();
+        MenuSnapshotService snapshots = instance.bean(MenuSnapshotService.class);
+        TransactionTemplate transactionTemplate = instance.bean(TransactionTemplate.class);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<RestaurantMenuDto>> rebuilds = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                rebuilds.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> snapshots.rebuild(restaurantId));
+                }));
+            }
+            start.countDown();
+            for (Future<RestaurantMenuDto> rebuild : rebuilds) {
+                assertThat(rebuild.get().getRestaurant().getId()).isEqualTo(restaurantId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(repository().findById(restaurantId).orElseThrow().getVersion()).isEqualTo(WRITERS);
+    }
+    
+    @Test
+    void readsOfMissingSnapshotsDoNotWrite() {
+        Long restaurantId = createRestaurantWithoutSnapshot();
+        MenuSnapshotService snapshots = instance.bean(MenuSnapshotService.class);
+        
+        assertThat(snapshots.getMenu(restaurantId).getRestaurant().getId()).isEqualTo(restaurantId);
+        assertThatThrownBy(() -> snapshots.getMenu(-1L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> snapshots.rebuild(-1L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(repository().existsById(restaurantId)).isFalse();
+        assertThat(repository().existsById(-1L)).isFalse();
+    }
+    
+    @Test
+    void backfillWritesMissingSnapshots() {
+        Long restaurantId = createRestaurantWithoutSnapshot();
+        
+        instance.bean(MenuSnapshotService.class).backfill();
+        
+        assertThat(repository().findById(restaurantId).orElseThrow().getVersion()).isEqualTo(1);
+    }
+    
+    private static Long createRestaurantWithoutSnapshot() {
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        Long restaurantId = instance.bean(RestaurantService.class).createRestaurant(restaurant()).getId();
+        instance.bean(MenuSnapshotService.class).delete(restaurantId);
+        return restaurantId;
+    }
+    
+    private static MenuSnapshotRepository repository() {
+        return instance.bean(MenuSnapshotRepository.class);
+    }
+    
+    private static RestaurantRequestDto restaurant() {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName("First Read");
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+}
@@ -0,0 +1,113 @@
+package com.fooddelivery.restaurant.service;
+
+import com.fooddelivery.restaurant.cache.MenuItemAvailabilityStore;
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.entity.MenuStats;
+import com.fooddelivery.restaurant.repository.MenuStatsRepository;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The stats row is adjusted incrementally on every menu change; after each step it must match
+ * a full recount from menu_items.
+ */
+class MenuStatsServiceTest {
+    
+    private static LocalInstance instance;
+    
+    @BeforeAll
+    static void startInstance() {
+        // Toggles are flushed by the test only
+        instance = LocalInstance.start(LocalInstance.database("menu-stats"),
+            "restaurant.availability.flush-interval-ms=3600000");
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @Test
+    void incrementalStatsMatchARecountAfterEveryChange() {
+        LocalInstance.signInAs(42L, "RESTAURANT_OWNER");
+        MenuItemService menu = instance.bean(MenuItemService.class);
+        Long restaurantId = instance.bean(RestaurantService.class).createRestaurant(restaurant()).getId();
+        
+        Long curry = menu.addMenuItem(restaurantId, menuItem("Curry", "5.00", "Mains")).getId();
+        menu.addMenuItem(restaurantId, menuItem("Steak", "9.00", "Mains"));
+        Long lemonade = menu.addMenuItem(restaurantId, menuItem("Lemonade", "2.50", "Drinks")).getId();
+        assertThat(checked(restaurantId)).isEqualTo(new Summary(3, 3, "16.5", "2.5", "9", Map.of("Mains", 2, "Drinks", 1)));
+        
+        // New maximum and a category moving to a new facet
+        menu.updateMenuItem(curry, menuItem("Curry", "12.00", "Desserts"));
+        assertThat(checked(restaurantId))
+            .isEqualTo(new Summary(3, 3, "23.5", "2.5", "12", Map.of("Mains", 1, "Drinks", 1, "Desserts", 1)));
+        
+        // The cheapest item gets dearer, so the minimum has to be looked up again
+        menu.updateMenuItem(lemonade, menuItem("Lemonade", "4.00", "Drinks"));
+        assertThat(checked(restaurantId).minPrice()).isEqualTo("4");
+        
+        // Deleting the most expensive item, and the last one in its category
+        menu.deleteMenuItem(curry);
+        assertThat(checked(restaurantId)).isEqualTo(new Summary(2, 2, "13", "4", "9", Map.of("Mains", 1, "Drinks", 1)));
+        
+        menu.updateMenuItemStatus(lemonade, false);
+        instance.bean(MenuItemAvailabilityStore.class).flush();
+        assertThat(checked(restaurantId).availableCount()).isEqualTo(1);
+        
+        // Updating an unavailable item must not count it as available again
+        menu.updateMenuItem(lemonade, menuItem("Lemonade", "3.00", "Drinks"));
+        assertThat(checked(restaurantId)).isEqualTo(new Summary(2, 1, "12", "3", "9", Map.of("Mains", 1, "Drinks", 1)));
+        
+        menu.deleteMenuItem(lemonade);
+        assertThat(checked(restaurantId)).isEqualTo(new Summary(1, 1, "9", "9", "9", Map.of("Mains", 1)));
+    }
+    
+    // The incrementally kept row, after checking it against a recount
+    private static Summary checked(Long restaurantId) {
+        Summary incremental = Summary.of(instance.bean(MenuStatsRepository.class).findById(restaurantId).orElseThrow());
+        Summary recounted = Summary.of(instance.bean(TransactionTemplate.class).execute(status ->
+            instance.bean(MenuStatsService.class).rebuild(restaurantId)));
+        assertThat(incremental).isEqualTo(recounted);
+        return incremental;
+    }
+    
+    private static RestaurantRequestDto restaurant() {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName("Stats");
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+    
+    private static MenuItemRequestDto menuItem(String name, String price, String category) {
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName(name);
+        menuItem.setPrice(new BigDecimal(price));
+        menuItem.setCategory(category);
+        return menuItem;
+    }
+    
+    // Prices as plain strings so values read back with a different scale compare equal
+    private record Summary(int itemCount, int availableCount, String priceTotal, String minPrice, String maxPrice,
+                           Map<String, Integer> categoryCounts) {
+        
+        static Summary of(MenuStats stats) {
+            return new Summary(stats.getItemCount(), stats.getAvailableCount(), plain(stats.getPriceTotal()),
+                plain(stats.getMinPrice()), plain(stats.getMaxPrice()), Map.copyOf(stats.getCategoryCounts()));
+        }
+        
+        private static String plain(BigDecimal value) {
+            return value != null ? value.stripTrailingZeros().toPlainString() : null;
+        }
+    }
+}
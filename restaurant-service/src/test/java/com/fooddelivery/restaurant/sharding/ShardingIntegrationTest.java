@@ -0,0 +1,139 @@
+package com.fooddelivery.restaurant.sharding;
+
+import com.fooddelivery.restaurant.dto.MenuItemRequestDto;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+import com.fooddelivery.restaurant.dto.RestaurantMenuDto;
+import com.fooddelivery.restaurant.dto.RestaurantRequestDto;
+import com.fooddelivery.restaurant.dto.RestaurantResponseDto;
+import com.fooddelivery.restaurant.service.MenuItemService;
+import com.fooddelivery.restaurant.service.RestaurantService;
+import com.fooddelivery.restaurant.support.LocalInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One instance over two shard databases: writes must land on the shard their id names, and
+ * reads without a shard key must see every shard.
+ */
+class ShardingIntegrationTest {
+    
+    private static final Long OWNER_ID = 42L;
+    private static final String[] SHARDS = {LocalInstance.database("sharding_0"), LocalInstance.database("sharding_1")};
+    
+    private static LocalInstance instance;
+    
+    @BeforeAll
+    static void startInstance() {
+        List<String> properties = new ArrayList<>(List.of("restaurant.sharding.enabled=true"));
+        for (int i = 0; i < SHARDS.length; i++) {
+            String prefix = "restaurant.sharding.shards[" + i + "].";
+            properties.add(prefix + "url=" + SHARDS[i]);
+            properties.add(prefix + "username=sa");
+            properties.add(prefix + "password=");
+            properties.add(prefix + "driver-class-name=org.h2.Driver");
+        }
+        instance = LocalInstance.start(SHARDS[0], properties.toArray(String[]::new));
+    }
+    
+    @AfterAll
+    static void stopInstance() {
+        instance.close();
+    }
+    
+    @BeforeEach
+    void signIn() {
+        LocalInstance.signInAs(OWNER_ID, "RESTAURANT_OWNER");
+    }
+    
+    @Test
+    void writesLandOnTheShardTheirIdNames() throws SQLException {
+        RestaurantService restaurants = instance.bean(RestaurantService.class);
+        MenuItemService menu = instance.bean(MenuItemService.class);
+        ShardRouter shardRouter = instance.bean(ShardRouter.class);
+        
+        List<Long> restaurantIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Long restaurantId = restaurants.createRestaurant(restaurant("Placement " + i)).getId();
+            Long menuItemId = menu.addMenuItem(restaurantId, menuItem("Dish " + i)).getId();
+            assertThat(shardRouter.shardOf(menuItemId)).isEqualTo(shardRouter.shardOf(restaurantId));
+            restaurantIds.add(restaurantId);
+        }
+        
+        assertThat(restaurantIds).extracting(shardRouter::shardOf).contains(0, 1);
+        for (Long restaurantId : restaurantIds) {
+            int shard = shardRouter.shardOf(restaurantId);
+            assertThat(count(shard, "SELECT COUNT(*) FROM restaurants WHERE id = " + restaurantId)).isEqualTo(1);
+            assertThat(count(1 - shard, "SELECT COUNT(*) FROM restaurants WHERE id = " + restaurantId)).isZero();
+            assertThat(count(shard, "SELECT COUNT(*) FROM menu_items WHERE restaurant_id = " + restaurantId)).isEqualTo(1);
+            assertThat(count(1 - shard, "SELECT COUNT(*) FROM menu_items WHERE restaurant_id = " + restaurantId)).isZero();
+        }
+    }
+    
+    @Test
+    void readsByIdRouteAndReadsWithoutOneFanOut() {
+        RestaurantService restaurants = instance.bean(RestaurantService.class);
+        MenuItemService menu = instance.bean(MenuItemService.class);
+        
+        List<Long> restaurantIds = new ArrayList<>();
+        List<Long> menuItemIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Long restaurantId = restaurants.createRestaurant(restaurant("Reads " + i)).getId();
+            menuItemIds.add(menu.addMenuItem(restaurantId, menuItem("Special " + i)).getId());
+            restaurantIds.add(restaurantId);
+        }
+        
+        for (int i = 0; i < restaurantIds.size(); i++) {
+            assertThat(restaurants.getRestaurantById(restaurantIds.get(i), false).getName()).isEqualTo("Reads " + i);
+            assertThat(menu.getMenuItemById(menuItemIds.get(i)).getRestaurantId()).isEqualTo(restaurantIds.get(i));
+            assertThat(menu.getMenuItemsByRestaurant(restaurantIds.get(i)))
+                .extracting(MenuItemResponseDto::getId).containsExactly(menuItemIds.get(i));
+        }
+        assertThat(restaurants.getAllRestaurants(false))
+            .extracting(RestaurantResponseDto::getId).containsAll(restaurantIds);
+        assertThat(restaurants.getRestaurantsByOwner(OWNER_ID, false))
+            .extracting(RestaurantResponseDto::getId).containsAll(restaurantIds);
+        
+        List<Long> requested = List.of(restaurantIds.get(3), restaurantIds.get(0), restaurantIds.get(1));
+        List<RestaurantMenuDto> menus = menu.getMenusByRestaurants(requested, false, null);
+        assertThat(menus).extracting(batch -> batch.getRestaurant().getId()).containsExactlyElementsOf(requested);
+        assertThat(menus).allSatisfy(batch -> assertThat(batch.getMenuItems()).hasSize(1));
+    }
+    
+    private static long count(int shard, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(SHARDS[shard], "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+    
+    private static RestaurantRequestDto restaurant(String name) {
+        RestaurantRequestDto restaurant = new RestaurantRequestDto();
+        restaurant.setName(name);
+        restaurant.setAddress("1 Main Street");
+        restaurant.setPhone("1234567890");
+        return restaurant;
+    }
+    
+    private static MenuItemRequestDto menuItem(String name) {
+        MenuItemRequestDto menuItem = new MenuItemRequestDto();
+        menuItem.setName(name);
+        menuItem.setPrice(new BigDecimal("9.50"));
+        menuItem.setCategory("Mains");
+        return menuItem;
+    }
+}
@@ -0,0 +1,160 @@
+package com.fooddelivery.restaurant.support;
+
+import com.fooddelivery.restaurant.RestaurantServiceApplication;
+import com.fooddelivery.restaurant.security.UserPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One application instance for multi-instance tests. Instances started on the same database
+ * share it, but each gets its own second-level cache, web port, catalog snapshot and trending file,
+ * as separate processes would.
+ */
+public final class LocalInstance implements AutoCloseable {
+    
+    private final ConfigurableApplicationContext context;
+    private final CacheManager cacheManager;
+    // The cache manager only holds its class loader weakly
+    private final ClassLoader cacheClassLoader;
+    
+    private LocalInstance(ConfigurableApplicationContext context, CacheManager cacheManager, ClassLoader cacheClassLoader) {
+        this.context = context;
+        this.cacheManager = cacheManager;
+        this.cacheClassLoader = cacheClassLoader;
+    }
+    
+    public static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static String database(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+    
+    public static LocalInstance start(String databaseUrl, String... properties) {
+        return start(databaseUrl, context -> { }, properties);
+    }
+    
+    /**
+     * Starts an instance; properties are name=value pairs overriding the defaults, and the
+     * initializer can register extra beans before the context refreshes.
+     */
+    public static LocalInstance start(String databaseUrl,
+                                      ApplicationContextInitializer<ConfigurableApplicationContext> initializer,
+                                      String... properties) {
+        // The caching provider keeps one manager per class loader, so a throwaway loader gives this instance its own regions
+        CachingProvider provider = Caching.getCachingProvider("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        ClassLoader cacheClassLoader = new URLClassLoader(new URL[0], LocalInstance.class.getClassLoader());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), cacheClassLoader);
+        
+        // Repeated command line arguments are joined rather than overridden, so merge them first
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("server.port", "0");
+        args.put("spring.datasource.url", databaseUrl);
+        args.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        args.put("spring.datasource.username", "sa");
+        args.put("spring.datasource.password", "");
+        args.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        args.put("eureka.client.enabled", "false");
+        String directory = tempDirectory();
+        args.put("restaurant.catalog-snapshot.path", directory + "/catalog-snapshot.bin");
+        args.put("restaurant.trending.path", directory + "/trending.bin");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            args.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RestaurantServiceApplication.class)
+            .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton("instanceCacheManager",
+                (HibernatePropertiesCustomizer) hibernateProperties ->
+                    hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager)))
+            .initializers(initializer)
+            .run(args.entrySet().stream().map(arg -> "--" + arg.getKey() + "=" + arg.getValue()).toArray(String[]::new));
+        return new LocalInstance(context, cacheManager, cacheClassLoader);
+    }
+    
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+    
+    public Statistics statistics() {
+        return bean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    /**
+     * A bearer token this instance accepts, for requests sent over HTTP.
+     */
+    public String token(Long userId, String role) {
+        String secret = context.getEnvironment().getRequiredProperty("jwt.secret");
+        return Jwts.builder()
+            .claims(Map.of("userId", String.valueOf(userId), "role", role))
+            .subject(String.valueOf(userId))
+            .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+            .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+    
+    public static void signInAs(Long userId, String role) {
+        UserPrincipal principal = new UserPrincipal(userId, role);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+    
+    public static void await(Duration timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within " + timeout);
+            }
+            Thread.sleep(20);
+        }
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+        cacheManager.close();
+    }
+    
+    private static String tempDirectory() {
+        try {
+            return Files.createTempDirectory("restaurant-instance").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.fooddelivery.restaurant.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterTrendingTest {
+    
+    @Test
+    void viewsOfTheSameItemAreAddedUp() {
+        List<TrendingEntry> merged = ClusterTrending.merge(List.of(
+            List.of(entry(1, 10), entry(2, 8)),
+            List.of(entry(2, 5), entry(3, 4))), 3);
+        
+        assertThat(merged).containsExactly(entry(2, 13), entry(1, 10), entry(3, 4));
+    }
+    
+    @Test
+    void itemsMissingFromAFullRankingGetItsLowestCountAsError() {
+        // The second instance only lists its top two, so item 1 may have had up to 6 views there
+        List<TrendingEntry> merged = ClusterTrending.merge(List.of(
+            List.of(entry(1, 9)),
+            List.of(entry(2, 7), entry(3, 6))), 2);
+        
+        assertThat(merged).containsExactly(
+            new TrendingEntry(1L, 100L, 15, 6),
+            new TrendingEntry(2L, 100L, 7, 0));
+    }
+    
+    private static TrendingEntry entry(long menuItemId, double views) {
+        return new TrendingEntry(menuItemId, 100L, views, 0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.fooddelivery.restaurant.trending;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendingTrackerTest {
+    
+    private static final long HOUR = 3_600_000;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void viewsFromManyThreadsAreCountedOnceDrained() throws InterruptedException {
+        TrendingTracker tracker = tracker(4, 8000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long menuItemId = t % 2 == 0 ? 1 : 2;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    tracker.recordView(7L, menuItemId);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        tracker.drain();
+        
+        assertThat(tracker.stats()).containsEntry("viewsRecorded", 8000L).containsEntry("viewsDropped", 0L);
+        assertThat(tracker.top(7L, 2)).extracting(TrendingEntry::menuItemId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(tracker.top(2).get(0).views()).isCloseTo(4000, within(1.0));
+    }
+    
+    @Test
+    void viewsWaitInTheBufferUntilDrained() {
+        TrendingTracker tracker = tracker(1, 16);
+        tracker.recordView(7L, 1L);
+        
+        assertThat(tracker.top(1)).isEmpty();
+        tracker.drain();
+        assertThat(tracker.top(1)).extracting(TrendingEntry::menuItemId).containsExactly(1L);
+    }
+    
+    private TrendingTracker tracker(int stripes, int capacity) {
+        return new TrendingTracker(true, HOUR, 16, 8, 100, directory.resolve("trending.bin").toString(), stripes, capacity);
+    }
+}
@@ -0,0 +1,123 @@
+package com.fooddelivery.restaurant.util;
+
+import com.fooddelivery.restaurant.catalog.CompactMenu;
+import com.fooddelivery.restaurant.dto.MenuItemResponseDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the heap taken by synthetic menus held as lists of {@link MenuItemResponseDto} and as
+ * {@link CompactMenu}s, scaled to one million items, and how long materializing every item takes:
+ *
+ *   mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ *   java -Xmx4g -cp target/classes:target/test-classes:$(cat target/classpath.txt) \
+ *     com.fooddelivery.restaurant.util.CatalogMemoryReport --items=1000000 --items-per-restaurant=40
+ */
+public class CatalogMemoryReport {
+    
+    private static final String[] CATEGORIES = {
+        "Starters", "Soups", "Salads", "Mains", "Pizza", "Pasta", "Burgers", "Sides", "Desserts", "Drinks", "Kids", "Specials"
+    };
+    private static final String[] WORDS = {
+        "paneer", "tikka", "chicken", "garlic", "butter", "smoked", "spicy", "grilled", "crispy", "fresh",
+        "tomato", "basil", "mushroom", "truffle", "lemon", "pepper", "house", "classic", "roasted", "sweet"
+    };
+    
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+        int items = Integer.parseInt(options.getOrDefault("items", "1000000"));
+        int perRestaurant = Integer.parseInt(options.getOrDefault("items-per-restaurant", "40"));
+        
+        long baseline = usedHeap();
+        List<List<MenuItemResponseDto>> boxed = generate(items, perRestaurant, new Random(42));
+        long boxedHeap = usedHeap() - baseline;
+        
+        List<CompactMenu> compact = new ArrayList<>(boxed.size());
+        long estimatedBoxed = 0;
+        long estimatedCompact = 0;
+        for (List<MenuItemResponseDto> menu : boxed) {
+            CompactMenu packed = CompactMenu.of(menu).orElseThrow();
+            compact.add(packed);
+            estimatedBoxed += packed.boxedBytes();
+            estimatedCompact += packed.estimatedBytes();
+        }
+        boxed.clear();
+        long compactHeap = usedHeap() - baseline;
+        
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int restaurant = 0; restaurant < compact.size(); restaurant++) {
+            CompactMenu menu = compact.get(restaurant);
+            for (int i = 0; i < menu.size(); i++) {
+                checksum += menu.get(i, (long) restaurant).getName().length();
+            }
+        }
+        double materializeNanos = (double) (System.nanoTime() - start) / items;
+        
+        double scale = 1_000_000.0 / items;
+        System.out.printf("%-14s %14s %14s%n", "representation", "measured MB/M", "estimated MB/M");
+        System.out.printf("%-14s %14.1f %14.1f%n", "boxed DTOs", boxedHeap * scale / (1 << 20), estimatedBoxed * scale / (1 << 20));
+        System.out.printf("%-14s %14.1f %14.1f%n", "compact", compactHeap * scale / (1 << 20), estimatedCompact * scale / (1 << 20));
+        System.out.printf("%d items in %d menus, materializing one item takes %.0f ns (checksum %d)%n",
+            items, compact.size(), materializeNanos, checksum);
+    }
+    
+    // Every item gets its own objects, as when menus are read back from JSON
+    private static List<List<MenuItemResponseDto>> generate(int items, int perRestaurant, Random random) {
+        List<List<MenuItemResponseDto>> menus = new ArrayList<>();
+        LocalDateTime epoch = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long id = 1;
+        for (int restaurant = 1; id <= items; restaurant++) {
+            List<MenuItemResponseDto> menu = new ArrayList<>(perRestaurant);
+            for (int i = 0; i < perRestaurant && id <= items; i++, id++) {
+                LocalDateTime createdAt = epoch.plusNanos(random.nextLong(1L << 54) / 1000 * 1000);
+                menu.add(new MenuItemResponseDto(
+                    id,
+                    (long) restaurant,
+                    words(random, 3),
+                    words(random, 12),
+                    BigDecimal.valueOf(100 + random.nextInt(5_000), 2),
+                    random.nextInt(10) > 0,
+                    new String(CATEGORIES[random.nextInt(CATEGORIES.length)]),
+                    createdAt,
+                    createdAt.plusSeconds(random.nextInt(1_000_000))
+                ));
+            }
+            menus.add(menu);
+        }
+        return menus;
+    }
+    
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 2) {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fooddelivery.restaurant.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencySamplesTest {
+    
+    @Test
+    void percentilesUseNearestRankInTheRequestedUnit() {
+        LatencySamples samples = new LatencySamples(100);
+        assertThat(samples.percentile(0.5, TimeUnit.MILLISECONDS)).isZero();
+        
+        for (int millis = 1; millis <= 100; millis++) {
+            samples.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        
+        assertThat(samples.percentile(0.50, TimeUnit.MILLISECONDS)).isEqualTo(50.0);
+        assertThat(samples.percentile(0.99, TimeUnit.MILLISECONDS)).isEqualTo(99.0);
+        assertThat(samples.percentile(0.99, TimeUnit.MICROSECONDS)).isEqualTo(99_000.0);
+    }
+    
+    @Test
+    void onlyTheMostRecentSamplesAreKept() {
+        LatencySamples samples = new LatencySamples(4);
+        for (long nanos = 1; nanos <= 10; nanos++) {
+            samples.record(nanos * 1_000);
+        }
+        
+        assertThat(samples.count()).isEqualTo(10);
+        assertThat(samples.percentile(0.0, TimeUnit.MICROSECONDS)).isEqualTo(7.0);
+        assertThat(samples.percentile(1.0, TimeUnit.MICROSECONDS)).isEqualTo(10.0);
+    }
+}
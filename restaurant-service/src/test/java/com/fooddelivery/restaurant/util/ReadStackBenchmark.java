@@ -0,0 +1,148 @@
+package com.fooddelivery.restaurant.util;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the servlet read path with the reactive one by holding a fixed number of concurrent
+ * connections open against each and reporting throughput, latency and failures per level.
+ * Start the service with a fixed heap first (see scripts/read-stack-benchmark.sh), then run:
+ *
+ *   java -cp target/classes:target/test-classes com.fooddelivery.restaurant.util.ReadStackBenchmark \
+ *     --servlet=http://localhost:8081 --reactive=http://localhost:8091 \
+ *     --path=/api/restaurants --levels=64,256,1024,2048 --seconds=15
+ */
+public class ReadStackBenchmark {
+    
+    private static final int MAX_LATENCY_MS = 30_000;
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String path = options.getOrDefault("path", "/api/restaurants");
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "64,256,1024,2048").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "15")));
+        
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("servlet", options.getOrDefault("servlet", "http://localhost:8081"));
+        targets.put("reactive", options.getOrDefault("reactive", "http://localhost:8091"));
+        
+        System.out.printf("%-9s %7s %10s %8s %8s %8s %8s%n", "stack", "conns", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (int level : levels) {
+            for (Map.Entry<String, String> target : targets.entrySet()) {
+                Result result = run(URI.create(target.getValue() + path), level, duration);
+                System.out.printf("%-9s %7d %10.0f %8d %8d %8d %8d%n", target.getKey(), level,
+                    result.throughput(), result.percentile(0.50), result.percentile(0.99), result.max(), result.errors());
+            }
+        }
+    }
+    
+    private static Result run(URI uri, int connections, Duration duration) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        
+        Result result = new Result();
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+        
+        // Each connection issues its next request as soon as the previous one completes
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            loops[i] = loop(client, request, deadline, result);
+        }
+        CompletableFuture.allOf(loops).join();
+        result.elapsedNanos = System.nanoTime() - startedAt;
+        
+        executor.shutdownNow();
+        // Let the server release the previous level's connections before the next one starts
+        Thread.sleep(2000);
+        return result;
+    }
+    
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline, Result result) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long sentAt = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, failure) -> {
+                result.record(System.nanoTime() - sentAt, failure == null && response.statusCode() == 200);
+                return null;
+            })
+            .thenCompose(ignored -> loop(client, request, deadline, result));
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 2) {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+    
+    private static class Result {
+        
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private long elapsedNanos;
+        
+        void record(long latencyNanos, boolean ok) {
+            if (ok) {
+                completed.increment();
+                latencyHistogram.incrementAndGet((int) Math.min(latencyNanos / 1_000_000, MAX_LATENCY_MS));
+            } else {
+                failed.increment();
+            }
+        }
+        
+        double throughput() {
+            return completed.sum() / (elapsedNanos / 1e9);
+        }
+        
+        long errors() {
+            return failed.sum();
+        }
+        
+        long percentile(double quantile) {
+            long target = (long) Math.ceil(completed.sum() * quantile);
+            long seen = 0;
+            for (int ms = 0; ms <= MAX_LATENCY_MS; ms++) {
+                seen += latencyHistogram.get(ms);
+                if (seen >= target && seen > 0) {
+                    return ms;
+                }
+            }
+            return 0;
+        }
+        
+        long max() {
+            for (int ms = MAX_LATENCY_MS; ms >= 0; ms--) {
+                if (latencyHistogram.get(ms) > 0) {
+                    return ms;
+                }
+            }
+            return 0;
+        }
+    }
+}